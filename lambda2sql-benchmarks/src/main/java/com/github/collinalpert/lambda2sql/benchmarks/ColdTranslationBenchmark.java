@@ -0,0 +1,20 @@
+package com.github.collinalpert.lambda2sql.benchmarks;
+
+import com.github.collinalpert.lambda2sql.Lambda2Sql;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the first translation of a lambda shape, which parses the lambda.
+ * The translation cache is cleared before every invocation. The JVM itself is warmed up,
+ * so the result excludes class loading and JIT compilation and only shows the cost of parsing and compiling a translation.
+ *
+ * @author Collin Alpert
+ */
+@BenchmarkMode(Mode.AverageTime)
+public class ColdTranslationBenchmark extends TranslationBenchmark {
+
+	@Setup(Level.Invocation)
+	public void clearCache() {
+		Lambda2Sql.clearCache();
+	}
+}
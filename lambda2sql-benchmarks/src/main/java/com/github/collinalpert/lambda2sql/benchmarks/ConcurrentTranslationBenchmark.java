@@ -0,0 +1,15 @@
+package com.github.collinalpert.lambda2sql.benchmarks;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures the steady state with one thread per available processor, all translating the same lambda shapes.
+ *
+ * @author Collin Alpert
+ */
+@BenchmarkMode(Mode.Throughput)
+@Threads(Threads.MAX)
+public class ConcurrentTranslationBenchmark extends TranslationBenchmark {
+}
@@ -0,0 +1,28 @@
+package com.github.collinalpert.lambda2sql.benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The entity the benchmarked lambdas are written against.
+ *
+ * @author Collin Alpert
+ */
+public interface Person {
+
+	long getId();
+
+	String getName();
+
+	String getLastName();
+
+	int getAge();
+
+	int getHeight();
+
+	boolean isActive();
+
+	LocalDate getDate();
+
+	LocalDateTime getDateTime();
+}
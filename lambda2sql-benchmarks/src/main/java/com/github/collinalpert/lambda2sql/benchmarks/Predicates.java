@@ -0,0 +1,66 @@
+package com.github.collinalpert.lambda2sql.benchmarks;
+
+import com.github.collinalpert.lambda2sql.functions.SqlPredicate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The lambda shapes which are benchmarked. They are modelled after the shapes covered by the tests of lambda2sql.
+ * Every method creates a new lambda instance, just like a query method of an application does.
+ *
+ * @author Collin Alpert
+ */
+final class Predicates {
+
+	private Predicates() {
+	}
+
+	static SqlPredicate<Person> simpleComparison(int age) {
+		return person -> person.getAge() > age;
+	}
+
+	static SqlPredicate<Person> deepChain(int age, int height, String name) {
+		return person -> (person.getAge() >= age && person.getHeight() < height || person.getName() == name)
+				&& (person.isActive() || person.getLastName() == name)
+				&& (person.getName().startsWith(name) || person.getLastName().endsWith(name) || person.getName().contains(name))
+				&& person.getAge() != height;
+	}
+
+	/**
+	 * Builds a predicate by chaining {@link SqlPredicate#and} and {@link SqlPredicate#or}, which captures other lambdas.
+	 */
+	static SqlPredicate<Person> composedChain(int age, int height, String name) {
+		SqlPredicate<Person> predicate = person -> person.getAge() >= age;
+		return predicate.and(person -> person.getHeight() < height)
+				.or(person -> person.getName() == name)
+				.and(person -> person.isActive())
+				.or(person -> person.getLastName().startsWith(name));
+	}
+
+	static SqlPredicate<Person> listContains(List<Long> ids) {
+		return person -> ids.contains(person.getId()) && person.isActive();
+	}
+
+	static SqlPredicate<Person> dateFunctions(LocalDate date, int year) {
+		return person -> person.getDate().getYear() == year && person.getDateTime().getMonthValue() >= 6 && person.getDate().isAfter(date);
+	}
+
+	/**
+	 * A predicate capturing 32 variables, as produced by generated search forms.
+	 */
+	static SqlPredicate<Person> manyCapturedVariables(int base, String name) {
+		int a0 = base, a1 = base + 1, a2 = base + 2, a3 = base + 3, a4 = base + 4, a5 = base + 5, a6 = base + 6, a7 = base + 7;
+		int b0 = base * 2, b1 = base * 3, b2 = base * 4, b3 = base * 5, b4 = base * 6, b5 = base * 7, b6 = base * 8, b7 = base * 9;
+		String n0 = name + 0, n1 = name + 1, n2 = name + 2, n3 = name + 3, n4 = name + 4, n5 = name + 5, n6 = name + 6, n7 = name + 7;
+		String l0 = name + 'a', l1 = name + 'b', l2 = name + 'c', l3 = name + 'd', l4 = name + 'e', l5 = name + 'f', l6 = name + 'g', l7 = name + 'h';
+		return person -> (person.getAge() == a0 || person.getAge() == a1 || person.getAge() == a2 || person.getAge() == a3
+				|| person.getAge() == a4 || person.getAge() == a5 || person.getAge() == a6 || person.getAge() == a7)
+				&& (person.getHeight() > b0 || person.getHeight() > b1 || person.getHeight() > b2 || person.getHeight() > b3
+				|| person.getHeight() < b4 || person.getHeight() < b5 || person.getHeight() < b6 || person.getHeight() < b7)
+				&& (person.getName() == n0 || person.getName() == n1 || person.getName() == n2 || person.getName() == n3
+				|| person.getName() == n4 || person.getName() == n5 || person.getName() == n6 || person.getName() == n7)
+				&& (person.getLastName() == l0 || person.getLastName() == l1 || person.getLastName() == l2 || person.getLastName() == l3
+				|| person.getLastName() == l4 || person.getLastName() == l5 || person.getLastName() == l6 || person.getLastName() == l7);
+	}
+}
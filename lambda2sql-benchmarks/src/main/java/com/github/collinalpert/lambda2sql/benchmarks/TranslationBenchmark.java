@@ -0,0 +1,99 @@
+package com.github.collinalpert.lambda2sql.benchmarks;
+
+import com.github.collinalpert.lambda2sql.Lambda2Sql;
+import com.github.collinalpert.lambda2sql.PreparedSql;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks shared by the warm, cold and concurrent variants.
+ * Every invocation creates a new lambda with different captured values, so the benchmarks measure what a query method of an application does.
+ *
+ * @author Collin Alpert
+ */
+@State(Scope.Thread)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public abstract class TranslationBenchmark {
+
+	private static final int VALUES = 16;
+	private static final int MASK = VALUES - 1;
+
+	/**
+	 * The number of elements in the list used with {@code contains}.
+	 */
+	@Param({"10", "1000"})
+	public int listSize;
+
+	private final int[] ages = new int[VALUES];
+	private final String[] names = new String[VALUES];
+	private final LocalDate[] dates = new LocalDate[VALUES];
+	private final List<List<Long>> idLists = new ArrayList<>(VALUES);
+	private int invocation;
+
+	@Setup(Level.Trial)
+	public void setUpValues() {
+		for (int i = 0; i < VALUES; i++) {
+			ages[i] = 18 + i;
+			names[i] = "Steve" + i;
+			dates[i] = LocalDate.of(1990 + i, 1 + i % 12, 1 + i);
+
+			var ids = new ArrayList<Long>(listSize);
+			for (long id = 0; id < listSize; id++) {
+				ids.add(id * VALUES + i);
+			}
+
+			idLists.add(ids);
+		}
+	}
+
+	private int next() {
+		return invocation++ & MASK;
+	}
+
+	@Benchmark
+	public String simpleComparison() {
+		return Lambda2Sql.toSql(Predicates.simpleComparison(ages[next()]), "person");
+	}
+
+	@Benchmark
+	public String deepChain() {
+		var i = next();
+		return Lambda2Sql.toSql(Predicates.deepChain(ages[i], ages[i] * 10, names[i]), "person");
+	}
+
+	@Benchmark
+	public String composedChain() {
+		var i = next();
+		return Lambda2Sql.toSql(Predicates.composedChain(ages[i], ages[i] * 10, names[i]), "person");
+	}
+
+	@Benchmark
+	public String listContains() {
+		return Lambda2Sql.toSql(Predicates.listContains(idLists.get(next())), "person");
+	}
+
+	@Benchmark
+	public String dateFunctions() {
+		var i = next();
+		return Lambda2Sql.toSql(Predicates.dateFunctions(dates[i], dates[i].getYear()), "person");
+	}
+
+	@Benchmark
+	public String manyCapturedVariables() {
+		var i = next();
+		return Lambda2Sql.toSql(Predicates.manyCapturedVariables(ages[i], names[i]), "person");
+	}
+
+	@Benchmark
+	public PreparedSql preparedManyCapturedVariables() {
+		var i = next();
+		return Lambda2Sql.toPreparedSql(Predicates.manyCapturedVariables(ages[i], names[i]), "person");
+	}
+}
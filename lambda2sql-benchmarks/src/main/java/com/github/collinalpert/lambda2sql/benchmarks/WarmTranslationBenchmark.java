@@ -0,0 +1,13 @@
+package com.github.collinalpert.lambda2sql.benchmarks;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+
+/**
+ * Measures the steady state on a single thread, in which every lambda shape has already been translated once.
+ *
+ * @author Collin Alpert
+ */
+@BenchmarkMode(Mode.Throughput)
+public class WarmTranslationBenchmark extends TranslationBenchmark {
+}
@@ -0,0 +1,126 @@
+package com.github.collinalpert.lambda2sql.maven;
+
+import com.github.collinalpert.lambda2sql.TemplateIndexWriter;
+import com.github.collinalpert.lambda2sql.functions.SerializedFunctionalInterface;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.InvocationTargetException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates the serializable lambdas of a project, e.g. {@code SqlPredicate}s and {@code SqlFunction}s, after it was compiled.
+ * The templates are written to {@code META-INF/lambda2sql} in the output directory and are used by {@code Lambda2Sql}
+ * instead of parsing the lambdas when they are translated for the first time.
+ * <p>
+ * Every lambda is recreated through the {@code $deserializeLambda$} method of the class creating it, with placeholder values for its captured arguments.
+ * This initializes the class, so static initializers of classes creating lambdas run during the build.
+ *
+ * @author Collin Alpert
+ */
+@Mojo(name = "generate-templates", defaultPhase = LifecyclePhase.PROCESS_CLASSES, requiresDependencyResolution = ResolutionScope.COMPILE, threadSafe = true)
+public class GenerateTemplatesMojo extends AbstractMojo {
+
+	@Parameter(defaultValue = "${project.build.outputDirectory}", required = true, readonly = true)
+	private File classesDirectory;
+
+	@Parameter(defaultValue = "${project.compileClasspathElements}", required = true, readonly = true)
+	private List<String> classpathElements;
+
+	/**
+	 * Skips the generation of templates.
+	 */
+	@Parameter(property = "lambda2sql.skip", defaultValue = "false")
+	private boolean skip;
+
+	/**
+	 * Fails the build if a lambda cannot be translated, e.g. because it uses a method which is not supported, instead of only logging a warning.
+	 */
+	@Parameter(property = "lambda2sql.failOnError", defaultValue = "false")
+	private boolean failOnError;
+
+	@Override
+	public void execute() throws MojoExecutionException {
+		if (skip || !classesDirectory.isDirectory()) {
+			return;
+		}
+
+		try {
+			var sites = LambdaSiteScanner.scan(classesDirectory.toPath());
+			if (sites.isEmpty()) {
+				return;
+			}
+
+			var writer = new TemplateIndexWriter();
+			var failures = 0;
+			// Lambda2sql itself must come from the plugin, so the lambdas implement the same SerializedFunctionalInterface the writer knows.
+			try (var classLoader = new URLClassLoader(toUrls(), getClass().getClassLoader())) {
+				for (var site : sites) {
+					try {
+						var functionalInterface = recreate(site, classLoader);
+						if (functionalInterface != null && !writer.add(functionalInterface)) {
+							getLog().debug("Skipping " + site + ", since its translation depends on its captured arguments.");
+						}
+					} catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+						failures++;
+						var cause = e instanceof InvocationTargetException ? e.getCause() : e;
+						getLog().warn("Could not translate " + site + ": " + cause);
+					}
+				}
+			}
+
+			if (failures > 0 && failOnError) {
+				throw new MojoExecutionException(failures + " lambdas could not be translated.");
+			}
+
+			writer.writeTo(classesDirectory.toPath());
+			getLog().info(String.format("Generated %d SQL templates for %d lambdas.", writer.size(), sites.size()));
+		} catch (IOException e) {
+			throw new MojoExecutionException("Could not generate SQL templates.", e);
+		}
+	}
+
+	/**
+	 * Recreates a lambda with placeholder values for its captured arguments.
+	 *
+	 * @return The lambda or {@code null}, if it does not implement {@link SerializedFunctionalInterface} or captures arguments of unsupported types.
+	 */
+	private SerializedFunctionalInterface recreate(LambdaSite site, ClassLoader classLoader) throws ReflectiveOperationException {
+		var functionalInterfaceClass = Class.forName(site.getFunctionalInterfaceClassName(), false, classLoader);
+		if (!SerializedFunctionalInterface.class.isAssignableFrom(functionalInterfaceClass)) {
+			return null;
+		}
+
+		var capturedArguments = PlaceholderArguments.of(site.getCapturedArgumentTypes());
+		if (capturedArguments == null) {
+			getLog().debug("Skipping " + site + ", since it captures arguments which cannot be created at build time.");
+			return null;
+		}
+
+		var capturingClass = Class.forName(site.getCapturingClassName(), false, classLoader);
+		var deserializeLambda = capturingClass.getDeclaredMethod("$deserializeLambda$", SerializedLambda.class);
+		deserializeLambda.setAccessible(true);
+		return (SerializedFunctionalInterface) deserializeLambda.invoke(null, site.toSerializedLambda(capturingClass, capturedArguments));
+	}
+
+	private URL[] toUrls() throws MalformedURLException {
+		var urls = new ArrayList<URL>(classpathElements.size() + 1);
+		urls.add(classesDirectory.toURI().toURL());
+		for (var element : classpathElements) {
+			urls.add(new File(element).toURI().toURL());
+		}
+
+		return urls.toArray(new URL[0]);
+	}
+}
@@ -0,0 +1,78 @@
+package com.github.collinalpert.lambda2sql.maven;
+
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.SerializedLambda;
+
+/**
+ * A place in the bytecode where a serializable lambda or method reference is created.
+ * It holds everything needed to recreate the lambda through the {@code $deserializeLambda$} method of the capturing class.
+ *
+ * @author Collin Alpert
+ */
+final class LambdaSite {
+
+	private final String capturingClass;
+	private final String functionalInterfaceClass;
+	private final String functionalInterfaceMethodName;
+	private final String functionalInterfaceMethodSignature;
+	private final int implementationMethodKind;
+	private final String implementationClass;
+	private final String implementationMethodName;
+	private final String implementationMethodSignature;
+	private final String instantiatedMethodType;
+	private final Type[] capturedArgumentTypes;
+
+	LambdaSite(String capturingClass, String functionalInterfaceClass, String functionalInterfaceMethodName, String functionalInterfaceMethodSignature,
+			   int implementationMethodKind, String implementationClass, String implementationMethodName, String implementationMethodSignature,
+			   String instantiatedMethodType, Type[] capturedArgumentTypes) {
+		this.capturingClass = capturingClass;
+		this.functionalInterfaceClass = functionalInterfaceClass;
+		this.functionalInterfaceMethodName = functionalInterfaceMethodName;
+		this.functionalInterfaceMethodSignature = functionalInterfaceMethodSignature;
+		this.implementationMethodKind = implementationMethodKind;
+		this.implementationClass = implementationClass;
+		this.implementationMethodName = implementationMethodName;
+		this.implementationMethodSignature = implementationMethodSignature;
+		this.instantiatedMethodType = instantiatedMethodType;
+		this.capturedArgumentTypes = capturedArgumentTypes;
+	}
+
+	/**
+	 * @return the binary name of the class which creates the lambda, e.g. {@code com.example.Queries}.
+	 */
+	String getCapturingClassName() {
+		return Type.getObjectType(capturingClass).getClassName();
+	}
+
+	/**
+	 * @return the binary name of the functional interface the lambda implements.
+	 */
+	String getFunctionalInterfaceClassName() {
+		return Type.getObjectType(functionalInterfaceClass).getClassName();
+	}
+
+	/**
+	 * @return the types of the arguments the lambda captures.
+	 */
+	Type[] getCapturedArgumentTypes() {
+		return capturedArgumentTypes.clone();
+	}
+
+	/**
+	 * Creates the serialized form of the lambda with the given captured arguments.
+	 *
+	 * @param capturingClass    The loaded class which creates the lambda.
+	 * @param capturedArguments The arguments to capture.
+	 * @return The {@link SerializedLambda} which can be passed to the {@code $deserializeLambda$} method of the capturing class.
+	 */
+	SerializedLambda toSerializedLambda(Class<?> capturingClass, Object[] capturedArguments) {
+		return new SerializedLambda(capturingClass, functionalInterfaceClass, functionalInterfaceMethodName, functionalInterfaceMethodSignature,
+				implementationMethodKind, implementationClass, implementationMethodName, implementationMethodSignature, instantiatedMethodType, capturedArguments);
+	}
+
+	@Override
+	public String toString() {
+		return getCapturingClassName() + " -> " + Type.getObjectType(implementationClass).getClassName() + "." + implementationMethodName + implementationMethodSignature;
+	}
+}
@@ -0,0 +1,97 @@
+package com.github.collinalpert.lambda2sql.maven;
+
+import org.objectweb.asm.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.LambdaMetafactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the serializable lambdas and method references in compiled classes.
+ * They are created by an {@code invokedynamic} instruction bootstrapped by {@link LambdaMetafactory#altMetafactory}
+ * with the {@link LambdaMetafactory#FLAG_SERIALIZABLE} flag.
+ *
+ * @author Collin Alpert
+ */
+final class LambdaSiteScanner {
+
+	private static final String LAMBDA_METAFACTORY = Type.getInternalName(LambdaMetafactory.class);
+
+	private LambdaSiteScanner() {
+	}
+
+	/**
+	 * Scans all class files in a directory.
+	 *
+	 * @param classesDirectory The root directory of the compiled classes.
+	 * @return The serializable lambdas created in the classes.
+	 * @throws IOException If a class file cannot be read.
+	 */
+	static List<LambdaSite> scan(Path classesDirectory) throws IOException {
+		List<Path> classFiles;
+		try (var files = Files.walk(classesDirectory)) {
+			classFiles = files.filter(file -> file.toString().endsWith(".class")).sorted().collect(Collectors.toList());
+		}
+
+		var sites = new ArrayList<LambdaSite>();
+		for (var classFile : classFiles) {
+			try (var in = Files.newInputStream(classFile)) {
+				scan(in, sites);
+			}
+		}
+
+		return sites;
+	}
+
+	private static void scan(InputStream classFile, List<LambdaSite> sites) throws IOException {
+		var reader = new ClassReader(classFile);
+		var capturingClass = reader.getClassName();
+		reader.accept(new ClassVisitor(Opcodes.ASM9) {
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+				return new MethodVisitor(Opcodes.ASM9) {
+					@Override
+					public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle, Object... bootstrapMethodArguments) {
+						if (isSerializableLambda(bootstrapMethodHandle, bootstrapMethodArguments)) {
+							sites.add(toSite(capturingClass, name, descriptor, bootstrapMethodArguments));
+						}
+					}
+				};
+			}
+		}, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+	}
+
+	private static boolean isSerializableLambda(Handle bootstrapMethodHandle, Object[] bootstrapMethodArguments) {
+		return LAMBDA_METAFACTORY.equals(bootstrapMethodHandle.getOwner())
+				&& "altMetafactory".equals(bootstrapMethodHandle.getName())
+				&& bootstrapMethodArguments.length > 3
+				&& bootstrapMethodArguments[3] instanceof Integer
+				&& ((Integer) bootstrapMethodArguments[3] & LambdaMetafactory.FLAG_SERIALIZABLE) != 0;
+	}
+
+	/**
+	 * Reads a lambda from the arguments of the {@code invokedynamic} instruction.
+	 * The instruction's name is the name of the functional interface method, its return type is the functional interface
+	 * and its parameters are the captured arguments.
+	 */
+	private static LambdaSite toSite(String capturingClass, String name, String descriptor, Object[] bootstrapMethodArguments) {
+		var functionalInterfaceMethodType = (Type) bootstrapMethodArguments[0];
+		var implementationMethod = (Handle) bootstrapMethodArguments[1];
+		var instantiatedMethodType = (Type) bootstrapMethodArguments[2];
+		return new LambdaSite(capturingClass,
+				Type.getReturnType(descriptor).getInternalName(),
+				name,
+				functionalInterfaceMethodType.getDescriptor(),
+				implementationMethod.getTag(),
+				implementationMethod.getOwner(),
+				implementationMethod.getName(),
+				implementationMethod.getDesc(),
+				instantiatedMethodType.getDescriptor(),
+				Type.getArgumentTypes(descriptor));
+	}
+}
@@ -0,0 +1,100 @@
+package com.github.collinalpert.lambda2sql.maven;
+
+import org.objectweb.asm.Type;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Creates placeholder values for the arguments a lambda captures.
+ * Templates only depend on the types of captured arguments and on whether they are {@code null}, so any non-null value of the right type will do.
+ *
+ * @author Collin Alpert
+ */
+final class PlaceholderArguments {
+
+	private PlaceholderArguments() {
+	}
+
+	/**
+	 * @param types The types of the captured arguments.
+	 * @return Placeholder values for the arguments, or {@code null} if a value cannot be created for one of the types,
+	 * e.g. because the lambda captures {@code this}.
+	 */
+	static Object[] of(Type[] types) {
+		var arguments = new Object[types.length];
+		for (int i = 0; i < types.length; i++) {
+			arguments[i] = of(types[i]);
+			if (arguments[i] == null) {
+				return null;
+			}
+		}
+
+		return arguments;
+	}
+
+	private static Object of(Type type) {
+		switch (type.getSort()) {
+			case Type.BOOLEAN:
+				return Boolean.FALSE;
+			case Type.CHAR:
+				return 'a';
+			case Type.BYTE:
+				return (byte) 0;
+			case Type.SHORT:
+				return (short) 0;
+			case Type.INT:
+				return 0;
+			case Type.FLOAT:
+				return 0F;
+			case Type.LONG:
+				return 0L;
+			case Type.DOUBLE:
+				return 0D;
+			case Type.OBJECT:
+				return ofClass(type.getClassName());
+			default:
+				return null;
+		}
+	}
+
+	private static Object ofClass(String className) {
+		switch (className) {
+			case "java.lang.String":
+			case "java.lang.CharSequence":
+				return "";
+			case "java.lang.Boolean":
+				return Boolean.FALSE;
+			case "java.lang.Character":
+				return 'a';
+			case "java.lang.Byte":
+				return (byte) 0;
+			case "java.lang.Short":
+				return (short) 0;
+			case "java.lang.Integer":
+				return 0;
+			case "java.lang.Long":
+				return 0L;
+			case "java.lang.Float":
+				return 0F;
+			case "java.lang.Double":
+				return 0D;
+			case "java.time.LocalDate":
+				return LocalDate.EPOCH;
+			case "java.time.LocalTime":
+				return LocalTime.MIDNIGHT;
+			case "java.time.LocalDateTime":
+				return LocalDateTime.of(LocalDate.EPOCH, LocalTime.MIDNIGHT);
+			case "java.util.List":
+			case "java.util.Collection":
+			case "java.util.ArrayList":
+				return new ArrayList<>();
+			case "java.util.LinkedList":
+				return new LinkedList<>();
+			default:
+				return null;
+		}
+	}
+}
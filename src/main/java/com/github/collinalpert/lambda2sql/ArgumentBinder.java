@@ -0,0 +1,116 @@
+package com.github.collinalpert.lambda2sql;
+
+import com.github.collinalpert.expressions.expression.ConstantExpression;
+import com.github.collinalpert.expressions.expression.Expression;
+import com.github.collinalpert.expressions.expression.ParameterExpression;
+
+import java.util.List;
+
+/**
+ * Binds the parameters of the lambdas in an expression tree to the arguments the lambdas are invoked with.
+ * Every invocation of a lambda opens a scope, in which a {@link ParameterExpression} is resolved by its index in constant time.
+ *
+ * @author Collin Alpert
+ */
+final class ArgumentBinder {
+
+	private final LinkedListStack<ConstantExpression[]> scopes = new LinkedListStack<>();
+
+	/**
+	 * The scope of the outermost invocation, whose arguments are the arguments captured by the converted lambda.
+	 */
+	private ConstantExpression[] root;
+
+	/**
+	 * Opens the scope of a lambda invocation.
+	 * Constant arguments are bound to the parameter at their position. Arguments which are parameters themselves
+	 * are bound to whatever that parameter is bound to in the enclosing scope.
+	 *
+	 * @param arguments The arguments of the invocation.
+	 */
+	void enter(List<Expression> arguments) {
+		var outer = this.scopes.isEmpty() ? null : this.scopes.top();
+		var scope = new ConstantExpression[arguments.size()];
+		for (int i = 0; i < scope.length; i++) {
+			var argument = arguments.get(i);
+			if (argument instanceof ConstantExpression) {
+				scope[i] = (ConstantExpression) argument;
+			} else if (argument instanceof ParameterExpression && outer != null) {
+				var index = ((ParameterExpression) argument).getIndex();
+				if (index < outer.length) {
+					scope[i] = outer[index];
+				}
+			}
+		}
+
+		if (this.root == null) {
+			this.root = scope;
+		}
+
+		this.scopes.push(scope);
+	}
+
+	/**
+	 * Reopens a scope which was returned by {@link #current()}, e.g. to convert a term of a condition which was collected from a nested lambda.
+	 *
+	 * @param scope The scope to reopen.
+	 */
+	void restore(ConstantExpression[] scope) {
+		this.scopes.push(scope);
+	}
+
+	/**
+	 * @return the scope of the innermost lambda invocation, or {@code null} if no lambda has been invoked yet.
+	 */
+	ConstantExpression[] current() {
+		return this.scopes.isEmpty() ? null : this.scopes.top();
+	}
+
+	/**
+	 * Closes the scope of the innermost lambda invocation.
+	 */
+	void exit() {
+		this.scopes.pop();
+	}
+
+	/**
+	 * Checks if a parameter is bound to a value in the current scope.
+	 *
+	 * @param e The parameter to check.
+	 * @return {@code True} if the parameter can be resolved, otherwise {@code false}.
+	 */
+	boolean isBound(ParameterExpression e) {
+		if (this.scopes.isEmpty()) {
+			return false;
+		}
+
+		var scope = this.scopes.top();
+		return e.getIndex() < scope.length && scope[e.getIndex()] != null;
+	}
+
+	/**
+	 * Resolves a parameter to the argument it is bound to in the current scope.
+	 *
+	 * @param e The parameter to resolve.
+	 * @return The {@link ConstantExpression} the parameter is bound to.
+	 * @throws IllegalStateException If the parameter is not bound to a constant, e.g. because it is the parameter of the converted lambda.
+	 */
+	ConstantExpression resolve(ParameterExpression e) {
+		if (!isBound(e)) {
+			throw new IllegalStateException(String.format("Parameter %s is not bound to a value.", e));
+		}
+
+		return this.scopes.top()[e.getIndex()];
+	}
+
+	/**
+	 * Checks if a parameter resolves to one of the arguments captured by the converted lambda.
+	 * Only these arguments can be filled in by a compiled template.
+	 *
+	 * @param e The parameter to check.
+	 * @return {@code True} if the parameter is bound in the scope of the outermost invocation, otherwise {@code false}.
+	 */
+	boolean isCaptured(ParameterExpression e) {
+		return !this.scopes.isEmpty() && this.scopes.top() == this.root && isBound(e);
+	}
+}
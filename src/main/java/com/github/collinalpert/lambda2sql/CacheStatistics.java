@@ -0,0 +1,73 @@
+package com.github.collinalpert.lambda2sql;
+
+/**
+ * A snapshot of the statistics of the translation cache.
+ *
+ * @author Collin Alpert
+ * @see Lambda2Sql#getCacheStatistics()
+ */
+public final class CacheStatistics {
+
+	private final long hitCount;
+	private final long missCount;
+	private final long evictionCount;
+	private final int size;
+	private final int capacity;
+
+	CacheStatistics(long hitCount, long missCount, long evictionCount, int size, int capacity) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+		this.size = size;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * @return the number of translations which were rendered from a compiled template.
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return the number of translations which had to parse their lambda, although it could be compiled to a template.
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return the number of lambda shapes which were removed from the cache to stay within its capacity,
+	 * or because the class loader which defined them was garbage collected.
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * @return the number of lambda shapes currently in the cache.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @return the maximum number of lambda shapes kept in the cache.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return the ratio of hits to all lookups, or {@code 0} if there were no lookups yet.
+	 */
+	public double getHitRate() {
+		var lookups = hitCount + missCount;
+		return lookups == 0 ? 0 : (double) hitCount / lookups;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("CacheStatistics{hits=%d, misses=%d, evictions=%d, size=%d, capacity=%d}", hitCount, missCount, evictionCount, size, capacity);
+	}
+}
@@ -0,0 +1,24 @@
+package com.github.collinalpert.lambda2sql;
+
+import java.lang.annotation.*;
+
+/**
+ * Specifies the name of the database column a getter refers to.
+ * It takes precedence over the {@link NamingStrategy} used for the translation.
+ * <pre>{@code
+ * @Column("date_of_birth")
+ * LocalDate getBirthDate();
+ * }</pre>
+ *
+ * @author Collin Alpert
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Column {
+
+	/**
+	 * @return the unescaped name of the column.
+	 */
+	String value();
+}
@@ -0,0 +1,98 @@
+package com.github.collinalpert.lambda2sql;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Member;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves and caches the column names of getters.
+ * Every getter is resolved once per {@link NamingStrategy}. Afterwards, rendering a column is a single append of a cached string.
+ * The names are stored with the class declaring the getter, so they are garbage collected together with its class loader.
+ *
+ * @author Collin Alpert
+ */
+final class ColumnNames {
+
+	private static final ClassValue<ConcurrentMap<Member, Map<NamingStrategy, ColumnNames>>> cache = new ClassValue<>() {
+		@Override
+		protected ConcurrentMap<Member, Map<NamingStrategy, ColumnNames>> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	private final String name;
+	private final String qualifiedName;
+	private final String backtickQualifiedName;
+	private final String doubleQuotedQualifiedName;
+
+	private ColumnNames(String name) {
+		this.name = name;
+		this.qualifiedName = "." + name;
+		this.backtickQualifiedName = ".`" + name + "`";
+		this.doubleQuotedQualifiedName = ".\"" + name + "\"";
+	}
+
+	/**
+	 * Resolves the column name of a getter.
+	 *
+	 * @param member         The getter.
+	 * @param namingStrategy The strategy used if the getter is not annotated with {@link Column}.
+	 * @return The cached column names of the getter.
+	 */
+	static ColumnNames of(Member member, NamingStrategy namingStrategy) {
+		var columns = cache.get(member.getDeclaringClass());
+		var strategies = columns.get(member);
+		if (strategies == null) {
+			strategies = columns.computeIfAbsent(member, getter -> new ConcurrentHashMap<>(2));
+		}
+
+		var columnNames = strategies.get(namingStrategy);
+		if (columnNames == null) {
+			columnNames = strategies.computeIfAbsent(namingStrategy, strategy -> new ColumnNames(resolve(member, strategy)));
+		}
+
+		return columnNames;
+	}
+
+	private static String resolve(Member member, NamingStrategy namingStrategy) {
+		if (member instanceof AnnotatedElement) {
+			var column = ((AnnotatedElement) member).getAnnotation(Column.class);
+			if (column != null) {
+				return column.value();
+			}
+		}
+
+		return namingStrategy.getColumnName(member);
+	}
+
+	/**
+	 * @return the unescaped column name, used when no table is specified.
+	 */
+	String getName() {
+		return name;
+	}
+
+	/**
+	 * @param isEscaped Specifies if the column name should be escaped with the identifier quotes of the dialect.
+	 * @param dialect   The {@link SqlDialect} which quotes the column name.
+	 * @return the column name preceded by a dot, to be appended to a table name.
+	 */
+	String getQualifiedName(boolean isEscaped, SqlDialect dialect) {
+		if (!isEscaped) {
+			return qualifiedName;
+		}
+
+		var quote = dialect.getIdentifierQuote();
+		if (quote == '`') {
+			return backtickQualifiedName;
+		}
+
+		if (quote == '"') {
+			return doubleQuotedQualifiedName;
+		}
+
+		return "." + quote + name + quote;
+	}
+}
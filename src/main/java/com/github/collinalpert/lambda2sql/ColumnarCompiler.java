@@ -0,0 +1,316 @@
+package com.github.collinalpert.lambda2sql;
+
+import com.github.collinalpert.expressions.expression.*;
+
+import java.lang.reflect.Array;
+import java.util.*;
+
+/**
+ * Compiles the expression tree of a predicate into a {@link ColumnarPredicate}, the same tree the {@link SqlVisitor} converts to SQL.
+ * Captured values are resolved once while compiling, so they are not looked up again for every row.
+ *
+ * @author Collin Alpert
+ */
+final class ColumnarCompiler {
+
+	/**
+	 * Marks an expression which is not a value known at compile time.
+	 */
+	private static final Object NO_VALUE = new Object();
+
+	private final NamingStrategy namingStrategy;
+
+	/**
+	 * Resolves the parameters of the lambdas to the arguments they are invoked with.
+	 */
+	private final ArgumentBinder binder = new ArgumentBinder();
+
+	ColumnarCompiler(NamingStrategy namingStrategy) {
+		this.namingStrategy = namingStrategy;
+	}
+
+	/**
+	 * Compiles a condition.
+	 *
+	 * @param e The expression of the condition.
+	 * @return The compiled condition.
+	 * @throws UnsupportedOperationException If the condition cannot be evaluated over columns.
+	 */
+	ColumnarPredicate compile(Expression e) {
+		if (e instanceof LambdaExpression) {
+			return compile(((LambdaExpression<?>) e).getBody());
+		}
+
+		if (e instanceof InvocationExpression) {
+			return compileInvocation((InvocationExpression) e);
+		}
+
+		if (e instanceof BinaryExpression) {
+			return compileBinary((BinaryExpression) e);
+		}
+
+		if (e instanceof UnaryExpression) {
+			var unary = (UnaryExpression) e;
+			switch (unary.getExpressionType()) {
+				case ExpressionType.LogicalNot:
+					return new ColumnarPredicate.Not(compile(unary.getFirst()));
+				case ExpressionType.Convert:
+					return compile(unary.getFirst());
+				case ExpressionType.IsNull:
+					return new ColumnarPredicate.Comparison(requireColumn(unary.getFirst()), ExpressionType.Equal, null);
+				case ExpressionType.IsNonNull:
+					return new ColumnarPredicate.Comparison(requireColumn(unary.getFirst()), ExpressionType.NotEqual, null);
+				default:
+					throw unsupported(e);
+			}
+		}
+
+		if (e instanceof DelegateExpression) {
+			return compile(((DelegateExpression) e).getDelegate());
+		}
+
+		var value = value(e);
+		if (value instanceof LambdaExpression) {
+			return compile(((LambdaExpression<?>) value).getBody());
+		}
+
+		if (value instanceof Boolean) {
+			return new ColumnarPredicate.Constant((Boolean) value);
+		}
+
+		throw unsupported(e);
+	}
+
+	private ColumnarPredicate compileInvocation(InvocationExpression e) {
+		var target = e.getTarget();
+		if (target instanceof LambdaExpression) {
+			this.binder.enter(e.getArguments());
+			try {
+				return compile(((LambdaExpression<?>) target).getBody());
+			} finally {
+				this.binder.exit();
+			}
+		}
+
+		if (!(target instanceof MemberExpression)) {
+			// A captured predicate which is invoked, e.g. test(t) in SqlPredicate.and, receives the arguments of the invocation.
+			var value = value(target);
+			if (value instanceof LambdaExpression) {
+				this.binder.enter(e.getArguments());
+				try {
+					return compile(((LambdaExpression<?>) value).getBody());
+				} finally {
+					this.binder.exit();
+				}
+			}
+
+			return compile(target);
+		}
+
+		var member = (MemberExpression) target;
+		var method = member.getMember();
+		var arguments = e.getArguments();
+		var name = method.getName();
+		if (method.getDeclaringClass() == String.class && arguments.size() == 1) {
+			switch (name) {
+				case "startsWith":
+					return stringMatch(member.getInstance(), arguments.get(0), SqlTemplate.SlotKind.LIKE_PREFIX);
+				case "endsWith":
+					return stringMatch(member.getInstance(), arguments.get(0), SqlTemplate.SlotKind.LIKE_SUFFIX);
+				case "contains":
+					return stringMatch(member.getInstance(), arguments.get(0), SqlTemplate.SlotKind.LIKE_CONTAINS);
+				default:
+					break;
+			}
+		}
+
+		if (name.equals("equals") && arguments.size() == 1) {
+			return compileComparison(ExpressionType.Equal, member.getInstance(), arguments.get(0));
+		}
+
+		if (name.equals("contains") && arguments.size() == 1 && Collection.class.isAssignableFrom(method.getDeclaringClass())) {
+			return membership(arguments.get(0), member.getInstance());
+		}
+
+		if (name.equals("in") && method.getDeclaringClass() == SqlFunctions.class) {
+			return membership(arguments.get(0), arguments.get(1));
+		}
+
+		if (arguments.isEmpty()) {
+			var column = column(e);
+			if (column != null) {
+				return new ColumnarPredicate.BooleanColumn(column);
+			}
+		}
+
+		throw unsupported(e);
+	}
+
+	private ColumnarPredicate compileBinary(BinaryExpression e) {
+		switch (e.getExpressionType()) {
+			case ExpressionType.LogicalAnd:
+				return new ColumnarPredicate.And(compile(e.getFirst()), compile(e.getSecond()));
+			case ExpressionType.LogicalOr:
+				return new ColumnarPredicate.Or(compile(e.getFirst()), compile(e.getSecond()));
+			case ExpressionType.Equal:
+			case ExpressionType.NotEqual:
+			case ExpressionType.GreaterThan:
+			case ExpressionType.GreaterThanOrEqual:
+			case ExpressionType.LessThan:
+			case ExpressionType.LessThanOrEqual:
+				return compileComparison(e.getExpressionType(), e.getFirst(), e.getSecond());
+			default:
+				throw unsupported(e);
+		}
+	}
+
+	/**
+	 * Compiles a comparison of a column with a value. If the column is on the right, the operator is mirrored.
+	 */
+	private ColumnarPredicate compileComparison(int operator, Expression first, Expression second) {
+		var column = column(first);
+		var value = value(second);
+		if (column == null || value == NO_VALUE) {
+			column = column(second);
+			value = value(first);
+			operator = mirror(operator);
+		}
+
+		if (column == null || value == NO_VALUE) {
+			throw new UnsupportedOperationException(String.format("Only comparisons of a column with a value can be evaluated over columns, not %s.", ExpressionType.toString(operator)));
+		}
+
+		return new ColumnarPredicate.Comparison(column, operator, value);
+	}
+
+	private ColumnarPredicate stringMatch(Expression string, Expression pattern, SqlTemplate.SlotKind kind) {
+		var value = value(pattern);
+		if (!(value instanceof String)) {
+			throw new UnsupportedOperationException("Only strings known before the evaluation can be matched over columns.");
+		}
+
+		return new ColumnarPredicate.StringMatch(requireColumn(string), kind, (String) value);
+	}
+
+	/**
+	 * Compiles the membership of a column in a captured collection or array.
+	 * Numbers are collected into sorted arrays, so they can be looked up by a binary search.
+	 */
+	private ColumnarPredicate membership(Expression argument, Expression values) {
+		var value = value(values);
+		Collection<?> elements;
+		if (value instanceof Collection) {
+			elements = (Collection<?>) value;
+		} else if (value != null && value.getClass().isArray()) {
+			var length = Array.getLength(value);
+			var list = new ArrayList<>(length);
+			for (int i = 0; i < length; i++) {
+				list.add(Array.get(value, i));
+			}
+
+			elements = list;
+		} else {
+			throw new UnsupportedOperationException("Only captured collections and arrays can be looked up over columns.");
+		}
+
+		var longs = new long[elements.size()];
+		var doubles = new double[elements.size()];
+		var longCount = 0;
+		var doubleCount = 0;
+		var objects = new HashSet<Object>(elements);
+		for (var element : elements) {
+			if (element instanceof Long || element instanceof Integer || element instanceof Short || element instanceof Byte) {
+				longs[longCount++] = ((Number) element).longValue();
+			}
+
+			if (element instanceof Number) {
+				doubles[doubleCount++] = ((Number) element).doubleValue();
+			}
+		}
+
+		longs = Arrays.copyOf(longs, longCount);
+		doubles = Arrays.copyOf(doubles, doubleCount);
+		Arrays.sort(longs);
+		Arrays.sort(doubles);
+		return new ColumnarPredicate.Membership(requireColumn(argument), longs, doubles, objects);
+	}
+
+	/**
+	 * @param e The expression to check.
+	 * @return The name of the column, if the expression is a getter on the row, otherwise {@code null}.
+	 */
+	private String column(Expression e) {
+		e = unwrap(e);
+		if (e instanceof InvocationExpression && ((InvocationExpression) e).getArguments().isEmpty()) {
+			e = ((InvocationExpression) e).getTarget();
+		}
+
+		if (!(e instanceof MemberExpression)) {
+			return null;
+		}
+
+		var member = (MemberExpression) e;
+		var instance = member.getInstance();
+		if (!(instance instanceof ParameterExpression) || this.binder.isBound((ParameterExpression) instance)) {
+			return null;
+		}
+
+		return ColumnNames.of(member.getMember(), this.namingStrategy).getName();
+	}
+
+	private String requireColumn(Expression e) {
+		var column = column(e);
+		if (column == null) {
+			throw new UnsupportedOperationException("Only getters of the row can be evaluated over columns.");
+		}
+
+		return column;
+	}
+
+	/**
+	 * @param e The expression to resolve.
+	 * @return The value of a constant or a captured variable, or {@link #NO_VALUE} if the expression depends on the row.
+	 */
+	private Object value(Expression e) {
+		e = unwrap(e);
+		if (e instanceof ConstantExpression) {
+			return ((ConstantExpression) e).getValue();
+		}
+
+		if (e instanceof ParameterExpression && this.binder.isBound((ParameterExpression) e)) {
+			return this.binder.resolve((ParameterExpression) e).getValue();
+		}
+
+		return NO_VALUE;
+	}
+
+	/**
+	 * Removes conversions, e.g. the boxing of a primitive argument of {@code List.contains}.
+	 */
+	private static Expression unwrap(Expression e) {
+		while (e instanceof UnaryExpression && e.getExpressionType() == ExpressionType.Convert) {
+			e = ((UnaryExpression) e).getFirst();
+		}
+
+		return e;
+	}
+
+	private static int mirror(int operator) {
+		switch (operator) {
+			case ExpressionType.GreaterThan:
+				return ExpressionType.LessThan;
+			case ExpressionType.GreaterThanOrEqual:
+				return ExpressionType.LessThanOrEqual;
+			case ExpressionType.LessThan:
+				return ExpressionType.GreaterThan;
+			case ExpressionType.LessThanOrEqual:
+				return ExpressionType.GreaterThanOrEqual;
+			default:
+				return operator;
+		}
+	}
+
+	private static UnsupportedOperationException unsupported(Expression e) {
+		return new UnsupportedOperationException(String.format("The expression %s cannot be evaluated over columns.", ExpressionType.toString(e.getExpressionType())));
+	}
+}
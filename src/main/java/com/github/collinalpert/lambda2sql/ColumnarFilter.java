@@ -0,0 +1,137 @@
+package com.github.collinalpert.lambda2sql;
+
+import com.github.collinalpert.lambda2sql.functions.CompositePredicate;
+import com.github.collinalpert.lambda2sql.functions.SqlPredicate;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates a predicate over the columns of a {@link ColumnarTable}, so the predicate which queries the database can also filter rows cached in memory.
+ * The predicate is compiled from the same expression tree which is converted to SQL. Instead of creating an object per row and calling
+ * {@link SqlPredicate#test(Object)}, every condition is evaluated in a loop over the array of its column, 64 rows at a time.
+ * <pre>{@code
+ * var filter = ColumnarFilter.compile((Person person) -> person.getAge() >= 18 && person.getName().startsWith("Ste"));
+ * BitSet selection = filter.filter(table);
+ * }</pre>
+ * Comparisons, {@code AND}, {@code OR}, negations, {@code null} checks, memberships in captured collections and arrays, and
+ * {@code startsWith}, {@code endsWith} and {@code contains} on strings are supported. Unlike SQL, conditions use two-valued logic,
+ * so a negated condition also selects the rows whose column is {@code null}.
+ * Large tables are split into ranges which are evaluated in parallel. An instance is immutable and can be kept in a constant.
+ *
+ * @param <T> The type of the rows.
+ * @author Collin Alpert
+ */
+public final class ColumnarFilter<T> {
+
+	/**
+	 * The number of rows from which a table is evaluated in parallel.
+	 */
+	private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+	/**
+	 * The number of words of the bitmap which a single task evaluates, i.e. 16384 rows.
+	 */
+	private static final int WORDS_PER_TASK = 1 << 8;
+
+	private final ColumnarPredicate predicate;
+
+	private ColumnarFilter(ColumnarPredicate predicate) {
+		this.predicate = predicate;
+	}
+
+	public static <T> ColumnarFilter<T> compile(SqlPredicate<T> predicate) {
+		return compile(predicate, NamingStrategy.DEFAULT);
+	}
+
+	/**
+	 * Compiles a predicate. The values it captures are resolved once, so later changes to them do not affect the filter.
+	 *
+	 * @param predicate      The predicate to compile.
+	 * @param namingStrategy The {@link NamingStrategy} which maps the getters of the predicate to the names of the columns.
+	 * @param <T>            The type of the rows.
+	 * @return The compiled filter.
+	 * @throws UnsupportedOperationException If the predicate uses an expression which cannot be evaluated over columns.
+	 */
+	public static <T> ColumnarFilter<T> compile(SqlPredicate<T> predicate, NamingStrategy namingStrategy) {
+		return new ColumnarFilter<>(compilePredicate(predicate, namingStrategy));
+	}
+
+	private static ColumnarPredicate compilePredicate(SqlPredicate<?> predicate, NamingStrategy namingStrategy) {
+		if (!(predicate instanceof CompositePredicate)) {
+			return new ColumnarCompiler(namingStrategy).compile(SerializedLambdas.parse(predicate));
+		}
+
+		var composite = (CompositePredicate<?>) predicate;
+		ColumnarPredicate result = null;
+		for (var operand : composite.getOperands()) {
+			var compiled = compilePredicate(operand, namingStrategy);
+			if (result == null) {
+				result = compiled;
+			} else {
+				result = composite.isConjunction() ? new ColumnarPredicate.And(result, compiled) : new ColumnarPredicate.Or(result, compiled);
+			}
+		}
+
+		return result == null ? new ColumnarPredicate.Constant(composite.isConjunction()) : result;
+	}
+
+	public BitSet filter(ColumnarTable table) {
+		return filter(table, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Selects the rows of a table which fulfill the predicate.
+	 *
+	 * @param table The table to filter.
+	 * @param pool  The pool which evaluates large tables in parallel.
+	 * @return A {@link BitSet} in which the bit of every selected row is set.
+	 * @throws IllegalArgumentException If the table lacks a column the predicate uses, or a column cannot be compared with a value.
+	 */
+	public BitSet filter(ColumnarTable table, ForkJoinPool pool) {
+		var words = new long[(table.getRowCount() + 63) >>> 6];
+		if (table.getRowCount() < PARALLEL_THRESHOLD) {
+			predicate.evaluate(table, 0, words.length, words);
+		} else {
+			pool.invoke(new FilterTask(table, words, 0, words.length));
+		}
+
+		return BitSet.valueOf(words);
+	}
+
+	/**
+	 * Evaluates a range of words of the bitmap, splitting it in halves until it is small enough.
+	 */
+	private final class FilterTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		// Tasks only live for the duration of a filter and are never serialized.
+		@SuppressWarnings("serial")
+		private final ColumnarTable table;
+		private final long[] words;
+		private final int fromWord;
+		private final int wordCount;
+
+		FilterTask(ColumnarTable table, long[] words, int fromWord, int wordCount) {
+			this.table = table;
+			this.words = words;
+			this.fromWord = fromWord;
+			this.wordCount = wordCount;
+		}
+
+		@Override
+		protected void compute() {
+			if (wordCount <= WORDS_PER_TASK) {
+				var out = new long[wordCount];
+				predicate.evaluate(table, fromWord, wordCount, out);
+				System.arraycopy(out, 0, words, fromWord, wordCount);
+				return;
+			}
+
+			var half = wordCount >>> 1;
+			invokeAll(new FilterTask(table, words, fromWord, half), new FilterTask(table, words, fromWord + half, wordCount - half));
+		}
+	}
+}
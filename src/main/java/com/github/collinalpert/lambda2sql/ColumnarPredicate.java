@@ -0,0 +1,504 @@
+package com.github.collinalpert.lambda2sql;
+
+import com.github.collinalpert.expressions.expression.ExpressionType;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A condition compiled from an expression tree, which is evaluated for whole ranges of rows of a {@link ColumnarTable} at once.
+ * The result is a bitmap with one bit per row, where bit {@code i % 64} of word {@code i / 64} is set if row {@code i} fulfills the condition.
+ * The rows of a word are evaluated in a tight loop over the primitive array of a column, without materializing an object per row.
+ *
+ * @author Collin Alpert
+ */
+abstract class ColumnarPredicate {
+
+	/**
+	 * Evaluates this condition for a range of rows.
+	 *
+	 * @param table     The table to evaluate.
+	 * @param fromWord  The first word of the range, i.e. the range starts at row {@code fromWord * 64}.
+	 * @param wordCount The number of words in the range.
+	 * @param out       The bitmap the result is written to, starting at index zero for {@code fromWord}. Bits of rows beyond the end of the table stay clear.
+	 */
+	abstract void evaluate(ColumnarTable table, int fromWord, int wordCount, long[] out);
+
+	/**
+	 * @return a mask of the bits of a word which belong to rows of the table.
+	 */
+	private static long rowMask(ColumnarTable table, int word) {
+		var remaining = table.getRowCount() - (word << 6);
+		return remaining >= 64 ? -1L : (1L << remaining) - 1;
+	}
+
+	/**
+	 * Checks the result of a comparison against an operator.
+	 *
+	 * @param operator   The {@link ExpressionType} of the comparison.
+	 * @param comparison The result of {@link Comparable#compareTo(Object)}.
+	 * @return {@code True} if the comparison fulfills the operator, otherwise {@code false}.
+	 */
+	private static boolean fulfills(int operator, int comparison) {
+		switch (operator) {
+			case ExpressionType.Equal:
+				return comparison == 0;
+			case ExpressionType.NotEqual:
+				return comparison != 0;
+			case ExpressionType.GreaterThan:
+				return comparison > 0;
+			case ExpressionType.GreaterThanOrEqual:
+				return comparison >= 0;
+			case ExpressionType.LessThan:
+				return comparison < 0;
+			default:
+				return comparison <= 0;
+		}
+	}
+
+	/**
+	 * A condition which does not depend on the row, e.g. a captured {@code boolean}.
+	 */
+	static final class Constant extends ColumnarPredicate {
+
+		private final boolean value;
+
+		Constant(boolean value) {
+			this.value = value;
+		}
+
+		@Override
+		void evaluate(ColumnarTable table, int fromWord, int wordCount, long[] out) {
+			for (int i = 0; i < wordCount; i++) {
+				out[i] = value ? rowMask(table, fromWord + i) : 0;
+			}
+		}
+	}
+
+	static final class And extends ColumnarPredicate {
+
+		private final ColumnarPredicate first;
+		private final ColumnarPredicate second;
+
+		And(ColumnarPredicate first, ColumnarPredicate second) {
+			this.first = first;
+			this.second = second;
+		}
+
+		@Override
+		void evaluate(ColumnarTable table, int fromWord, int wordCount, long[] out) {
+			first.evaluate(table, fromWord, wordCount, out);
+			var any = 0L;
+			for (int i = 0; i < wordCount; i++) {
+				any |= out[i];
+			}
+
+			if (any == 0) {
+				return;
+			}
+
+			var other = new long[wordCount];
+			second.evaluate(table, fromWord, wordCount, other);
+			for (int i = 0; i < wordCount; i++) {
+				out[i] &= other[i];
+			}
+		}
+	}
+
+	static final class Or extends ColumnarPredicate {
+
+		private final ColumnarPredicate first;
+		private final ColumnarPredicate second;
+
+		Or(ColumnarPredicate first, ColumnarPredicate second) {
+			this.first = first;
+			this.second = second;
+		}
+
+		@Override
+		void evaluate(ColumnarTable table, int fromWord, int wordCount, long[] out) {
+			first.evaluate(table, fromWord, wordCount, out);
+			var other = new long[wordCount];
+			second.evaluate(table, fromWord, wordCount, other);
+			for (int i = 0; i < wordCount; i++) {
+				out[i] |= other[i];
+			}
+		}
+	}
+
+	static final class Not extends ColumnarPredicate {
+
+		private final ColumnarPredicate operand;
+
+		Not(ColumnarPredicate operand) {
+			this.operand = operand;
+		}
+
+		@Override
+		void evaluate(ColumnarTable table, int fromWord, int wordCount, long[] out) {
+			operand.evaluate(table, fromWord, wordCount, out);
+			for (int i = 0; i < wordCount; i++) {
+				out[i] = ~out[i] & rowMask(table, fromWord + i);
+			}
+		}
+	}
+
+	/**
+	 * A column which contains booleans, e.g. {@code person.isActive()}.
+	 */
+	static final class BooleanColumn extends ColumnarPredicate {
+
+		private final String column;
+
+		BooleanColumn(String column) {
+			this.column = column;
+		}
+
+		@Override
+		void evaluate(ColumnarTable table, int fromWord, int wordCount, long[] out) {
+			var values = table.getColumn(column);
+			if (values instanceof boolean[]) {
+				var booleans = (boolean[]) values;
+				var rowCount = table.getRowCount();
+				for (int i = 0; i < wordCount; i++) {
+					var start = (fromWord + i) << 6;
+					var end = Math.min(start + 64, rowCount);
+					var bits = 0L;
+					for (int row = start; row < end; row++) {
+						bits |= (booleans[row] ? 1L : 0L) << row;
+					}
+
+					out[i] = bits;
+				}
+
+				return;
+			}
+
+			new Comparison(column, ExpressionType.Equal, Boolean.TRUE).evaluate(table, fromWord, wordCount, out);
+		}
+	}
+
+	/**
+	 * Compares a column with a value, e.g. {@code person.getAge() >= 18}.
+	 * Numeric comparisons are converted to an inclusive range once, so the values of a row are checked against two bounds regardless of the operator.
+	 */
+	static final class Comparison extends ColumnarPredicate {
+
+		private final String column;
+		private final int operator;
+		private final Object value;
+		private final long lowerBound;
+		private final long upperBound;
+		private final double lowerDoubleBound;
+		private final double upperDoubleBound;
+		private final boolean isNegated;
+
+		Comparison(String column, int operator, Object value) {
+			this.column = column;
+			this.operator = operator;
+			this.value = value;
+			this.isNegated = operator == ExpressionType.NotEqual;
+
+			if (!(value instanceof Number)) {
+				this.lowerBound = this.upperBound = 0;
+				this.lowerDoubleBound = this.upperDoubleBound = 0;
+				return;
+			}
+
+			var number = (Number) value;
+			var d = number.doubleValue();
+			switch (operator) {
+				case ExpressionType.GreaterThan:
+					this.lowerDoubleBound = Math.nextUp(d);
+					this.upperDoubleBound = Double.POSITIVE_INFINITY;
+					break;
+				case ExpressionType.GreaterThanOrEqual:
+					this.lowerDoubleBound = d;
+					this.upperDoubleBound = Double.POSITIVE_INFINITY;
+					break;
+				case ExpressionType.LessThan:
+					this.lowerDoubleBound = Double.NEGATIVE_INFINITY;
+					this.upperDoubleBound = Math.nextDown(d);
+					break;
+				case ExpressionType.LessThanOrEqual:
+					this.lowerDoubleBound = Double.NEGATIVE_INFINITY;
+					this.upperDoubleBound = d;
+					break;
+				default:
+					this.lowerDoubleBound = this.upperDoubleBound = d;
+					break;
+			}
+
+			if (!(value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)) {
+				if (Double.isNaN(d) || this.lowerDoubleBound > 0x1p63 || this.upperDoubleBound < -0x1p63) {
+					// The cast would saturate to the largest or the smallest long and match that row, although no long fulfills the comparison.
+					this.lowerBound = Long.MAX_VALUE;
+					this.upperBound = Long.MIN_VALUE;
+					return;
+				}
+
+				// Saturating casts turn the infinite bounds into the smallest and the largest long.
+				this.lowerBound = (long) Math.ceil(this.lowerDoubleBound);
+				this.upperBound = (long) Math.floor(this.upperDoubleBound);
+				return;
+			}
+
+			var l = number.longValue();
+			switch (operator) {
+				case ExpressionType.GreaterThan:
+					this.lowerBound = l == Long.MAX_VALUE ? Long.MAX_VALUE : l + 1;
+					this.upperBound = l == Long.MAX_VALUE ? Long.MIN_VALUE : Long.MAX_VALUE;
+					break;
+				case ExpressionType.GreaterThanOrEqual:
+					this.lowerBound = l;
+					this.upperBound = Long.MAX_VALUE;
+					break;
+				case ExpressionType.LessThan:
+					this.lowerBound = l == Long.MIN_VALUE ? Long.MAX_VALUE : Long.MIN_VALUE;
+					this.upperBound = l == Long.MIN_VALUE ? Long.MIN_VALUE : l - 1;
+					break;
+				case ExpressionType.LessThanOrEqual:
+					this.lowerBound = Long.MIN_VALUE;
+					this.upperBound = l;
+					break;
+				default:
+					this.lowerBound = this.upperBound = l;
+					break;
+			}
+		}
+
+		@Override
+		void evaluate(ColumnarTable table, int fromWord, int wordCount, long[] out) {
+			var values = table.getColumn(column);
+			var rowCount = table.getRowCount();
+			if (values instanceof int[] && value instanceof Number) {
+				var ints = (int[]) values;
+				for (int i = 0; i < wordCount; i++) {
+					var start = (fromWord + i) << 6;
+					var end = Math.min(start + 64, rowCount);
+					var bits = 0L;
+					for (int row = start; row < end; row++) {
+						var v = ints[row];
+						bits |= (v >= lowerBound && v <= upperBound ? 1L : 0L) << row;
+					}
+
+					out[i] = isNegated ? ~bits & rowMask(table, fromWord + i) : bits;
+				}
+			} else if (values instanceof long[] && value instanceof Number) {
+				var longs = (long[]) values;
+				for (int i = 0; i < wordCount; i++) {
+					var start = (fromWord + i) << 6;
+					var end = Math.min(start + 64, rowCount);
+					var bits = 0L;
+					for (int row = start; row < end; row++) {
+						var v = longs[row];
+						bits |= (v >= lowerBound && v <= upperBound ? 1L : 0L) << row;
+					}
+
+					out[i] = isNegated ? ~bits & rowMask(table, fromWord + i) : bits;
+				}
+			} else if (values instanceof double[] && value instanceof Number) {
+				var doubles = (double[]) values;
+				for (int i = 0; i < wordCount; i++) {
+					var start = (fromWord + i) << 6;
+					var end = Math.min(start + 64, rowCount);
+					var bits = 0L;
+					for (int row = start; row < end; row++) {
+						var v = doubles[row];
+						bits |= (v >= lowerDoubleBound && v <= upperDoubleBound ? 1L : 0L) << row;
+					}
+
+					out[i] = isNegated ? ~bits & rowMask(table, fromWord + i) : bits;
+				}
+			} else if (values instanceof boolean[] && (operator == ExpressionType.Equal || operator == ExpressionType.NotEqual)) {
+				// The JVM represents booleans as integers, so a boolean constant can arrive as zero or one.
+				var expected = value instanceof Number ? ((Number) value).intValue() != 0 : Boolean.TRUE.equals(value);
+				var booleans = (boolean[]) values;
+				for (int i = 0; i < wordCount; i++) {
+					var start = (fromWord + i) << 6;
+					var end = Math.min(start + 64, rowCount);
+					var bits = 0L;
+					for (int row = start; row < end; row++) {
+						bits |= (booleans[row] == expected ? 1L : 0L) << row;
+					}
+
+					out[i] = isNegated ? ~bits & rowMask(table, fromWord + i) : bits;
+				}
+			} else if (values instanceof Object[]) {
+				evaluateObjects((Object[]) values, table, fromWord, wordCount, out);
+			} else {
+				throw new IllegalArgumentException(String.format("Column %s cannot be compared with %s.", column, value));
+			}
+		}
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		private void evaluateObjects(Object[] objects, ColumnarTable table, int fromWord, int wordCount, long[] out) {
+			var rowCount = table.getRowCount();
+			var isEquality = operator == ExpressionType.Equal || operator == ExpressionType.NotEqual;
+			if (!isEquality && !(value instanceof Comparable)) {
+				throw new IllegalArgumentException(String.format("Column %s cannot be ordered by %s.", column, value));
+			}
+
+			for (int i = 0; i < wordCount; i++) {
+				var start = (fromWord + i) << 6;
+				var end = Math.min(start + 64, rowCount);
+				var bits = 0L;
+				for (int row = start; row < end; row++) {
+					var v = objects[row];
+					boolean matches;
+					if ((v instanceof Number || v instanceof Character) && value instanceof Number) {
+						// Boxed numbers are compared by their value, since e.g. a Long cannot be compared with an Integer.
+						matches = isWithinBounds(v) != isNegated;
+					} else if (isEquality) {
+						matches = Objects.equals(v, value) != isNegated;
+					} else {
+						matches = v != null && fulfills(operator, ((Comparable) v).compareTo(value));
+					}
+
+					bits |= (matches ? 1L : 0L) << row;
+				}
+
+				out[i] = bits;
+			}
+		}
+
+		/**
+		 * @param v A boxed number or character of a row.
+		 * @return {@code True} if the value lies within the bounds of this comparison, otherwise {@code false}.
+		 */
+		private boolean isWithinBounds(Object v) {
+			if (v instanceof Character) {
+				var c = (long) (Character) v;
+				return c >= lowerBound && c <= upperBound;
+			}
+
+			if (v instanceof Long || v instanceof Integer || v instanceof Short || v instanceof Byte) {
+				var l = ((Number) v).longValue();
+				return l >= lowerBound && l <= upperBound;
+			}
+
+			var d = ((Number) v).doubleValue();
+			return d >= lowerDoubleBound && d <= upperDoubleBound;
+		}
+	}
+
+	/**
+	 * The membership of a column in a captured collection or array, e.g. {@code ids.contains(person.getId())}.
+	 * Numbers are looked up in a sorted array, so primitive columns are checked without boxing.
+	 */
+	static final class Membership extends ColumnarPredicate {
+
+		private final String column;
+		private final long[] longs;
+		private final double[] doubles;
+		private final Set<Object> objects;
+
+		/**
+		 * @param column  The column which is looked up.
+		 * @param longs   The sorted integral numbers of the collection.
+		 * @param doubles The sorted numbers of the collection.
+		 * @param objects The elements of the collection.
+		 */
+		Membership(String column, long[] longs, double[] doubles, Set<Object> objects) {
+			this.column = column;
+			this.longs = longs;
+			this.doubles = doubles;
+			this.objects = objects;
+		}
+
+		@Override
+		void evaluate(ColumnarTable table, int fromWord, int wordCount, long[] out) {
+			var values = table.getColumn(column);
+			var rowCount = table.getRowCount();
+			for (int i = 0; i < wordCount; i++) {
+				var start = (fromWord + i) << 6;
+				var end = Math.min(start + 64, rowCount);
+				var bits = 0L;
+				if (values instanceof int[]) {
+					var ints = (int[]) values;
+					for (int row = start; row < end; row++) {
+						bits |= (Arrays.binarySearch(longs, ints[row]) >= 0 ? 1L : 0L) << row;
+					}
+				} else if (values instanceof long[]) {
+					var columnLongs = (long[]) values;
+					for (int row = start; row < end; row++) {
+						bits |= (Arrays.binarySearch(longs, columnLongs[row]) >= 0 ? 1L : 0L) << row;
+					}
+				} else if (values instanceof double[]) {
+					var columnDoubles = (double[]) values;
+					for (int row = start; row < end; row++) {
+						bits |= (Arrays.binarySearch(doubles, columnDoubles[row]) >= 0 ? 1L : 0L) << row;
+					}
+				} else if (values instanceof Object[]) {
+					var columnObjects = (Object[]) values;
+					for (int row = start; row < end; row++) {
+						bits |= (columnObjects[row] != null && objects.contains(columnObjects[row]) ? 1L : 0L) << row;
+					}
+				} else {
+					throw new IllegalArgumentException(String.format("Column %s cannot be looked up in a collection.", column));
+				}
+
+				out[i] = bits;
+			}
+		}
+	}
+
+	/**
+	 * Matches a column of strings against a pattern, e.g. {@code person.getName().startsWith("Ste")}. {@code null} never matches.
+	 */
+	static final class StringMatch extends ColumnarPredicate {
+
+		private final String column;
+		private final SqlTemplate.SlotKind kind;
+		private final String pattern;
+
+		/**
+		 * @param column  The column of strings.
+		 * @param kind    One of {@link SqlTemplate.SlotKind#LIKE_PREFIX}, {@link SqlTemplate.SlotKind#LIKE_SUFFIX} and {@link SqlTemplate.SlotKind#LIKE_CONTAINS}.
+		 * @param pattern The string which is looked for.
+		 */
+		StringMatch(String column, SqlTemplate.SlotKind kind, String pattern) {
+			this.column = column;
+			this.kind = kind;
+			this.pattern = pattern;
+		}
+
+		@Override
+		void evaluate(ColumnarTable table, int fromWord, int wordCount, long[] out) {
+			var values = table.getColumn(column);
+			if (!(values instanceof Object[])) {
+				throw new IllegalArgumentException(String.format("Column %s does not contain strings.", column));
+			}
+
+			var strings = (Object[]) values;
+			var rowCount = table.getRowCount();
+			for (int i = 0; i < wordCount; i++) {
+				var start = (fromWord + i) << 6;
+				var end = Math.min(start + 64, rowCount);
+				var bits = 0L;
+				for (int row = start; row < end; row++) {
+					bits |= (matches(strings[row]) ? 1L : 0L) << row;
+				}
+
+				out[i] = bits;
+			}
+		}
+
+		private boolean matches(Object value) {
+			if (!(value instanceof String)) {
+				return false;
+			}
+
+			var string = (String) value;
+			switch (kind) {
+				case LIKE_PREFIX:
+					return string.startsWith(pattern);
+				case LIKE_SUFFIX:
+					return string.endsWith(pattern);
+				default:
+					return string.contains(pattern);
+			}
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package com.github.collinalpert.lambda2sql;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Rows kept in memory as one array per column, e.g. a cached reference table, which can be filtered by a {@link ColumnarFilter}.
+ * Columns are named like the columns in SQL, so the same predicate can query the database and scan the cache.
+ * The arrays are not copied and must not be modified while the table is filtered.
+ * <pre>{@code
+ * var table = ColumnarTable.of(3).withColumn("id", new long[]{1, 2, 3}).withColumn("name", new String[]{"Steve", "Donald", "Stella"});
+ * }</pre>
+ *
+ * @author Collin Alpert
+ */
+public final class ColumnarTable {
+
+	private final int rowCount;
+	private final Map<String, Object> columns;
+
+	private ColumnarTable(int rowCount, Map<String, Object> columns) {
+		this.rowCount = rowCount;
+		this.columns = columns;
+	}
+
+	/**
+	 * @param rowCount The number of rows, which is the length of every column.
+	 * @return A table without columns.
+	 */
+	public static ColumnarTable of(int rowCount) {
+		if (rowCount < 0) {
+			throw new IllegalArgumentException("The number of rows must not be negative.");
+		}
+
+		return new ColumnarTable(rowCount, Map.of());
+	}
+
+	public ColumnarTable withColumn(String name, int[] values) {
+		return add(name, values, values.length);
+	}
+
+	public ColumnarTable withColumn(String name, long[] values) {
+		return add(name, values, values.length);
+	}
+
+	public ColumnarTable withColumn(String name, double[] values) {
+		return add(name, values, values.length);
+	}
+
+	public ColumnarTable withColumn(String name, boolean[] values) {
+		return add(name, values, values.length);
+	}
+
+	/**
+	 * Adds a column of objects, e.g. strings or dates. Its values are compared with {@link Object#equals(Object)}
+	 * and ordered by {@link Comparable#compareTo(Object)}.
+	 *
+	 * @param name   The name of the column, as it is used in SQL.
+	 * @param values The values of the column, one per row.
+	 * @return A table which has the column in addition to the columns of this one.
+	 * @throws IllegalArgumentException If the length of the values differs from the number of rows.
+	 */
+	public ColumnarTable withColumn(String name, Object[] values) {
+		return add(name, values, values.length);
+	}
+
+	private ColumnarTable add(String name, Object values, int length) {
+		Objects.requireNonNull(name);
+		if (length != rowCount) {
+			throw new IllegalArgumentException(String.format("Column %s has %d values, but the table has %d rows.", name, length, rowCount));
+		}
+
+		var columns = new HashMap<>(this.columns);
+		columns.put(name, values);
+		return new ColumnarTable(rowCount, columns);
+	}
+
+	/**
+	 * @return the number of rows.
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @param name The name of the column.
+	 * @return The array containing the values of the column.
+	 * @throws IllegalArgumentException If the table has no column with the name.
+	 */
+	Object getColumn(String name) {
+		var column = columns.get(name);
+		if (column == null) {
+			throw new IllegalArgumentException(String.format("The table has no column %s.", name));
+		}
+
+		return column;
+	}
+}
@@ -0,0 +1,166 @@
+package com.github.collinalpert.lambda2sql;
+
+import com.github.collinalpert.lambda2sql.functions.SqlFunction;
+import com.github.collinalpert.lambda2sql.functions.SqlPredicate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The keys of a {@code GROUP BY} clause and the condition of its {@code HAVING} clause, so rows can be aggregated by the database instead of in Java.
+ * The condition is a predicate which uses the aggregate functions of {@link SqlFunctions}, such as {@link SqlFunctions#count()} and {@link SqlFunctions#avg(Object)}.
+ * <pre>{@code
+ * var grouping = Grouping.by(Person::getLastName).having(person -> count() > 5 && avg(person.getAge()) > 30);
+ * String select = grouping.toSelectList(List.of(person -> count()), "person");
+ * String groupBy = grouping.toGroupBy("person");
+ * String having = grouping.toHaving("person");
+ * }</pre>
+ * Becomes:
+ * <pre>{@code
+ * "`person`.`lastName`, COUNT(*)"
+ * "`person`.`lastName`"
+ * "COUNT(*) > 5 AND AVG(`person`.`age`) > 30"
+ * }</pre>
+ * An instance is immutable and can be kept in a constant.
+ *
+ * @param <T> The type of the rows.
+ * @author Collin Alpert
+ */
+public final class Grouping<T> {
+
+	private final SqlFunction<?, ?>[] keys;
+	private final SqlPredicate<T> having;
+
+	private Grouping(SqlFunction<?, ?>[] keys, SqlPredicate<T> having) {
+		this.keys = keys;
+		this.having = having;
+	}
+
+	/**
+	 * @param key The first key to group by.
+	 * @param <T> The type of the rows.
+	 * @return A grouping by the key.
+	 */
+	public static <T> Grouping<T> by(SqlFunction<T, ?> key) {
+		return new Grouping<>(new SqlFunction<?, ?>[]{Objects.requireNonNull(key)}, null);
+	}
+
+	/**
+	 * @param key A further key to group by.
+	 * @return A grouping by the keys of this one and the given key.
+	 */
+	public Grouping<T> thenBy(SqlFunction<T, ?> key) {
+		var keys = Arrays.copyOf(this.keys, this.keys.length + 1);
+		keys[this.keys.length] = Objects.requireNonNull(key);
+		return new Grouping<>(keys, this.having);
+	}
+
+	/**
+	 * Adds a condition the groups have to fulfill. If this grouping already has a condition, both are combined with {@code AND}.
+	 *
+	 * @param condition The condition, which usually uses aggregate functions, e.g. {@code person -> count() > 5}.
+	 * @return A grouping which differs from this one only in the condition.
+	 */
+	public Grouping<T> having(SqlPredicate<T> condition) {
+		Objects.requireNonNull(condition);
+		return new Grouping<>(this.keys, this.having == null ? condition : this.having.and(condition));
+	}
+
+	/**
+	 * @return {@code True} if the groups have to fulfill a condition, otherwise {@code false}.
+	 */
+	public boolean hasHaving() {
+		return having != null;
+	}
+
+	public String toGroupBy(String tableName) {
+		return toGroupBy(tableName, SqlOptions.DEFAULT);
+	}
+
+	/**
+	 * Converts the keys to the contents of a {@code GROUP BY} clause, e.g. {@code `person`.`lastName`, `person`.`city`}.
+	 *
+	 * @param tableName The table name which the columns belong to. It is optional to specify this.
+	 * @param options   The {@link SqlOptions} which control the conversion.
+	 * @return The keys, separated by commas.
+	 */
+	public String toGroupBy(String tableName, SqlOptions options) {
+		var sb = new StringBuilder();
+		appendKeys(sb, tableName, options);
+		return sb.toString();
+	}
+
+	public String toSelectList(List<SqlFunction<T, ?>> aggregates, String tableName) {
+		return toSelectList(aggregates, tableName, SqlOptions.DEFAULT);
+	}
+
+	/**
+	 * Converts the keys and the aggregates which are selected for every group to the contents of a {@code SELECT} clause.
+	 *
+	 * @param aggregates The aggregates of every group, e.g. {@code person -> avg(person.getAge())}.
+	 * @param tableName  The table name which the columns belong to. It is optional to specify this.
+	 * @param options    The {@link SqlOptions} which control the conversion.
+	 * @return The keys followed by the aggregates, separated by commas.
+	 */
+	public String toSelectList(List<SqlFunction<T, ?>> aggregates, String tableName, SqlOptions options) {
+		var sb = new StringBuilder();
+		appendKeys(sb, tableName, options);
+		for (var aggregate : aggregates) {
+			sb.append(", ");
+			Lambda2Sql.toSql(aggregate, tableName, options, sb);
+		}
+
+		return sb.toString();
+	}
+
+	public String toHaving(String tableName) {
+		return toHaving(tableName, SqlOptions.DEFAULT);
+	}
+
+	/**
+	 * Converts the condition the groups have to fulfill to the contents of a {@code HAVING} clause.
+	 *
+	 * @param tableName The table name which the columns belong to. It is optional to specify this.
+	 * @param options   The {@link SqlOptions} which control the conversion.
+	 * @return The condition, e.g. {@code COUNT(*) > 5}.
+	 * @throws IllegalStateException If no condition has been specified.
+	 */
+	public String toHaving(String tableName, SqlOptions options) {
+		return Lambda2Sql.toSql(requireHaving(), tableName, options);
+	}
+
+	public PreparedSql toPreparedHaving(String tableName) {
+		return toPreparedHaving(tableName, SqlOptions.DEFAULT);
+	}
+
+	/**
+	 * Converts the condition the groups have to fulfill to the contents of a {@code HAVING} clause of a prepared statement.
+	 *
+	 * @param tableName The table name which the columns belong to. It is optional to specify this.
+	 * @param options   The {@link SqlOptions} which control the conversion.
+	 * @return The condition with a placeholder for every captured value, e.g. {@code COUNT(*) > ?}.
+	 * @throws IllegalStateException If no condition has been specified.
+	 */
+	public PreparedSql toPreparedHaving(String tableName, SqlOptions options) {
+		return Lambda2Sql.toPreparedSql(requireHaving(), tableName, options);
+	}
+
+	private SqlPredicate<T> requireHaving() {
+		if (having == null) {
+			throw new IllegalStateException("No HAVING condition has been specified.");
+		}
+
+		return having;
+	}
+
+	private void appendKeys(StringBuilder sb, String tableName, SqlOptions options) {
+		for (int i = 0; i < keys.length; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+
+			Lambda2Sql.toSql(keys[i], tableName, options, sb);
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package com.github.collinalpert.lambda2sql;
+
+import java.time.temporal.ChronoField;
+
+/**
+ * The dialect of the H2 database in its default mode.
+ *
+ * @author Collin Alpert
+ * @see SqlDialect#H2
+ */
+final class H2Dialect implements SqlDialect {
+
+	/**
+	 * The ISO day of the week is counted from Monday, so it is shifted to count from Sunday like the other dialects.
+	 */
+	@Override
+	public String getDatePartFunction(ChronoField field) {
+		switch (field) {
+			case DAY_OF_WEEK:
+				return "(MOD(ISO_DAY_OF_WEEK(%s), 7) + 1)";
+			case DAY_OF_YEAR:
+				return "DAY_OF_YEAR(%s)";
+			default:
+				return SqlDialect.super.getDatePartFunction(field);
+		}
+	}
+
+	@Override
+	public boolean supportsArrayParameters() {
+		return true;
+	}
+
+	@Override
+	public boolean supportsRowValueComparison() {
+		return true;
+	}
+
+	@Override
+	public boolean supportsILike() {
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "H2";
+	}
+}
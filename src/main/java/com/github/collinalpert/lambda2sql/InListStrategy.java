@@ -0,0 +1,106 @@
+package com.github.collinalpert.lambda2sql;
+
+/**
+ * Controls how the membership of a column in a captured collection or array is rendered, e.g. {@code ids.contains(person.getId())}.
+ * Large collections can exceed the limits of a database or produce a different statement for every size,
+ * which defeats the statement caches of drivers and databases.
+ * <pre>{@code
+ * Lambda2Sql.toPreparedSql(person -> ids.contains(person.getId()), "person", SqlOptions.DEFAULT.withInListStrategy(InListStrategy.chunked(1000).withPadding()));
+ * }</pre>
+ *
+ * @author Collin Alpert
+ * @see SqlOptions#withInListStrategy(InListStrategy)
+ */
+public final class InListStrategy {
+
+	/**
+	 * Renders all elements in a single {@code IN} list, e.g. {@code id IN (1, 2, 3)}.
+	 */
+	public static final InListStrategy EXPAND = new InListStrategy(false, Integer.MAX_VALUE, false);
+
+	/**
+	 * Binds all elements as a single array parameter of a prepared statement, e.g. {@code id = ANY(?)},
+	 * for databases which support it, such as PostgreSQL and H2. SQL with literal values is rendered like {@link #EXPAND}.
+	 */
+	public static final InListStrategy ARRAY_PARAMETER = new InListStrategy(true, Integer.MAX_VALUE, false);
+
+	private final boolean isArray;
+	private final int maxElements;
+	private final boolean isPadded;
+
+	private InListStrategy(boolean isArray, int maxElements, boolean isPadded) {
+		this.isArray = isArray;
+		this.maxElements = maxElements;
+		this.isPadded = isPadded;
+	}
+
+	/**
+	 * Splits large memberships into several {@code IN} lists, e.g. {@code (id IN (1, 2) OR id IN (3))}.
+	 * Negated memberships are combined with {@code AND} instead.
+	 *
+	 * @param maxElements The maximum number of elements in a single {@code IN} list, e.g. 1000 for Oracle.
+	 * @return A strategy which splits memberships with more than {@code maxElements} elements.
+	 */
+	public static InListStrategy chunked(int maxElements) {
+		if (maxElements < 1) {
+			throw new IllegalArgumentException("The maximum number of elements must be positive.");
+		}
+
+		return new InListStrategy(false, maxElements, false);
+	}
+
+	/**
+	 * Pads the placeholders of a prepared statement to the next power of two by repeating the last element,
+	 * so memberships of similar sizes share the same SQL. SQL with literal values is not padded.
+	 *
+	 * @return A strategy which differs from this one only in padding.
+	 * @throws IllegalStateException If this strategy binds an array parameter, which does not need padding.
+	 */
+	public InListStrategy withPadding() {
+		if (isArray) {
+			throw new IllegalStateException("An array parameter does not need padding.");
+		}
+
+		return isPadded ? this : new InListStrategy(false, maxElements, true);
+	}
+
+	boolean isArray() {
+		return isArray;
+	}
+
+	int getMaxElements() {
+		return maxElements;
+	}
+
+	boolean isPadded() {
+		return isPadded;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+
+		if (!(o instanceof InListStrategy)) {
+			return false;
+		}
+
+		var other = (InListStrategy) o;
+		return isArray == other.isArray && maxElements == other.maxElements && isPadded == other.isPadded;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * Boolean.hashCode(isArray) + maxElements) + Boolean.hashCode(isPadded);
+	}
+
+	@Override
+	public String toString() {
+		if (isArray) {
+			return "InListStrategy{array}";
+		}
+
+		return "InListStrategy{maxElements=" + (maxElements == Integer.MAX_VALUE ? "unlimited" : maxElements) + ", padded=" + isPadded + '}';
+	}
+}
@@ -0,0 +1,239 @@
+package com.github.collinalpert.lambda2sql;
+
+import com.github.collinalpert.lambda2sql.functions.SqlFunction;
+import com.github.collinalpert.lambda2sql.functions.SqlPredicate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Pages through a table by seeking past the sort keys of the last row of the previous page, instead of skipping rows with {@code OFFSET}.
+ * The database can start every page at the position of the last row in an index on the sort keys, so every page is
+ * equally fast, no matter how deep it is.
+ * <pre>{@code
+ * var pagination = KeysetPagination.orderBy(Person::getLastName).thenBy(Person::getId);
+ * String orderBy = pagination.toOrderBy("person");
+ * PreparedSql where = pagination.toSeekPredicate(isActive, pagination.getKeyValues(lastRow), "person");
+ * }</pre>
+ * Becomes:
+ * <pre>{@code
+ * "`person`.`lastName` ASC, `person`.`id` ASC"
+ * "(`person`.`isActive`) AND (`person`.`lastName` > ? OR (`person`.`lastName` = ? AND `person`.`id` > ?))"
+ * }</pre>
+ * The sort keys must not be {@code null} and should be unique together, e.g. by ending with the primary key, so no row is skipped or repeated.
+ * An instance is immutable and can be kept in a constant.
+ *
+ * @param <T> The type of the rows.
+ * @author Collin Alpert
+ */
+public final class KeysetPagination<T> {
+
+	private final SortKey[] keys;
+
+	private KeysetPagination(SortKey[] keys) {
+		this.keys = keys;
+	}
+
+	/**
+	 * @param key The first sort key, which is sorted in ascending order.
+	 * @param <T> The type of the rows.
+	 * @return A pagination which sorts by the key.
+	 */
+	public static <T> KeysetPagination<T> orderBy(SqlFunction<T, ?> key) {
+		return new KeysetPagination<>(new SortKey[]{new SortKey(key, false)});
+	}
+
+	/**
+	 * @param key The first sort key, which is sorted in descending order.
+	 * @param <T> The type of the rows.
+	 * @return A pagination which sorts by the key.
+	 */
+	public static <T> KeysetPagination<T> orderByDescending(SqlFunction<T, ?> key) {
+		return new KeysetPagination<>(new SortKey[]{new SortKey(key, true)});
+	}
+
+	/**
+	 * @param key A further sort key, which is sorted in ascending order.
+	 * @return A pagination which sorts by the keys of this one and then by the given key.
+	 */
+	public KeysetPagination<T> thenBy(SqlFunction<T, ?> key) {
+		return add(new SortKey(key, false));
+	}
+
+	/**
+	 * @param key A further sort key, which is sorted in descending order.
+	 * @return A pagination which sorts by the keys of this one and then by the given key.
+	 */
+	public KeysetPagination<T> thenByDescending(SqlFunction<T, ?> key) {
+		return add(new SortKey(key, true));
+	}
+
+	private KeysetPagination<T> add(SortKey key) {
+		var keys = Arrays.copyOf(this.keys, this.keys.length + 1);
+		keys[this.keys.length] = key;
+		return new KeysetPagination<>(keys);
+	}
+
+	/**
+	 * Extracts the values of the sort keys from a row, usually the last row of the previous page.
+	 *
+	 * @param row The row to extract the values from.
+	 * @return The values of the sort keys in their order.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<Object> getKeyValues(T row) {
+		var values = new ArrayList<>(keys.length);
+		for (var key : keys) {
+			values.add(((SqlFunction<T, ?>) key.function).apply(row));
+		}
+
+		return values;
+	}
+
+	public String toOrderBy(String tableName) {
+		return toOrderBy(tableName, SqlOptions.DEFAULT);
+	}
+
+	/**
+	 * Converts the sort keys to the contents of an {@code ORDER BY} clause, e.g. {@code `person`.`lastName` ASC, `person`.`id` DESC}.
+	 *
+	 * @param tableName The table name which the columns belong to. It is optional to specify this.
+	 * @param options   The {@link SqlOptions} which control the conversion.
+	 * @return The columns and their directions, separated by commas.
+	 */
+	public String toOrderBy(String tableName, SqlOptions options) {
+		var sb = new StringBuilder();
+		for (int i = 0; i < keys.length; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+
+			sb.append(Lambda2Sql.toSql(keys[i].function, tableName, options)).append(keys[i].isDescending ? " DESC" : " ASC");
+		}
+
+		return sb.toString();
+	}
+
+	public PreparedSql toSeekPredicate(List<?> lastValues, String tableName) {
+		return toSeekPredicate(lastValues, tableName, SqlOptions.DEFAULT);
+	}
+
+	/**
+	 * Creates the condition which selects the rows following a row in the order of the sort keys.
+	 * For ascending keys {@code a} and {@code b}, this is {@code (a > ? OR (a = ? AND b > ?))}. If all keys are sorted in the same direction
+	 * and the dialect supports it, the keys are compared as a row value instead, e.g. {@code (a, b) > (?, ?)}.
+	 *
+	 * @param lastValues The values of the sort keys of the last row of the previous page, e.g. from {@link #getKeyValues(Object)}.
+	 * @param tableName  The table name which the columns belong to. It is optional to specify this.
+	 * @param options    The {@link SqlOptions} which control the conversion.
+	 * @return The condition with a placeholder for every value.
+	 * @throws IllegalArgumentException If the number of values does not match the number of sort keys, or a value is {@code null}.
+	 */
+	public PreparedSql toSeekPredicate(List<?> lastValues, String tableName, SqlOptions options) {
+		var sb = new StringBuilder();
+		var parameters = new ArrayList<SqlParameter>(keys.length * 2);
+		appendSeekPredicate(sb, lastValues, tableName, options, parameters);
+		return new PreparedSql(sb.toString(), parameters);
+	}
+
+	public PreparedSql toSeekPredicate(SqlPredicate<T> predicate, List<?> lastValues, String tableName) {
+		return toSeekPredicate(predicate, lastValues, tableName, SqlOptions.DEFAULT);
+	}
+
+	/**
+	 * Combines a condition with the condition which selects the rows following a row in the order of the sort keys.
+	 *
+	 * @param predicate  The condition the rows have to fulfill on every page.
+	 * @param lastValues The values of the sort keys of the last row of the previous page, or {@code null} for the first page.
+	 * @param tableName  The table name which the columns belong to. It is optional to specify this.
+	 * @param options    The {@link SqlOptions} which control the conversion.
+	 * @return Both conditions combined with {@code AND}, with the parameters of the predicate followed by the values.
+	 * @throws IllegalArgumentException If the number of values does not match the number of sort keys, or a value is {@code null}.
+	 * @see #toSeekPredicate(List, String, SqlOptions)
+	 */
+	public PreparedSql toSeekPredicate(SqlPredicate<T> predicate, List<?> lastValues, String tableName, SqlOptions options) {
+		var where = Lambda2Sql.toPreparedSql(predicate, tableName, options);
+		if (lastValues == null) {
+			return where;
+		}
+
+		var sb = new StringBuilder(where.getSql().length() + 32 * keys.length);
+		var parameters = new ArrayList<>(where.getParameters());
+		sb.append('(').append(where.getSql()).append(") AND ");
+		appendSeekPredicate(sb, lastValues, tableName, options, parameters);
+		return new PreparedSql(sb.toString(), parameters);
+	}
+
+	private void appendSeekPredicate(StringBuilder sb, List<?> lastValues, String tableName, SqlOptions options, List<SqlParameter> parameters) {
+		Objects.requireNonNull(lastValues);
+		if (lastValues.size() != keys.length) {
+			throw new IllegalArgumentException(String.format("Expected %d values for the sort keys, but got %d.", keys.length, lastValues.size()));
+		}
+
+		for (var value : lastValues) {
+			if (value == null) {
+				throw new IllegalArgumentException("The values of the sort keys must not be null.");
+			}
+		}
+
+		var columns = new String[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			columns[i] = Lambda2Sql.toSql(keys[i].function, tableName, options);
+		}
+
+		if (keys.length > 1 && isUniform() && options.getDialect().supportsRowValueComparison()) {
+			sb.append('(').append(String.join(", ", columns)).append(keys[0].isDescending ? ") < (" : ") > (");
+			for (int i = 0; i < keys.length; i++) {
+				if (i > 0) {
+					sb.append(", ");
+				}
+
+				appendParameter(sb, lastValues.get(i), parameters);
+			}
+
+			sb.append(')');
+			return;
+		}
+
+		for (int i = 0; i < keys.length - 1; i++) {
+			sb.append('(').append(columns[i]).append(keys[i].isDescending ? " < " : " > ");
+			appendParameter(sb, lastValues.get(i), parameters).append(" OR (").append(columns[i]).append(" = ");
+			appendParameter(sb, lastValues.get(i), parameters).append(" AND ");
+		}
+
+		var last = keys.length - 1;
+		sb.append(columns[last]).append(keys[last].isDescending ? " < " : " > ");
+		appendParameter(sb, lastValues.get(last), parameters);
+		for (int i = 0; i < last; i++) {
+			sb.append("))");
+		}
+	}
+
+	private static StringBuilder appendParameter(StringBuilder sb, Object value, List<SqlParameter> parameters) {
+		parameters.add(new SqlParameter(value, Object.class));
+		return sb.append('?');
+	}
+
+	private boolean isUniform() {
+		for (var key : keys) {
+			if (key.isDescending != keys[0].isDescending) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static final class SortKey {
+
+		private final SqlFunction<?, ?> function;
+		private final boolean isDescending;
+
+		SortKey(SqlFunction<?, ?> function, boolean isDescending) {
+			this.function = Objects.requireNonNull(function);
+			this.isDescending = isDescending;
+		}
+	}
+}
@@ -1,19 +1,59 @@
 package com.github.collinalpert.lambda2sql;
 
 import com.github.collinalpert.expressions.expression.LambdaExpression;
+import com.github.collinalpert.lambda2sql.functions.CompositePredicate;
 import com.github.collinalpert.lambda2sql.functions.SerializedFunctionalInterface;
+import com.github.collinalpert.lambda2sql.functions.SqlPredicate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * A utility class for converting java lambdas to SQL.
  */
 public class Lambda2Sql {
 
+	/**
+	 * The number of lambda shapes the translation cache holds by default.
+	 */
+	public static final int DEFAULT_CACHE_CAPACITY = 1024;
+
+	/**
+	 * The number of cached translations rendered by a single task of a batch.
+	 */
+	private static final int BATCH_CHUNK_SIZE = 256;
+
+	/**
+	 * Compiled translations of lambdas, keyed by their implementation method.
+	 */
+	private static final TranslationCache templates = new TranslationCache(DEFAULT_CACHE_CAPACITY);
+
+	/**
+	 * The maximum capacity of a buffer which is kept for reuse. Larger buffers are left to the garbage collector.
+	 */
+	private static final int MAX_BUFFER_CAPACITY = 8192;
+
+	/**
+	 * A buffer per thread which is reused for rendering. It is {@code null} while it is in use.
+	 */
+	private static final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
 	/**
 	 * Converts a lambda expression to SQL.
 	 * <pre>{@code person -> person.getAge() > 50 && person.isActive() }</pre>
 	 * Becomes a string:
 	 * <pre>{@code "age > 50 AND active" }</pre>
 	 * Supported operators: {@code >,>=,<,<=,=,!=,&&,||,!}
+	 * <p>
+	 * The first translation of a lambda is compiled into a template, keyed by the method implementing the lambda.
+	 * Subsequent translations of the same lambda only fill in the captured arguments and skip parsing the lambda entirely.
 	 *
 	 * @param functionalInterface A {@link FunctionalInterface} lambda to convert.
 	 * @param tableName           The table name which the column belongs to. This will explicitly reference the column.
@@ -22,8 +62,84 @@ public class Lambda2Sql {
 	 * @return A {@link String} describing the SQL where condition.
 	 */
 	public static String toSql(SerializedFunctionalInterface functionalInterface, String tableName, boolean withBackticks) {
-		var lambdaExpression = LambdaExpression.parse(functionalInterface);
-		return lambdaExpression.accept(new SqlVisitor(tableName, withBackticks)).toString();
+		return toSql(functionalInterface, tableName, SqlOptions.DEFAULT.withBackticks(withBackticks));
+	}
+
+	/**
+	 * Converts a lambda expression to SQL for a specific database.
+	 *
+	 * @param functionalInterface A {@link FunctionalInterface} lambda to convert.
+	 * @param tableName           The table name which the column belongs to. This will explicitly reference the column.
+	 *                            It is optional to specify this.
+	 * @param dialect             The {@link SqlDialect} of the database, e.g. {@link SqlDialect#POSTGRESQL}.
+	 * @return A {@link String} describing the SQL where condition.
+	 */
+	public static String toSql(SerializedFunctionalInterface functionalInterface, String tableName, SqlDialect dialect) {
+		return toSql(functionalInterface, tableName, SqlOptions.DEFAULT.withDialect(dialect));
+	}
+
+	/**
+	 * Converts a lambda expression to SQL using custom {@link SqlOptions}, e.g. a different {@link NamingStrategy} for columns.
+	 *
+	 * @param functionalInterface A {@link FunctionalInterface} lambda to convert.
+	 * @param tableName           The table name which the column belongs to. This will explicitly reference the column.
+	 *                            It is optional to specify this.
+	 * @param options             The {@link SqlOptions} which control the conversion.
+	 * @return A {@link String} describing the SQL where condition.
+	 */
+	public static String toSql(SerializedFunctionalInterface functionalInterface, String tableName, SqlOptions options) {
+		var sb = acquireBuffer();
+		try {
+			return translate(functionalInterface, tableName, options, sb, null).toString();
+		} finally {
+			releaseBuffer(sb);
+		}
+	}
+
+	/**
+	 * Converts a lambda expression to SQL and appends it to an existing {@link Appendable}, e.g. the buffer a surrounding query is built in.
+	 * A {@link StringBuilder} is written to directly, without any intermediate buffer.
+	 *
+	 * @param functionalInterface A {@link FunctionalInterface} lambda to convert.
+	 * @param tableName           The table name which the column belongs to. This will explicitly reference the column.
+	 *                            It is optional to specify this.
+	 * @param withBackticks       Specifies if the table and the column name should be escaped with backticks.
+	 * @param out                 The {@link Appendable} to append the SQL where condition to.
+	 * @param <A>                 The type of the {@link Appendable}.
+	 * @return The {@link Appendable} passed in, with the SQL where condition appended.
+	 * @throws UncheckedIOException If the {@link Appendable} throws an {@link IOException}.
+	 */
+	public static <A extends Appendable> A toSql(SerializedFunctionalInterface functionalInterface, String tableName, boolean withBackticks, A out) {
+		return toSql(functionalInterface, tableName, SqlOptions.DEFAULT.withBackticks(withBackticks), out);
+	}
+
+	/**
+	 * Converts a lambda expression to SQL using custom {@link SqlOptions} and appends it to an existing {@link Appendable}.
+	 *
+	 * @param functionalInterface A {@link FunctionalInterface} lambda to convert.
+	 * @param tableName           The table name which the column belongs to. This will explicitly reference the column.
+	 *                            It is optional to specify this.
+	 * @param options             The {@link SqlOptions} which control the conversion.
+	 * @param out                 The {@link Appendable} to append the SQL where condition to.
+	 * @param <A>                 The type of the {@link Appendable}.
+	 * @return The {@link Appendable} passed in, with the SQL where condition appended.
+	 * @throws UncheckedIOException If the {@link Appendable} throws an {@link IOException}.
+	 */
+	public static <A extends Appendable> A toSql(SerializedFunctionalInterface functionalInterface, String tableName, SqlOptions options, A out) {
+		if (out instanceof StringBuilder) {
+			translate(functionalInterface, tableName, options, (StringBuilder) out, null);
+			return out;
+		}
+
+		var sb = acquireBuffer();
+		try {
+			out.append(translate(functionalInterface, tableName, options, sb, null));
+			return out;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			releaseBuffer(sb);
+		}
 	}
 
 	public static String toSql(SerializedFunctionalInterface functionalInterface, String tableName) {
@@ -33,4 +149,566 @@ public class Lambda2Sql {
 	public static String toSql(SerializedFunctionalInterface functionalInterface) {
 		return toSql(functionalInterface, null, false);
 	}
+
+	/**
+	 * Converts a lambda expression to an SQL where condition for a prepared statement.
+	 * Captured variables, dates and times and the elements of lists used with {@code contains} are not written into the SQL.
+	 * Instead, a {@code ?} placeholder is inserted and the value is added to the parameters of the result.
+	 * <pre>{@code person -> person.getAge() > age && person.getName().startsWith(name) }</pre>
+	 * Becomes:
+	 * <pre>{@code "age > ? AND name LIKE ?" }</pre>
+	 * with the parameters {@code [50, "Steve%"]}.
+	 *
+	 * @param functionalInterface A {@link FunctionalInterface} lambda to convert.
+	 * @param tableName           The table name which the column belongs to. This will explicitly reference the column.
+	 *                            It is optional to specify this.
+	 * @param withBackticks       Specifies if the table and the column name should be escaped with backticks. The default behavior is {@code true}.
+	 * @return A {@link PreparedSql} containing the SQL where condition and the parameters to bind.
+	 */
+	public static PreparedSql toPreparedSql(SerializedFunctionalInterface functionalInterface, String tableName, boolean withBackticks) {
+		return toPreparedSql(functionalInterface, tableName, SqlOptions.DEFAULT.withBackticks(withBackticks));
+	}
+
+	/**
+	 * Converts a lambda expression to an SQL where condition for a prepared statement for a specific database.
+	 *
+	 * @param functionalInterface A {@link FunctionalInterface} lambda to convert.
+	 * @param tableName           The table name which the column belongs to. This will explicitly reference the column.
+	 *                            It is optional to specify this.
+	 * @param dialect             The {@link SqlDialect} of the database, e.g. {@link SqlDialect#POSTGRESQL}.
+	 * @return A {@link PreparedSql} containing the SQL where condition and the parameters to bind.
+	 */
+	public static PreparedSql toPreparedSql(SerializedFunctionalInterface functionalInterface, String tableName, SqlDialect dialect) {
+		return toPreparedSql(functionalInterface, tableName, SqlOptions.DEFAULT.withDialect(dialect));
+	}
+
+	/**
+	 * Converts a lambda expression to an SQL where condition for a prepared statement using custom {@link SqlOptions}.
+	 *
+	 * @param functionalInterface A {@link FunctionalInterface} lambda to convert.
+	 * @param tableName           The table name which the column belongs to. This will explicitly reference the column.
+	 *                            It is optional to specify this.
+	 * @param options             The {@link SqlOptions} which control the conversion.
+	 * @return A {@link PreparedSql} containing the SQL where condition and the parameters to bind.
+	 */
+	public static PreparedSql toPreparedSql(SerializedFunctionalInterface functionalInterface, String tableName, SqlOptions options) {
+		var parameters = new ArrayList<SqlParameter>();
+		var sb = acquireBuffer();
+		try {
+			var sql = translate(functionalInterface, tableName, options, sb, parameters).toString();
+			return new PreparedSql(sql, parameters);
+		} finally {
+			releaseBuffer(sb);
+		}
+	}
+
+	public static PreparedSql toPreparedSql(SerializedFunctionalInterface functionalInterface, String tableName) {
+		return toPreparedSql(functionalInterface, tableName, true);
+	}
+
+	public static PreparedSql toPreparedSql(SerializedFunctionalInterface functionalInterface) {
+		return toPreparedSql(functionalInterface, null, false);
+	}
+
+	/**
+	 * Converts many lambda expressions to SQL at once, e.g. the predicates of a report, on the common {@link ForkJoinPool}.
+	 *
+	 * @param functionalInterfaces The lambdas to convert.
+	 * @param tableName            The table name which the columns belong to. It is optional to specify this.
+	 * @return The {@link TranslationResult} of every lambda, in the order the lambdas were passed in.
+	 * @see #toSqlBatch(List, String, SqlOptions, Executor)
+	 */
+	public static List<TranslationResult> toSqlBatch(List<? extends SerializedFunctionalInterface> functionalInterfaces, String tableName) {
+		return toSqlBatch(functionalInterfaces, tableName, SqlOptions.DEFAULT, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Converts many lambda expressions to SQL at once.
+	 * The lambdas are grouped by the method implementing them, so every distinct lambda is parsed only once, no matter how often it occurs in the batch.
+	 * The remaining lambdas of a group are then rendered from the cached translation in parallel.
+	 * A lambda which cannot be converted does not affect the others; its exception is recorded in its {@link TranslationResult}.
+	 *
+	 * @param functionalInterfaces The lambdas to convert.
+	 * @param tableName            The table name which the columns belong to. It is optional to specify this.
+	 * @param options              The {@link SqlOptions} which control the conversion.
+	 * @param executor             The {@link Executor} to convert the lambdas on.
+	 * @return The {@link TranslationResult} of every lambda, in the order the lambdas were passed in.
+	 */
+	public static List<TranslationResult> toSqlBatch(List<? extends SerializedFunctionalInterface> functionalInterfaces, String tableName, SqlOptions options, Executor executor) {
+		Objects.requireNonNull(options);
+		Objects.requireNonNull(executor);
+		var results = new TranslationResult[functionalInterfaces.size()];
+		var groups = new LinkedHashMap<Object, List<Integer>>();
+		for (int i = 0; i < results.length; i++) {
+			try {
+				var functionalInterface = functionalInterfaces.get(i);
+				var serializedLambda = SerializedLambdas.of(functionalInterface);
+				Object groupKey = serializedLambda == null || !isCompilable(SerializedLambdas.capturedArguments(serializedLambda))
+						? i
+						: new TemplateKey(functionalInterface.getClass(), serializedLambda, tableName != null, options, false);
+				groups.computeIfAbsent(groupKey, key -> new ArrayList<>()).add(i);
+			} catch (RuntimeException e) {
+				results[i] = TranslationResult.failure(e);
+			}
+		}
+
+		// The first lambda of every group is parsed, which caches the translation the rest of its group is rendered from.
+		var parsing = new ArrayList<CompletableFuture<Void>>(groups.size());
+		var cached = new ArrayList<Integer>(results.length - groups.size());
+		for (var group : groups.values()) {
+			var first = group.get(0);
+			parsing.add(CompletableFuture.runAsync(() -> results[first] = translateBatchItem(functionalInterfaces.get(first), tableName, options), executor));
+			cached.addAll(group.subList(1, group.size()));
+		}
+
+		CompletableFuture.allOf(parsing.toArray(CompletableFuture[]::new)).join();
+
+		var rendering = new ArrayList<CompletableFuture<Void>>(cached.size() / BATCH_CHUNK_SIZE + 1);
+		for (int from = 0; from < cached.size(); from += BATCH_CHUNK_SIZE) {
+			var chunk = cached.subList(from, Math.min(from + BATCH_CHUNK_SIZE, cached.size()));
+			rendering.add(CompletableFuture.runAsync(() -> {
+				for (var index : chunk) {
+					results[index] = translateBatchItem(functionalInterfaces.get(index), tableName, options);
+				}
+			}, executor));
+		}
+
+		CompletableFuture.allOf(rendering.toArray(CompletableFuture[]::new)).join();
+		return Arrays.asList(results);
+	}
+
+	private static TranslationResult translateBatchItem(SerializedFunctionalInterface functionalInterface, String tableName, SqlOptions options) {
+		try {
+			return TranslationResult.success(toSql(functionalInterface, tableName, options));
+		} catch (RuntimeException e) {
+			return TranslationResult.failure(e);
+		}
+	}
+
+	/**
+	 * Translates lambdas ahead of their first use, e.g. while an application starts, so their translations are already cached when they are needed.
+	 * The translations for {@link #toSql} and {@link #toPreparedSql} are both cached. The lambdas are translated in parallel on the common {@link ForkJoinPool}.
+	 * The captured arguments of the lambdas only need to have the right types; their values are not cached.
+	 *
+	 * @param functionalInterfaces The lambdas to translate.
+	 * @param tableName            The table name the lambdas will be translated with. Only whether it is {@code null} matters.
+	 * @return A {@link PreloadReport} listing the lambdas which could not be translated, e.g. because they use unsupported methods.
+	 */
+	public static PreloadReport preload(Collection<? extends SerializedFunctionalInterface> functionalInterfaces, String tableName) {
+		return preload(functionalInterfaces, tableName, SqlOptions.DEFAULT, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Translates lambdas ahead of their first use on a specific {@link ForkJoinPool}.
+	 *
+	 * @param functionalInterfaces The lambdas to translate.
+	 * @param tableName            The table name the lambdas will be translated with. Only whether it is {@code null} matters.
+	 * @param options              The {@link SqlOptions} the lambdas will be translated with.
+	 * @param pool                 The {@link ForkJoinPool} to translate the lambdas on.
+	 * @return A {@link PreloadReport} listing the lambdas which could not be translated, e.g. because they use unsupported methods.
+	 * @see #preload(Collection, String)
+	 */
+	public static PreloadReport preload(Collection<? extends SerializedFunctionalInterface> functionalInterfaces, String tableName, SqlOptions options, ForkJoinPool pool) {
+		Objects.requireNonNull(options);
+		var tasks = new ArrayList<ForkJoinTask<PreloadReport.Failure>>(functionalInterfaces.size());
+		for (var functionalInterface : functionalInterfaces) {
+			tasks.add(pool.submit(() -> {
+				try {
+					precompile(functionalInterface, tableName, options);
+					return null;
+				} catch (RuntimeException e) {
+					return new PreloadReport.Failure(functionalInterface, e);
+				}
+			}));
+		}
+
+		var failures = new ArrayList<PreloadReport.Failure>();
+		for (var task : tasks) {
+			var failure = task.join();
+			if (failure != null) {
+				failures.add(failure);
+			}
+		}
+
+		return new PreloadReport(tasks.size() - failures.size(), failures);
+	}
+
+	/**
+	 * Translates the lambdas stored in the static fields of a class ahead of their first use, e.g. of a class holding all predicates of an application.
+	 *
+	 * @param holderClass The class whose static fields of a {@link SerializedFunctionalInterface} type are translated.
+	 * @param tableName   The table name the lambdas will be translated with. Only whether it is {@code null} matters.
+	 * @return A {@link PreloadReport} listing the lambdas which could not be translated, e.g. because they use unsupported methods.
+	 * @see #preload(Collection, String)
+	 */
+	public static PreloadReport preload(Class<?> holderClass, String tableName) {
+		var functionalInterfaces = new ArrayList<SerializedFunctionalInterface>();
+		for (var field : holderClass.getDeclaredFields()) {
+			if (Modifier.isStatic(field.getModifiers()) && SerializedFunctionalInterface.class.isAssignableFrom(field.getType())) {
+				try {
+					field.setAccessible(true);
+					var value = field.get(null);
+					if (value != null) {
+						functionalInterfaces.add((SerializedFunctionalInterface) value);
+					}
+				} catch (IllegalAccessException e) {
+					throw new IllegalStateException(String.format("Field %s of %s cannot be accessed.", field.getName(), holderClass.getName()), e);
+				}
+			}
+		}
+
+		return preload(functionalInterfaces, tableName);
+	}
+
+	/**
+	 * Registers a listener which receives the measurements of every conversion, e.g. how long parsing took and whether a cached translation was used.
+	 * The same measurements are available as the {@code com.github.collinalpert.lambda2sql.Translation} event in JDK Flight Recorder, without registering a listener.
+	 *
+	 * @param listener The listener to register.
+	 */
+	public static void addTranslationListener(TranslationListener listener) {
+		TranslationProbe.addListener(Objects.requireNonNull(listener));
+	}
+
+	/**
+	 * Removes a listener registered with {@link #addTranslationListener(TranslationListener)}.
+	 *
+	 * @param listener The listener to remove.
+	 * @return {@code True} if the listener was registered, otherwise {@code false}.
+	 */
+	public static boolean removeTranslationListener(TranslationListener listener) {
+		return TranslationProbe.removeListener(listener);
+	}
+
+	/**
+	 * Removes all compiled translations. Subsequent translations will parse their lambdas again.
+	 */
+	public static void clearCache() {
+		templates.clear();
+	}
+
+	/**
+	 * Sets the number of lambda shapes whose compiled translations are cached. When the cache is full, the least recently used shape is evicted.
+	 * The default capacity is {@value #DEFAULT_CACHE_CAPACITY}.
+	 *
+	 * @param capacity The maximum number of cached lambda shapes. {@code 0} disables caching.
+	 */
+	public static void setCacheCapacity(int capacity) {
+		templates.setCapacity(capacity);
+	}
+
+	/**
+	 * @return a snapshot of the hit, miss and eviction counts of the translation cache since the application started.
+	 */
+	public static CacheStatistics getCacheStatistics() {
+		return templates.statistics();
+	}
+
+	/**
+	 * Registers a custom translation for a Java method, so it can be used inside lambda expressions.
+	 * This also replaces the translation of a built-in method.
+	 * Since compiled translations may contain the previous translation of the method, all compiled translations are removed
+	 * and templates precompiled at build time are no longer used.
+	 *
+	 * @param method     The method to translate, e.g. {@code String.class.getDeclaredMethod("equalsIgnoreCase", String.class)}.
+	 * @param translator The {@link SqlMethodTranslator} which renders an invocation of the method.
+	 */
+	public static void registerMethod(Method method, SqlMethodTranslator translator) {
+		SqlMethodRegistry.register(Objects.requireNonNull(method), Objects.requireNonNull(translator));
+		clearCache();
+	}
+
+	/**
+	 * Translates a lambda using its compiled template. If no template exists yet, a template precompiled at build time is used,
+	 * unless methods were registered since. Otherwise, the lambda is parsed and a template is compiled.
+	 *
+	 * @param functionalInterface The lambda to translate.
+	 * @param tableName           The table name which the columns belong to.
+	 * @param options             The {@link SqlOptions} which control the conversion.
+	 * @param sb                  The {@link StringBuilder} to append the SQL to.
+	 * @param parameters          The parameters of a prepared statement, or {@code null} if values are rendered as literals.
+	 * @return The {@link StringBuilder} with the SQL appended.
+	 */
+	private static StringBuilder translate(SerializedFunctionalInterface functionalInterface, String tableName, SqlOptions options, StringBuilder sb, List<SqlParameter> parameters) {
+		var probe = TranslationProbe.start();
+		if (probe == null) {
+			return translate(functionalInterface, tableName, options, sb, parameters, null);
+		}
+
+		var start = sb.length();
+		translate(functionalInterface, tableName, options, sb, parameters, probe);
+		probe.finish(sb.length() - start, parameters != null);
+		return sb;
+	}
+
+	private static StringBuilder translate(SerializedFunctionalInterface functionalInterface, String tableName, SqlOptions options, StringBuilder sb, List<SqlParameter> parameters, TranslationProbe probe) {
+		Objects.requireNonNull(options);
+		if (functionalInterface instanceof CompositePredicate) {
+			if (probe != null) {
+				probe.deserialized(null, null);
+			}
+
+			return translateComposite((CompositePredicate<?>) functionalInterface, tableName, options, sb, parameters, probe);
+		}
+
+		var serializedLambda = SerializedLambdas.of(functionalInterface);
+		if (serializedLambda == null) {
+			if (probe != null) {
+				probe.deserialized(null, null);
+			}
+
+			return parseAndRender(functionalInterface, tableName, options, sb, null, parameters, probe);
+		}
+
+		var capturedArguments = SerializedLambdas.capturedArguments(serializedLambda);
+		if (probe != null) {
+			probe.deserialized(serializedLambda, capturedArguments);
+		}
+
+		if (!isCompilable(capturedArguments)) {
+			var composition = options.isSimplifying() || options.isRewritingDateRanges() ? null : PredicateComposition.of(serializedLambda);
+			if (composition != null) {
+				return translateComposition(composition, tableName, options, sb, parameters, probe);
+			}
+
+			return parseAndRender(functionalInterface, tableName, options, sb, null, parameters, probe);
+		}
+
+		var key = new TemplateKey(functionalInterface.getClass(), serializedLambda, tableName != null, options, parameters != null);
+		var template = templates.find(key, capturedArguments);
+		if (template == null && !SqlMethodRegistry.current().isCustomized()) {
+			template = TemplateIndex.find(functionalInterface.getClass(), key, capturedArguments);
+			if (template != null) {
+				templates.add(key, template);
+			}
+		}
+
+		if (probe != null) {
+			probe.lookedUp(template != null);
+		}
+
+		if (template != null) {
+			return template.render(capturedArguments, tableName, options, sb, parameters);
+		}
+
+		var recorder = new SqlTemplate.Recorder(sb.length(), capturedArguments);
+		parseAndRender(functionalInterface, tableName, options, sb, recorder, parameters, probe);
+		template = recorder.build(sb);
+		if (template != null) {
+			templates.add(key, template);
+		}
+
+		return sb;
+	}
+
+	/**
+	 * Translates the predicates of a {@link CompositePredicate} one after another and joins them with {@code AND} or {@code OR}.
+	 * Every predicate is looked up in the cache on its own. A predicate with an {@code OR} at the top is put in parentheses when it is joined with {@code AND}.
+	 * Simplifications and rewrites which span several predicates need the whole tree, so the predicates are then chained into a single lambda instead.
+	 *
+	 * @param composite  The predicates to translate.
+	 * @param tableName  The table name which the columns belong to.
+	 * @param options    The {@link SqlOptions} which control the conversion.
+	 * @param sb         The {@link StringBuilder} to append the SQL to.
+	 * @param parameters The parameters of a prepared statement, or {@code null} if values are rendered as literals.
+	 * @param probe      The {@link TranslationProbe} of the conversion, or {@code null} if it is not measured.
+	 * @return The {@link StringBuilder} with the SQL appended.
+	 */
+	private static StringBuilder translateComposite(CompositePredicate<?> composite, String tableName, SqlOptions options, StringBuilder sb, List<SqlParameter> parameters, TranslationProbe probe) {
+		var operands = composite.getOperands();
+		if (operands.isEmpty()) {
+			return sb.append(composite.isConjunction());
+		}
+
+		if (options.isSimplifying() || options.isRewritingDateRanges()) {
+			return translate(chain(composite), tableName, options, sb, parameters, probe);
+		}
+
+		var isQuoting = composite.isConjunction() && operands.size() > 1;
+		for (int i = 0; i < operands.size(); i++) {
+			if (i > 0) {
+				sb.append(composite.isConjunction() ? " AND " : " OR ");
+			}
+
+			var operand = operands.get(i);
+			var isQuoted = isQuoting && PredicateComposition.isDisjunction(operand);
+			if (isQuoted) {
+				sb.append('(');
+			}
+
+			translate(operand, tableName, options, sb, parameters, probe);
+			if (probe != null) {
+				probe.rendered();
+			}
+
+			if (isQuoted) {
+				sb.append(')');
+			}
+		}
+
+		return sb;
+	}
+
+	/**
+	 * Chains the predicates of a {@link CompositePredicate} with {@link SqlPredicate#and} or {@link SqlPredicate#or}, so they can be parsed as a single lambda.
+	 *
+	 * @param composite The predicates to chain.
+	 * @return A lambda which combines the predicates.
+	 */
+	@SuppressWarnings("unchecked")
+	private static SqlPredicate<Object> chain(CompositePredicate<?> composite) {
+		if (composite.getOperands().isEmpty()) {
+			return composite.isConjunction() ? t -> true : t -> false;
+		}
+
+		SqlPredicate<Object> chain = null;
+		for (var operand : composite.getOperands()) {
+			var predicate = operand instanceof CompositePredicate ? chain((CompositePredicate<?>) operand) : (SqlPredicate<Object>) operand;
+			if (chain == null) {
+				chain = predicate;
+			} else {
+				chain = composite.isConjunction() ? chain.and(predicate) : chain.or(predicate);
+			}
+		}
+
+		return chain;
+	}
+
+	/**
+	 * Translates a predicate composed with {@link com.github.collinalpert.lambda2sql.functions.SqlPredicate#and} and
+	 * {@link com.github.collinalpert.lambda2sql.functions.SqlPredicate#or} by translating its leaves on their own and joining them.
+	 * The result equals the translation of the parsed composition, where every {@code OR} but the outermost is put in parentheses.
+	 * Simplifications and rewrites which span several leaves need the whole tree, so the composition is only taken apart without them.
+	 *
+	 * @param composition The tree of the composition.
+	 * @param tableName   The table name which the columns belong to.
+	 * @param options     The {@link SqlOptions} which control the conversion.
+	 * @param sb          The {@link StringBuilder} to append the SQL to.
+	 * @param parameters  The parameters of a prepared statement, or {@code null} if values are rendered as literals.
+	 * @param probe       The {@link TranslationProbe} of the conversion, which measures the leaves as part of it, or {@code null} if it is not measured.
+	 * @return The {@link StringBuilder} with the SQL appended.
+	 */
+	private static StringBuilder translateComposition(PredicateComposition composition, String tableName, SqlOptions options, StringBuilder sb, List<SqlParameter> parameters, TranslationProbe probe) {
+		if (composition.getLeaf() != null) {
+			translate(composition.getLeaf(), tableName, options, sb, parameters, probe);
+			if (probe != null) {
+				probe.rendered();
+			}
+
+			return sb;
+		}
+
+		appendOperand(composition.getFirst(), tableName, options, sb, parameters, probe);
+		sb.append(composition.isConjunction() ? " AND " : " OR ");
+		return appendOperand(composition.getSecond(), tableName, options, sb, parameters, probe);
+	}
+
+	private static StringBuilder appendOperand(PredicateComposition operand, String tableName, SqlOptions options, StringBuilder sb, List<SqlParameter> parameters, TranslationProbe probe) {
+		if (!operand.isDisjunction()) {
+			return translateComposition(operand, tableName, options, sb, parameters, probe);
+		}
+
+		sb.append('(');
+		translateComposition(operand, tableName, options, sb, parameters, probe);
+		return sb.append(')');
+	}
+
+	/**
+	 * Takes the buffer of the current thread. If it is already in use, e.g. because a {@link SqlMethodTranslator} translates another lambda, a new one is created.
+	 *
+	 * @return An empty {@link StringBuilder}.
+	 */
+	private static StringBuilder acquireBuffer() {
+		var sb = buffers.get();
+		if (sb == null) {
+			return new StringBuilder(256);
+		}
+
+		buffers.set(null);
+		return sb;
+	}
+
+	private static void releaseBuffer(StringBuilder sb) {
+		if (sb.capacity() <= MAX_BUFFER_CAPACITY) {
+			sb.setLength(0);
+			buffers.set(sb);
+		}
+	}
+
+	/**
+	 * Parses a lambda once and caches its templates for SQL and for prepared statements.
+	 * A lambda which cannot be compiled to a template is still translated once, so unsupported methods are reported.
+	 * The predicates of a {@link CompositePredicate} are translated on their own, so each of them is precompiled.
+	 */
+	private static void precompile(SerializedFunctionalInterface functionalInterface, String tableName, SqlOptions options) {
+		if (functionalInterface instanceof CompositePredicate) {
+			for (var operand : ((CompositePredicate<?>) functionalInterface).getOperands()) {
+				precompile(operand, tableName, options);
+			}
+
+			return;
+		}
+
+		var serializedLambda = SerializedLambdas.of(functionalInterface);
+		var capturedArguments = serializedLambda == null ? null : SerializedLambdas.capturedArguments(serializedLambda);
+		if (capturedArguments == null || !isCompilable(capturedArguments)) {
+			parseAndRender(functionalInterface, tableName, options, new StringBuilder(), null, null, null);
+			return;
+		}
+
+		var expression = SerializedLambdas.parse(functionalInterface);
+		for (var isPrepared : new boolean[]{false, true}) {
+			var template = compile(expression, capturedArguments, tableName, options, isPrepared);
+			if (template != null) {
+				templates.add(new TemplateKey(functionalInterface.getClass(), serializedLambda, tableName != null, options, isPrepared), template);
+			}
+		}
+	}
+
+	/**
+	 * Compiles a template from a parsed lambda.
+	 *
+	 * @param expression        The parsed lambda.
+	 * @param capturedArguments The arguments captured by the lambda.
+	 * @param tableName         The table name which the columns belong to.
+	 * @param options           The {@link SqlOptions} which control the conversion.
+	 * @param isPrepared        Specifies if the template is compiled for prepared statements.
+	 * @return The template or {@code null}, if the SQL of the lambda cannot be expressed as a template.
+	 */
+	static SqlTemplate compile(LambdaExpression<?> expression, Object[] capturedArguments, String tableName, SqlOptions options, boolean isPrepared) {
+		var sb = new StringBuilder();
+		var recorder = new SqlTemplate.Recorder(0, capturedArguments);
+		expression.accept(new SqlVisitor(tableName, options, sb, recorder, isPrepared ? new ArrayList<>() : null));
+		return recorder.build(sb);
+	}
+
+	private static StringBuilder parseAndRender(SerializedFunctionalInterface functionalInterface, String tableName, SqlOptions options, StringBuilder sb, SqlTemplate.Recorder recorder, List<SqlParameter> parameters, TranslationProbe probe) {
+		var lambdaExpression = SerializedLambdas.parse(functionalInterface);
+		if (probe != null) {
+			probe.parsed();
+		}
+
+		return lambdaExpression.accept(new SqlVisitor(tableName, options, sb, recorder, parameters));
+	}
+
+	/**
+	 * Checks if the SQL of a lambda can be compiled to a template.
+	 * This is not the case if it captures other lambdas, since the SQL then depends on the captured lambdas instead of only their values.
+	 *
+	 * @param capturedArguments The arguments captured by the lambda.
+	 * @return {@code True} if a template can be compiled, otherwise {@code false}.
+	 */
+	static boolean isCompilable(Object[] capturedArguments) {
+		if (capturedArguments.length > SqlTemplate.MAX_CAPTURED_ARGUMENTS) {
+			return false;
+		}
+
+		for (var capturedArgument : capturedArguments) {
+			if (capturedArgument instanceof SerializedFunctionalInterface) {
+				return false;
+			}
+		}
+
+		return true;
+	}
 }
@@ -0,0 +1,69 @@
+package com.github.collinalpert.lambda2sql;
+
+import java.time.temporal.ChronoField;
+
+/**
+ * The dialect of MySQL and MariaDB.
+ *
+ * @author Collin Alpert
+ * @see SqlDialect#MYSQL
+ */
+final class MySqlDialect implements SqlDialect {
+
+	@Override
+	public char getIdentifierQuote() {
+		return '`';
+	}
+
+	/**
+	 * Escapes backslashes and single quotes with a backslash, since MySQL treats a backslash in a string literal as an escape character by default.
+	 */
+	@Override
+	public StringBuilder appendStringLiteral(StringBuilder sb, String value) {
+		sb.append('\'');
+		for (int i = 0; i < value.length(); i++) {
+			var c = value.charAt(i);
+			if (c == '\\' || c == '\'') {
+				sb.append('\\');
+			}
+
+			sb.append(c);
+		}
+
+		return sb.append('\'');
+	}
+
+	@Override
+	public String getDatePartFunction(ChronoField field) {
+		switch (field) {
+			case YEAR:
+				return "YEAR(%s)";
+			case MONTH_OF_YEAR:
+				return "MONTH(%s)";
+			case DAY_OF_MONTH:
+				return "DAY(%s)";
+			case DAY_OF_WEEK:
+				return "DAYOFWEEK(%s)";
+			case DAY_OF_YEAR:
+				return "DAYOFYEAR(%s)";
+			case HOUR_OF_DAY:
+				return "HOUR(%s)";
+			case MINUTE_OF_HOUR:
+				return "MINUTE(%s)";
+			case SECOND_OF_MINUTE:
+				return "SECOND(%s)";
+			default:
+				return SqlDialect.super.getDatePartFunction(field);
+		}
+	}
+
+	@Override
+	public String getNegationOperator() {
+		return "!";
+	}
+
+	@Override
+	public String toString() {
+		return "MySQL";
+	}
+}
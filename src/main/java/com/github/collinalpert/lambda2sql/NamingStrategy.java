@@ -0,0 +1,75 @@
+package com.github.collinalpert.lambda2sql;
+
+import java.lang.reflect.Member;
+
+/**
+ * Derives the name of a database column from the getter which is used in a lambda expression.
+ * A {@link Column} annotation on the getter takes precedence over any strategy.
+ * Column names are resolved once per getter and strategy and are cached afterwards, so implementations should be stateless.
+ *
+ * @author Collin Alpert
+ * @see SqlOptions#withNamingStrategy(NamingStrategy)
+ */
+@FunctionalInterface
+public interface NamingStrategy {
+
+	/**
+	 * Removes a {@code get} prefix and lowercases the first letter, e.g. {@code getLastName} becomes {@code lastName}.
+	 * Other methods keep their name, e.g. {@code isActive} stays {@code isActive}.
+	 */
+	NamingStrategy DEFAULT = member -> decapitalize(member.getName().startsWith("get") ? member.getName().substring(3) : member.getName());
+
+	/**
+	 * Uses the Java bean property name, e.g. {@code getLastName} becomes {@code lastName} and {@code isActive} becomes {@code active}.
+	 */
+	NamingStrategy BEAN_PROPERTY = member -> decapitalize(removePrefix(removePrefix(member.getName(), "get"), "is"));
+
+	/**
+	 * Converts the Java bean property name to snake case, e.g. {@code getLastName} becomes {@code last_name} and {@code isActive} becomes {@code active}.
+	 */
+	NamingStrategy SNAKE_CASE = member -> toSnakeCase(BEAN_PROPERTY.getColumnName(member));
+
+	/**
+	 * Derives the column name of a getter.
+	 *
+	 * @param member The getter used in a lambda expression.
+	 * @return The unescaped name of the column.
+	 */
+	String getColumnName(Member member);
+
+	private static String removePrefix(String name, String prefix) {
+		if (name.length() > prefix.length() && name.startsWith(prefix) && Character.isUpperCase(name.charAt(prefix.length()))) {
+			return name.substring(prefix.length());
+		}
+
+		return name;
+	}
+
+	private static String decapitalize(String name) {
+		if (name.isEmpty() || Character.isLowerCase(name.charAt(0))) {
+			return name;
+		}
+
+		return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+	}
+
+	private static String toSnakeCase(String name) {
+		var sb = new StringBuilder(name.length() + 4);
+		for (int i = 0; i < name.length(); i++) {
+			var c = name.charAt(i);
+			if (Character.isUpperCase(c)) {
+				var previousIsLower = i > 0 && !Character.isUpperCase(name.charAt(i - 1)) && name.charAt(i - 1) != '_';
+				var endsAcronym = i > 0 && i + 1 < name.length() && Character.isUpperCase(name.charAt(i - 1)) && Character.isLowerCase(name.charAt(i + 1));
+				if (previousIsLower || endsAcronym) {
+					sb.append('_');
+				}
+
+				sb.append(Character.toLowerCase(c));
+			} else {
+				sb.append(c);
+			}
+		}
+
+		return sb.toString();
+	}
+}
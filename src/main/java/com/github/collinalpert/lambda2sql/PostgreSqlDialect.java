@@ -0,0 +1,49 @@
+package com.github.collinalpert.lambda2sql;
+
+import java.time.temporal.ChronoField;
+
+/**
+ * The dialect of PostgreSQL, which uses standard SQL with {@code standard_conforming_strings} enabled.
+ *
+ * @author Collin Alpert
+ * @see SqlDialect#POSTGRESQL
+ */
+final class PostgreSqlDialect implements SqlDialect {
+
+	/**
+	 * {@code EXTRACT} counts the days of the week from zero and returns fractions of seconds, so both are adjusted to match the other dialects.
+	 */
+	@Override
+	public String getDatePartFunction(ChronoField field) {
+		switch (field) {
+			case DAY_OF_WEEK:
+				return "(EXTRACT(DOW FROM %s) + 1)";
+			case DAY_OF_YEAR:
+				return "EXTRACT(DOY FROM %s)";
+			case SECOND_OF_MINUTE:
+				return "FLOOR(EXTRACT(SECOND FROM %s))";
+			default:
+				return SqlDialect.super.getDatePartFunction(field);
+		}
+	}
+
+	@Override
+	public boolean supportsArrayParameters() {
+		return true;
+	}
+
+	@Override
+	public boolean supportsRowValueComparison() {
+		return true;
+	}
+
+	@Override
+	public boolean supportsILike() {
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "PostgreSQL";
+	}
+}
@@ -0,0 +1,170 @@
+package com.github.collinalpert.lambda2sql;
+
+import com.github.collinalpert.expressions.expression.ExpressionType;
+import com.github.collinalpert.expressions.expression.InvocationExpression;
+import com.github.collinalpert.expressions.expression.LambdaExpression;
+import com.github.collinalpert.lambda2sql.functions.CompositePredicate;
+import com.github.collinalpert.lambda2sql.functions.SerializedFunctionalInterface;
+import com.github.collinalpert.lambda2sql.functions.SqlPredicate;
+
+import java.lang.invoke.SerializedLambda;
+
+/**
+ * The tree of a predicate composed with {@link SqlPredicate#and(SqlPredicate)} and {@link SqlPredicate#or(SqlPredicate)}.
+ * Every step of the composition is a lambda which captures the two predicates it combines, so the composed lambda is a new shape
+ * which would have to be parsed as a whole. Instead, the tree is taken apart by the captured arguments of the lambdas,
+ * and its leaves are translated on their own, so their translations come from the cache.
+ *
+ * @author Collin Alpert
+ */
+final class PredicateComposition {
+
+	/**
+	 * The class implementing the lambdas created by {@link SqlPredicate#and(SqlPredicate)} and {@link SqlPredicate#or(SqlPredicate)}.
+	 */
+	private static final String IMPLEMENTATION_CLASS = SqlPredicate.class.getName().replace('.', '/');
+
+	/**
+	 * Remembers for every lambda class if its condition is an {@code OR} at the top, which needs parentheses when it is combined.
+	 * This does not depend on the captured values, so every class is only parsed once for this.
+	 */
+	private static final ClassValue<Shape> shapes = new ClassValue<>() {
+		@Override
+		protected Shape computeValue(Class<?> type) {
+			return new Shape();
+		}
+	};
+
+	private final SerializedFunctionalInterface leaf;
+	private final PredicateComposition first;
+	private final PredicateComposition second;
+	private final boolean isConjunction;
+	private final boolean isDisjunction;
+
+	private PredicateComposition(SerializedFunctionalInterface leaf, PredicateComposition first, PredicateComposition second, boolean isConjunction, boolean isDisjunction) {
+		this.leaf = leaf;
+		this.first = first;
+		this.second = second;
+		this.isConjunction = isConjunction;
+		this.isDisjunction = isDisjunction;
+	}
+
+	/**
+	 * Takes apart a lambda created by {@link SqlPredicate#and(SqlPredicate)} or {@link SqlPredicate#or(SqlPredicate)}.
+	 *
+	 * @param serializedLambda The serialized form of the lambda.
+	 * @return The tree of the composition, or {@code null} if the lambda is not a composition or one of its leaves cannot be compiled to a template.
+	 */
+	static PredicateComposition of(SerializedLambda serializedLambda) {
+		if (!IMPLEMENTATION_CLASS.equals(serializedLambda.getImplClass()) || serializedLambda.getCapturedArgCount() != 2) {
+			return null;
+		}
+
+		var methodName = serializedLambda.getImplMethodName();
+		var isConjunction = methodName.startsWith("lambda$and$");
+		if (!isConjunction && !methodName.startsWith("lambda$or$")) {
+			return null;
+		}
+
+		var first = operand(serializedLambda.getCapturedArg(0));
+		var second = first == null ? null : operand(serializedLambda.getCapturedArg(1));
+		if (second == null) {
+			return null;
+		}
+
+		return new PredicateComposition(null, first, second, isConjunction, !isConjunction);
+	}
+
+	private static PredicateComposition operand(Object capturedArgument) {
+		if (!(capturedArgument instanceof SerializedFunctionalInterface)) {
+			return null;
+		}
+
+		var functionalInterface = (SerializedFunctionalInterface) capturedArgument;
+		var serializedLambda = SerializedLambdas.of(functionalInterface);
+		if (serializedLambda == null) {
+			return null;
+		}
+
+		var composition = of(serializedLambda);
+		if (composition != null) {
+			return composition;
+		}
+
+		if (!Lambda2Sql.isCompilable(SerializedLambdas.capturedArguments(serializedLambda))) {
+			return null;
+		}
+
+		var shape = shapes.get(functionalInterface.getClass());
+		return new PredicateComposition(functionalInterface, null, null, false, shape.isDisjunction(functionalInterface));
+	}
+
+	/**
+	 * Checks if the translation of a predicate is an {@code OR} at the top, which needs parentheses when it is combined with {@code AND}.
+	 * This is decided from the structure of the predicate, without translating it.
+	 *
+	 * @param functionalInterface The predicate to check, which is either a lambda or a {@link CompositePredicate}.
+	 * @return {@code True} if the translation of the predicate is an {@code OR} at the top, otherwise {@code false}.
+	 */
+	static boolean isDisjunction(SerializedFunctionalInterface functionalInterface) {
+		if (functionalInterface instanceof CompositePredicate) {
+			var operands = ((CompositePredicate<?>) functionalInterface).getOperands();
+			if (operands.size() == 1) {
+				return isDisjunction(operands.get(0));
+			}
+
+			return operands.size() > 1 && !((CompositePredicate<?>) functionalInterface).isConjunction();
+		}
+
+		return shapes.get(functionalInterface.getClass()).isDisjunction(functionalInterface);
+	}
+
+	/**
+	 * @return the predicate of a leaf, or {@code null} if this is a combination of two predicates.
+	 */
+	SerializedFunctionalInterface getLeaf() {
+		return leaf;
+	}
+
+	PredicateComposition getFirst() {
+		return first;
+	}
+
+	PredicateComposition getSecond() {
+		return second;
+	}
+
+	/**
+	 * @return {@code True} if the predicates are combined with {@code AND}, or {@code false} if they are combined with {@code OR}.
+	 */
+	boolean isConjunction() {
+		return isConjunction;
+	}
+
+	/**
+	 * @return {@code True} if the condition is an {@code OR} at the top and needs parentheses when it is combined with another condition.
+	 */
+	boolean isDisjunction() {
+		return isDisjunction;
+	}
+
+	private static final class Shape {
+
+		private volatile Boolean isDisjunction;
+
+		boolean isDisjunction(SerializedFunctionalInterface functionalInterface) {
+			var result = this.isDisjunction;
+			if (result == null) {
+				var body = SerializedLambdas.parse(functionalInterface).getBody();
+				while (body instanceof InvocationExpression && ((InvocationExpression) body).getTarget() instanceof LambdaExpression) {
+					body = ((LambdaExpression<?>) ((InvocationExpression) body).getTarget()).getBody();
+				}
+
+				result = body.getExpressionType() == ExpressionType.LogicalOr;
+				this.isDisjunction = result;
+			}
+
+			return result;
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package com.github.collinalpert.lambda2sql;
+
+import com.github.collinalpert.lambda2sql.functions.SerializedFunctionalInterface;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of preloading lambdas with {@link Lambda2Sql#preload}.
+ *
+ * @author Collin Alpert
+ */
+public final class PreloadReport {
+
+	private final int translatedCount;
+	private final List<Failure> failures;
+
+	PreloadReport(int translatedCount, List<Failure> failures) {
+		this.translatedCount = translatedCount;
+		this.failures = Collections.unmodifiableList(failures);
+	}
+
+	/**
+	 * @return the number of lambdas which were translated successfully.
+	 */
+	public int getTranslatedCount() {
+		return translatedCount;
+	}
+
+	/**
+	 * @return the lambdas which could not be translated, in the order they were passed in.
+	 */
+	public List<Failure> getFailures() {
+		return failures;
+	}
+
+	/**
+	 * @return {@code true} if all lambdas were translated successfully.
+	 */
+	public boolean isSuccessful() {
+		return failures.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("PreloadReport{translated=%d, failures=%s}", translatedCount, failures);
+	}
+
+	/**
+	 * A lambda which could not be translated, e.g. because it uses a method which is not supported.
+	 */
+	public static final class Failure {
+
+		private final SerializedFunctionalInterface functionalInterface;
+		private final RuntimeException cause;
+
+		Failure(SerializedFunctionalInterface functionalInterface, RuntimeException cause) {
+			this.functionalInterface = functionalInterface;
+			this.cause = cause;
+		}
+
+		/**
+		 * @return the lambda which could not be translated.
+		 */
+		public SerializedFunctionalInterface getFunctionalInterface() {
+			return functionalInterface;
+		}
+
+		/**
+		 * @return the exception thrown while translating the lambda.
+		 */
+		public RuntimeException getCause() {
+			return cause;
+		}
+
+		@Override
+		public String toString() {
+			return functionalInterface + ": " + cause;
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.github.collinalpert.lambda2sql;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An SQL where condition with {@code ?} placeholders instead of values, together with the values to bind to them.
+ * Since the values are not part of the SQL, the same statement text is produced for every value a lambda captures,
+ * which allows databases and drivers to reuse prepared statements and execution plans.
+ *
+ * @author Collin Alpert
+ */
+public final class PreparedSql {
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private final String sql;
+	private final List<SqlParameter> parameters;
+
+	/**
+	 * The lazily computed fingerprint. Zero if it has not been computed yet.
+	 */
+	private volatile long fingerprint;
+
+	PreparedSql(String sql, List<SqlParameter> parameters) {
+		this.sql = sql;
+		this.parameters = Collections.unmodifiableList(parameters);
+	}
+
+	/**
+	 * @return the SQL where condition containing a {@code ?} placeholder for every parameter.
+	 */
+	public String getSql() {
+		return sql;
+	}
+
+	/**
+	 * @return the parameters in the order of their placeholders.
+	 */
+	public List<SqlParameter> getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * Computes a fingerprint of the SQL of this statement, which does not depend on the values of its parameters.
+	 * The placeholders of an {@code IN} list count as a single placeholder, so neither the values a lambda captures nor the
+	 * size of a list change the fingerprint. This makes the fingerprint suitable as a key for caching prepared statements
+	 * on the client or for collecting metrics per query shape.
+	 * <p>
+	 * The fingerprint identifies the SQL text, not the lambda it was translated from. Everything else that changes the text
+	 * changes the fingerprint, e.g. the table name, the identifier quoting of the {@link SqlDialect}, the {@link NamingStrategy},
+	 * a value becoming {@code IS NULL}, an empty {@code IN} list or the number of chunks of a {@link InListStrategy#chunked(int) chunked} list.
+	 * Padding a list does not change it, since the padded placeholders are collapsed as well.
+	 * <p>
+	 * The fingerprint is a 64-bit FNV-1a hash of the SQL, which is computed when it is first requested.
+	 *
+	 * @return The fingerprint of the statement.
+	 */
+	public long getFingerprint() {
+		var fingerprint = this.fingerprint;
+		if (fingerprint == 0) {
+			fingerprint = fingerprint(sql);
+			this.fingerprint = fingerprint;
+		}
+
+		return fingerprint;
+	}
+
+	/**
+	 * Computes the FNV-1a hash of an SQL statement, in which every run of comma separated placeholders is treated as one placeholder.
+	 *
+	 * @param sql The SQL containing {@code ?} placeholders.
+	 * @return The hash of the SQL.
+	 */
+	static long fingerprint(CharSequence sql) {
+		var hash = FNV_OFFSET_BASIS;
+		var length = sql.length();
+		for (int i = 0; i < length; i++) {
+			var c = sql.charAt(i);
+			hash = (hash ^ c) * FNV_PRIME;
+			if (c == '?') {
+				while (i + 3 < length && sql.charAt(i + 1) == ',' && sql.charAt(i + 2) == ' ' && sql.charAt(i + 3) == '?') {
+					i += 3;
+				}
+			}
+		}
+
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return sql + " " + parameters;
+	}
+}
@@ -0,0 +1,216 @@
+package com.github.collinalpert.lambda2sql;
+
+import com.github.collinalpert.lambda2sql.functions.SqlFunction;
+
+import java.lang.invoke.MethodHandleInfo;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Maps the getters which navigate from one row to related rows onto the tables and columns which join them.
+ * A getter which returns a single related object is mapped with {@link #withOne} and a getter which returns a collection with {@link #withMany}.
+ * <pre>{@code
+ * var relationships = Relationships.NONE
+ *     .withOne(Person::getCar, "car", "carId", "id")
+ *     .withMany(Person::getOrders, "order", "id", "personId");
+ * var options = SqlOptions.DEFAULT.withRelationships(relationships);
+ *
+ * Lambda2Sql.toSql(person -> person.getCar().getModel() == "Mercedes", "person", options);
+ * Lambda2Sql.toSql(person -> SqlFunctions.anyMatch(person.getOrders(), bigOrder), "person", options);
+ * }</pre>
+ * Become:
+ * <pre>{@code
+ * "(SELECT `car_1`.`model` FROM `car` `car_1` WHERE `car_1`.`id` = `person`.`carId`) = 'Mercedes'"
+ * "EXISTS (SELECT 1 FROM `order` `order_1` WHERE `order_1`.`personId` = `person`.`id` AND `order_1`.`total` > 100)"
+ * }</pre>
+ * Getters which are not mapped keep their previous behavior, so {@code person.getCar().getModel()} becomes the column {@code model} of the table of the lambda.
+ * A related collection is matched with an inline lambda, e.g. {@code person.getOrders().stream().anyMatch(order -> order.getTotal() > 100)}, or with a captured predicate.
+ * The template of the lambda only covers an inline lambda which captures nothing. With a captured predicate, or an inline lambda which captures arguments,
+ * the SQL depends on more than the shape of the lambda, so such a lambda is parsed for every conversion instead of being rendered from the translation cache.
+ * Like all options, relationships are immutable and every {@code with} method returns a new instance.
+ *
+ * @author Collin Alpert
+ * @see SqlOptions#withRelationships(Relationships)
+ */
+public final class Relationships {
+
+	/**
+	 * No relationships. Getters which return related objects are treated like any other getter.
+	 */
+	public static final Relationships NONE = new Relationships(Map.of());
+
+	/**
+	 * The relationships by the {@link #keyOf key} of their getter. The key is a name, so options which are cached with their templates do not keep the class loader of the getter alive.
+	 */
+	private final Map<String, Relationship> relationships;
+
+	private Relationships(Map<String, Relationship> relationships) {
+		this.relationships = relationships;
+	}
+
+	/**
+	 * Maps a getter which returns a single related object, e.g. the car of a person.
+	 * A column of the related object becomes a correlated subquery which selects the column from the related row.
+	 *
+	 * @param getter       A method reference to the getter, e.g. {@code Person::getCar}.
+	 * @param table        The table of the related rows.
+	 * @param ownerColumn  The column of the row the getter is called on which references the related row, e.g. {@code carId}.
+	 * @param targetColumn The column of the related table which is referenced, e.g. {@code id}.
+	 * @param <T>          The type of the row the getter is called on.
+	 * @return relationships which additionally contain the mapping of the getter.
+	 */
+	public <T> Relationships withOne(SqlFunction<T, ?> getter, String table, String ownerColumn, String targetColumn) {
+		return with(getter, new Relationship(table, ownerColumn, targetColumn, false));
+	}
+
+	/**
+	 * Maps a getter which returns a collection of related objects, e.g. the orders of a person.
+	 * Matching the collection with {@link SqlFunctions#anyMatch}, {@link SqlFunctions#allMatch} or {@link SqlFunctions#noneMatch},
+	 * or with the methods of the same name on its {@code stream()}, becomes an {@code EXISTS} or a {@code NOT EXISTS} condition.
+	 *
+	 * @param getter       A method reference to the getter, e.g. {@code Person::getOrders}.
+	 * @param table        The table of the related rows.
+	 * @param ownerColumn  The column of the row the getter is called on which is referenced by the related rows, e.g. {@code id}.
+	 * @param targetColumn The column of the related table which references the row, e.g. {@code personId}.
+	 * @param <T>          The type of the row the getter is called on.
+	 * @return relationships which additionally contain the mapping of the getter.
+	 */
+	public <T> Relationships withMany(SqlFunction<T, ? extends Collection<?>> getter, String table, String ownerColumn, String targetColumn) {
+		return with(getter, new Relationship(table, ownerColumn, targetColumn, true));
+	}
+
+	private Relationships with(SqlFunction<?, ?> getter, Relationship relationship) {
+		var relationships = new HashMap<>(this.relationships);
+		relationships.put(keyOf(resolveGetter(getter)), relationship);
+		return new Relationships(Map.copyOf(relationships));
+	}
+
+	/**
+	 * Resolves the getter a method reference refers to.
+	 *
+	 * @param getter The method reference.
+	 * @return The getter.
+	 */
+	private static Method resolveGetter(SqlFunction<?, ?> getter) {
+		var serializedLambda = SerializedLambdas.of(Objects.requireNonNull(getter));
+		if (serializedLambda == null || serializedLambda.getImplMethodName().startsWith("lambda$")
+				|| (serializedLambda.getImplMethodKind() != MethodHandleInfo.REF_invokeVirtual && serializedLambda.getImplMethodKind() != MethodHandleInfo.REF_invokeInterface)) {
+			throw new IllegalArgumentException("A relationship must be mapped with a method reference to a getter, e.g. Person::getCar.");
+		}
+
+		var className = serializedLambda.getImplClass().replace('/', '.');
+		try {
+			return Class.forName(className, false, getter.getClass().getClassLoader()).getMethod(serializedLambda.getImplMethodName());
+		} catch (ClassNotFoundException | NoSuchMethodException e) {
+			throw new IllegalArgumentException(String.format("The getter %s.%s cannot be resolved.", className, serializedLambda.getImplMethodName()), e);
+		}
+	}
+
+	/**
+	 * @param getter A getter which is called inside a lambda.
+	 * @return The relationship the getter navigates, or {@code null} if it is not mapped.
+	 */
+	Relationship get(Member getter) {
+		return relationships.isEmpty() ? null : relationships.get(keyOf(getter));
+	}
+
+	/**
+	 * @param getter A getter.
+	 * @return the name of the getter, qualified by the name of the class declaring it, e.g. {@code com.example.Person.getCar}.
+	 */
+	private static String keyOf(Member getter) {
+		return getter.getDeclaringClass().getName() + '.' + getter.getName();
+	}
+
+	/**
+	 * @return {@code true} if no relationships are mapped.
+	 */
+	public boolean isEmpty() {
+		return relationships.isEmpty();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+
+		if (!(o instanceof Relationships)) {
+			return false;
+		}
+
+		return relationships.equals(((Relationships) o).relationships);
+	}
+
+	@Override
+	public int hashCode() {
+		return relationships.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "Relationships" + relationships;
+	}
+
+	/**
+	 * The table and the columns of a mapped getter. The related rows are those whose target column equals the owner column of the row the getter is called on.
+	 */
+	static final class Relationship {
+
+		private final String table;
+		private final String ownerColumn;
+		private final String targetColumn;
+		private final boolean isToMany;
+
+		private Relationship(String table, String ownerColumn, String targetColumn, boolean isToMany) {
+			this.table = Objects.requireNonNull(table);
+			this.ownerColumn = Objects.requireNonNull(ownerColumn);
+			this.targetColumn = Objects.requireNonNull(targetColumn);
+			this.isToMany = isToMany;
+		}
+
+		String getTable() {
+			return table;
+		}
+
+		String getOwnerColumn() {
+			return ownerColumn;
+		}
+
+		String getTargetColumn() {
+			return targetColumn;
+		}
+
+		boolean isToMany() {
+			return isToMany;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+
+			if (!(o instanceof Relationship)) {
+				return false;
+			}
+
+			var other = (Relationship) o;
+			return isToMany == other.isToMany && table.equals(other.table) && ownerColumn.equals(other.ownerColumn) && targetColumn.equals(other.targetColumn);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(table, ownerColumn, targetColumn, isToMany);
+		}
+
+		@Override
+		public String toString() {
+			return (isToMany ? "many " : "one ") + table + '.' + targetColumn + " = " + ownerColumn;
+		}
+	}
+}
@@ -0,0 +1,216 @@
+package com.github.collinalpert.lambda2sql;
+
+import com.github.collinalpert.expressions.expression.ConstantExpression;
+import com.github.collinalpert.expressions.expression.Expression;
+import com.github.collinalpert.expressions.expression.InvocationExpression;
+import com.github.collinalpert.expressions.expression.LambdaExpression;
+import com.github.collinalpert.lambda2sql.functions.SerializedFunctionalInterface;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.SerializedLambda;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Provides access to the {@link SerializedLambda} of serializable lambdas and to their parsed expression trees.
+ * The {@code writeReplace} method of a lambda class is looked up once and kept in a {@link ClassValue}.
+ * The parsed trees are kept per implementation method in a {@link ClassValue} of the class which implements the lambdas,
+ * so they are released together with that class and a lambda whose implementation method was parsed before is not read from its class file again.
+ * Since the expressions library reads the class file by itself and offers no way to pass it the bytes, a lambda whose implementation method was not parsed yet
+ * is still read from the class file, even if other lambdas of the same class were parsed.
+ *
+ * @author Collin Alpert
+ */
+final class SerializedLambdas {
+
+	private SerializedLambdas() {
+	}
+
+	private static final ClassValue<LambdaClass> lambdaClasses = new ClassValue<>() {
+		@Override
+		protected LambdaClass computeValue(Class<?> type) {
+			return new LambdaClass(type);
+		}
+	};
+
+	/**
+	 * The parsed trees of the lambdas a class implements, by their {@link #methodKey method key}.
+	 */
+	private static final ClassValue<ConcurrentMap<String, LambdaExpression<?>>> implementationClasses = new ClassValue<>() {
+		@Override
+		protected ConcurrentMap<String, LambdaExpression<?>> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	/**
+	 * Retrieves the serialized form of a lambda by invoking its {@code writeReplace} method.
+	 *
+	 * @param functionalInterface The lambda to serialize.
+	 * @return The {@link SerializedLambda} or {@code null}, if the object is not a serializable lambda.
+	 */
+	static SerializedLambda of(SerializedFunctionalInterface functionalInterface) {
+		var writeReplace = lambdaClasses.get(functionalInterface.getClass()).writeReplace;
+		if (writeReplace == null) {
+			return null;
+		}
+
+		try {
+			var replacement = (Object) writeReplace.invokeExact((Object) functionalInterface);
+			return replacement instanceof SerializedLambda ? (SerializedLambda) replacement : null;
+		} catch (Error e) {
+			throw e;
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Parses a lambda into an expression tree. The implementation method of a lambda does not depend on the arguments it captured,
+	 * which are the leading arguments of the invocation of the implementation method. The tree of a lambda is therefore parsed once per implementation method
+	 * and shared by all lambdas which capture nothing, and lambdas which capture arguments get a copy of the invocation with their own arguments.
+	 * Expression trees are not modified by their visitors.
+	 *
+	 * @param functionalInterface The lambda to parse.
+	 * @return The expression tree of the lambda.
+	 */
+	static LambdaExpression<?> parse(SerializedFunctionalInterface functionalInterface) {
+		var serializedLambda = of(functionalInterface);
+		if (serializedLambda == null) {
+			return LambdaExpression.parse(functionalInterface);
+		}
+
+		var trees = lambdaClasses.get(functionalInterface.getClass()).treesOf(serializedLambda);
+		var key = methodKey(serializedLambda);
+		var tree = trees.get(key);
+		if (tree == null) {
+			tree = LambdaExpression.parse(functionalInterface);
+			trees.putIfAbsent(key, tree);
+			return tree;
+		}
+
+		var capturedArguments = capturedArguments(serializedLambda);
+		if (capturedArguments.length == 0) {
+			return tree;
+		}
+
+		var rebound = withCapturedArguments(tree, capturedArguments);
+		return rebound != null ? rebound : LambdaExpression.parse(functionalInterface);
+	}
+
+	/**
+	 * Replaces the captured arguments in the tree of another lambda with the same implementation method.
+	 *
+	 * @param tree              The parsed tree, whose body invokes the implementation method with the captured arguments first.
+	 * @param capturedArguments The arguments the lambda captured.
+	 * @return The tree with the captured arguments, or {@code null} if the tree does not have the expected structure.
+	 */
+	private static LambdaExpression<?> withCapturedArguments(LambdaExpression<?> tree, Object[] capturedArguments) {
+		if (!(tree.getBody() instanceof InvocationExpression)) {
+			return null;
+		}
+
+		var invocation = (InvocationExpression) tree.getBody();
+		var arguments = new ArrayList<>(invocation.getArguments());
+		if (arguments.size() < capturedArguments.length) {
+			return null;
+		}
+
+		for (int i = 0; i < capturedArguments.length; i++) {
+			if (!(arguments.get(i) instanceof ConstantExpression)) {
+				return null;
+			}
+
+			var value = capturedArguments[i];
+			if (value instanceof SerializedFunctionalInterface && of((SerializedFunctionalInterface) value) != null) {
+				// A captured lambda, e.g. the operand of SqlPredicate.and, is parsed into its own tree.
+				value = parse((SerializedFunctionalInterface) value);
+			} else if (((ConstantExpression) arguments.get(i)).getValue() instanceof LambdaExpression) {
+				return null;
+			}
+
+			arguments.set(i, Expression.constant(value, arguments.get(i).getResultType()));
+		}
+
+		return Expression.lambda(tree.getResultType(), Expression.invoke(invocation.getTarget(), arguments), tree.getParameters());
+	}
+
+	/**
+	 * Identifies the tree of a lambda within the class implementing it. Besides the implementation method, the parameters of the lambda depend on
+	 * its functional interface and on the type it was instantiated with, which can differ between method references to the same method.
+	 */
+	private static String methodKey(SerializedLambda serializedLambda) {
+		return serializedLambda.getImplMethodName() + serializedLambda.getImplMethodSignature() + '/' + serializedLambda.getImplMethodKind()
+				+ '/' + serializedLambda.getFunctionalInterfaceClass() + serializedLambda.getInstantiatedMethodType();
+	}
+
+	/**
+	 * @param serializedLambda The serialized lambda.
+	 * @return The arguments the lambda captured, in the order of the parameters of its implementation method.
+	 */
+	static Object[] capturedArguments(SerializedLambda serializedLambda) {
+		var capturedArguments = new Object[serializedLambda.getCapturedArgCount()];
+		for (int i = 0; i < capturedArguments.length; i++) {
+			capturedArguments[i] = serializedLambda.getCapturedArg(i);
+		}
+
+		return capturedArguments;
+	}
+
+	private static final class LambdaClass {
+
+		/**
+		 * The {@code writeReplace} method, adapted to take and return an {@link Object}, or {@code null} if the class has none.
+		 */
+		private final MethodHandle writeReplace;
+
+		private final Class<?> type;
+
+		/**
+		 * The parsed trees of the class implementing the lambda, resolved by the first parse.
+		 */
+		private volatile Map<String, LambdaExpression<?>> trees;
+
+		LambdaClass(Class<?> type) {
+			this.writeReplace = findWriteReplace(type);
+			this.type = type;
+		}
+
+		/**
+		 * Resolves the trees of the class implementing the lambda. If that class was defined by another class loader, e.g. a JDK class of a method reference,
+		 * the trees are kept with the lambda class instead, so the implementing class does not keep the class loader of the lambda alive.
+		 */
+		Map<String, LambdaExpression<?>> treesOf(SerializedLambda serializedLambda) {
+			var trees = this.trees;
+			if (trees == null) {
+				trees = new ConcurrentHashMap<>(2);
+				try {
+					var implementationClass = Class.forName(serializedLambda.getImplClass().replace('/', '.'), false, this.type.getClassLoader());
+					if (implementationClass.getClassLoader() == this.type.getClassLoader()) {
+						trees = implementationClasses.get(implementationClass);
+					}
+				} catch (ClassNotFoundException | LinkageError e) {
+					// The trees are kept with the lambda class.
+				}
+
+				this.trees = trees;
+			}
+
+			return trees;
+		}
+
+		private static MethodHandle findWriteReplace(Class<?> type) {
+			try {
+				var writeReplace = type.getDeclaredMethod("writeReplace");
+				writeReplace.setAccessible(true);
+				return MethodHandles.lookup().unreflect(writeReplace).asType(MethodType.methodType(Object.class, Object.class));
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				return null;
+			}
+		}
+	}
+}
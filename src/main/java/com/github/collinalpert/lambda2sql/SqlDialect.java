@@ -0,0 +1,129 @@
+package com.github.collinalpert.lambda2sql;
+
+import java.time.temporal.ChronoField;
+
+/**
+ * Describes the SQL of a specific database, i.e. how identifiers are quoted, how string literals are escaped,
+ * how parts of dates are extracted and which constructs the database supports.
+ * The default methods produce standard SQL, so a dialect only overrides what its database does differently.
+ * <pre>{@code
+ * SqlPredicate<Person> predicate = person -> person.getLastName() == "O'Brien" && !person.isActive();
+ * Lambda2Sql.toSql(predicate, "person", SqlDialect.POSTGRESQL);
+ * }</pre>
+ * Becomes:
+ * <pre>{@code "\"person\".\"lastName\" = 'O''Brien' AND NOT \"person\".\"isActive\"" }</pre>
+ * Dialects are compared by identity when translations are cached, so implementations should be singletons.
+ *
+ * @author Collin Alpert
+ * @see SqlOptions#withDialect(SqlDialect)
+ */
+public interface SqlDialect {
+
+	/**
+	 * MySQL and MariaDB, which quote identifiers with backticks and escape string literals with backslashes. This is the default dialect.
+	 */
+	SqlDialect MYSQL = new MySqlDialect();
+
+	/**
+	 * PostgreSQL, which supports array parameters for memberships and {@code ILIKE} for case-insensitive patterns.
+	 */
+	SqlDialect POSTGRESQL = new PostgreSqlDialect();
+
+	/**
+	 * The H2 database, which supports array parameters for memberships and {@code ILIKE} for case-insensitive patterns.
+	 */
+	SqlDialect H2 = new H2Dialect();
+
+	/**
+	 * @return the character table and column names are enclosed in, if they are escaped.
+	 */
+	default char getIdentifierQuote() {
+		return '"';
+	}
+
+	/**
+	 * Appends a string as a quoted literal. Standard SQL only doubles single quotes.
+	 *
+	 * @param sb    The {@link StringBuilder} to append to.
+	 * @param value The string to append.
+	 * @return The {@link StringBuilder} with the literal appended.
+	 */
+	default StringBuilder appendStringLiteral(StringBuilder sb, String value) {
+		sb.append('\'');
+		for (int i = 0; i < value.length(); i++) {
+			var c = value.charAt(i);
+			if (c == '\'') {
+				sb.append('\'');
+			}
+
+			sb.append(c);
+		}
+
+		return sb.append('\'');
+	}
+
+	/**
+	 * Specifies how a part of a date or a time is extracted from a column, e.g. for {@code person.getDate().getYear()}.
+	 * The day of the week is counted from Sunday, which is 1, to Saturday, which is 7, in every dialect.
+	 *
+	 * @param field The part to extract. One of {@link ChronoField#YEAR}, {@link ChronoField#MONTH_OF_YEAR}, {@link ChronoField#DAY_OF_MONTH},
+	 *              {@link ChronoField#DAY_OF_WEEK}, {@link ChronoField#DAY_OF_YEAR}, {@link ChronoField#HOUR_OF_DAY},
+	 *              {@link ChronoField#MINUTE_OF_HOUR} and {@link ChronoField#SECOND_OF_MINUTE}.
+	 * @return The SQL which extracts the part, with {@code %s} in place of the column, e.g. {@code EXTRACT(YEAR FROM %s)}.
+	 * @throws UnsupportedOperationException If the dialect cannot extract the part.
+	 */
+	default String getDatePartFunction(ChronoField field) {
+		switch (field) {
+			case YEAR:
+				return "EXTRACT(YEAR FROM %s)";
+			case MONTH_OF_YEAR:
+				return "EXTRACT(MONTH FROM %s)";
+			case DAY_OF_MONTH:
+				return "EXTRACT(DAY FROM %s)";
+			case HOUR_OF_DAY:
+				return "EXTRACT(HOUR FROM %s)";
+			case MINUTE_OF_HOUR:
+				return "EXTRACT(MINUTE FROM %s)";
+			case SECOND_OF_MINUTE:
+				return "EXTRACT(SECOND FROM %s)";
+			default:
+				throw new UnsupportedOperationException(String.format("The dialect cannot extract %s from a date.", field));
+		}
+	}
+
+	/**
+	 * @return the operator which negates a boolean column, including a trailing space if it is a keyword, e.g. {@code NOT }.
+	 */
+	default String getNegationOperator() {
+		return "NOT ";
+	}
+
+	/**
+	 * Specifies if a membership can be checked against a single array parameter, e.g. {@code id = ANY(?)}.
+	 * If not, {@link InListStrategy#ARRAY_PARAMETER} renders an {@code IN} list instead.
+	 *
+	 * @return {@code True} if the database supports {@code = ANY(?)} with an array parameter, otherwise {@code false}.
+	 */
+	default boolean supportsArrayParameters() {
+		return false;
+	}
+
+	/**
+	 * Specifies if rows can be compared as a whole, e.g. {@code (a, b) > (?, ?)}, in a way the database can use an index for.
+	 * This is used by {@link KeysetPagination} to seek past the last row of a page.
+	 *
+	 * @return {@code True} if the database supports comparisons of row values, otherwise {@code false}.
+	 */
+	default boolean supportsRowValueComparison() {
+		return false;
+	}
+
+	/**
+	 * Specifies if the database has a case-insensitive {@code LIKE} operator. If not, both sides of the comparison are converted with {@code LOWER}.
+	 *
+	 * @return {@code True} if the database supports {@code ILIKE}, otherwise {@code false}.
+	 */
+	default boolean supportsILike() {
+		return false;
+	}
+}
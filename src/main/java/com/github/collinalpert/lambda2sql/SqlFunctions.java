@@ -1,5 +1,12 @@
 package com.github.collinalpert.lambda2sql;
 
+import com.github.collinalpert.lambda2sql.functions.SqlPredicate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Objects;
+
 /**
  * @author Collin Alpert
  */
@@ -16,4 +23,226 @@ public class SqlFunctions {
 	public static <T> T min(T t) {
 		return null;
 	}
+
+	/**
+	 * Counts the rows of a group. Inside a lambda, this becomes {@code COUNT(*)}, e.g. for a {@code HAVING} condition like {@code count() > 5}.
+	 * Outside of a lambda, this has no meaning and returns zero.
+	 *
+	 * @return Zero.
+	 */
+	public static long count() {
+		return 0;
+	}
+
+	/**
+	 * Counts the rows of a group in which a value is not {@code null}. Inside a lambda, this becomes {@code COUNT(column)}.
+	 * Outside of a lambda, this has no meaning and returns zero.
+	 *
+	 * @param t   The value to count, e.g. a column.
+	 * @param <T> The type of the value.
+	 * @return Zero.
+	 */
+	public static <T> long count(T t) {
+		return 0;
+	}
+
+	/**
+	 * Counts the distinct values of a group. Inside a lambda, this becomes {@code COUNT(DISTINCT column)}.
+	 * Outside of a lambda, this has no meaning and returns zero.
+	 *
+	 * @param t   The value to count, e.g. a column.
+	 * @param <T> The type of the value.
+	 * @return Zero.
+	 */
+	public static <T> long countDistinct(T t) {
+		return 0;
+	}
+
+	/**
+	 * Averages the values of a group. Inside a lambda, this becomes {@code AVG(column)}.
+	 * Outside of a lambda, this has no meaning and returns zero.
+	 *
+	 * @param t   The value to average, e.g. a column.
+	 * @param <T> The type of the value.
+	 * @return Zero.
+	 */
+	public static <T> double avg(T t) {
+		return 0;
+	}
+
+	/**
+	 * Checks if a date lies within a range, including both of its ends. Inside a lambda, this becomes a {@code BETWEEN} condition,
+	 * e.g. {@code SqlFunctions.between(person.getDate(), from, to)} becomes {@code `person`.`date` BETWEEN '2020-01-01' AND '2020-12-31'}.
+	 *
+	 * @param value The date to check.
+	 * @param from  The first date of the range.
+	 * @param to    The last date of the range.
+	 * @return {@code True} if the date lies within the range, otherwise {@code false}.
+	 */
+	public static boolean between(LocalDate value, LocalDate from, LocalDate to) {
+		return !value.isBefore(from) && !value.isAfter(to);
+	}
+
+	/**
+	 * Checks if a date-time lies within a range, including both of its ends. Inside a lambda, this becomes a {@code BETWEEN} condition.
+	 *
+	 * @param value The date-time to check.
+	 * @param from  The first date-time of the range.
+	 * @param to    The last date-time of the range.
+	 * @return {@code True} if the date-time lies within the range, otherwise {@code false}.
+	 * @see #between(LocalDate, LocalDate, LocalDate)
+	 */
+	public static boolean between(LocalDateTime value, LocalDateTime from, LocalDateTime to) {
+		return !value.isBefore(from) && !value.isAfter(to);
+	}
+
+	/**
+	 * Checks if a string starts with a prefix, ignoring the case. Inside a lambda, this becomes a case-insensitive {@code LIKE} condition,
+	 * e.g. {@code person.getName() ILIKE 'st%'} for PostgreSQL and {@code LOWER(person.getName()) LIKE LOWER('st%')} for MySQL.
+	 *
+	 * @param value  The string to check.
+	 * @param prefix The prefix to look for.
+	 * @return {@code True} if the string starts with the prefix, ignoring the case, otherwise {@code false}.
+	 */
+	public static boolean startsWithIgnoreCase(String value, String prefix) {
+		return value.regionMatches(true, 0, prefix, 0, prefix.length());
+	}
+
+	/**
+	 * Checks if a string ends with a suffix, ignoring the case. Inside a lambda, this becomes a case-insensitive {@code LIKE} condition.
+	 *
+	 * @param value  The string to check.
+	 * @param suffix The suffix to look for.
+	 * @return {@code True} if the string ends with the suffix, ignoring the case, otherwise {@code false}.
+	 * @see #startsWithIgnoreCase(String, String)
+	 */
+	public static boolean endsWithIgnoreCase(String value, String suffix) {
+		return value.regionMatches(true, value.length() - suffix.length(), suffix, 0, suffix.length());
+	}
+
+	/**
+	 * Checks if a string contains another string, ignoring the case. Inside a lambda, this becomes a case-insensitive {@code LIKE} condition.
+	 *
+	 * @param value The string to check.
+	 * @param part  The string to look for.
+	 * @return {@code True} if the string contains the other string, ignoring the case, otherwise {@code false}.
+	 * @see #startsWithIgnoreCase(String, String)
+	 */
+	public static boolean containsIgnoreCase(String value, String part) {
+		for (int i = 0; i <= value.length() - part.length(); i++) {
+			if (value.regionMatches(true, i, part, 0, part.length())) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Checks if a value is contained in an array. Inside a lambda, this becomes an {@code IN} condition,
+	 * e.g. {@code SqlFunctions.in(person.getId(), ids)} becomes {@code `person`.`id` IN (1, 2, 3)}.
+	 *
+	 * @param value  The value to look up.
+	 * @param values The array to look the value up in.
+	 * @return {@code True} if the array contains the value, otherwise {@code false}.
+	 */
+	public static boolean in(int value, int... values) {
+		for (var element : values) {
+			if (element == value) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Checks if a value is contained in an array. Inside a lambda, this becomes an {@code IN} condition.
+	 *
+	 * @param value  The value to look up.
+	 * @param values The array to look the value up in.
+	 * @return {@code True} if the array contains the value, otherwise {@code false}.
+	 * @see #in(int, int...)
+	 */
+	public static boolean in(long value, long... values) {
+		for (var element : values) {
+			if (element == value) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Checks if a value is contained in an array. Inside a lambda, this becomes an {@code IN} condition.
+	 *
+	 * @param value  The value to look up.
+	 * @param values The array to look the value up in.
+	 * @param <T>    The type of the values.
+	 * @return {@code True} if the array contains an element equal to the value, otherwise {@code false}.
+	 * @see #in(int, int...)
+	 */
+	@SafeVarargs
+	public static <T> boolean in(T value, T... values) {
+		for (var element : values) {
+			if (Objects.equals(element, value)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Checks if any element of a collection matches a predicate. Inside a lambda, the collection must be mapped with {@link Relationships#withMany}
+	 * and this becomes an {@code EXISTS} condition, e.g. {@code SqlFunctions.anyMatch(person.getOrders(), bigOrder)} becomes
+	 * {@code EXISTS (SELECT 1 FROM `order` `order_1` WHERE `order_1`.`personId` = `person`.`id` AND `order_1`.`total` > 100)}.
+	 *
+	 * @param values    The collection.
+	 * @param predicate The predicate to test the elements with.
+	 * @param <T>       The type of the elements.
+	 * @return {@code True} if an element matches the predicate, otherwise {@code false}.
+	 */
+	public static <T> boolean anyMatch(Collection<? extends T> values, SqlPredicate<? super T> predicate) {
+		for (var element : values) {
+			if (predicate.test(element)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Checks if all elements of a collection match a predicate. Inside a lambda, this becomes a {@code NOT EXISTS} condition on the elements which do not match.
+	 *
+	 * @param values    The collection.
+	 * @param predicate The predicate to test the elements with.
+	 * @param <T>       The type of the elements.
+	 * @return {@code True} if all elements match the predicate or the collection is empty, otherwise {@code false}.
+	 * @see #anyMatch(Collection, SqlPredicate)
+	 */
+	public static <T> boolean allMatch(Collection<? extends T> values, SqlPredicate<? super T> predicate) {
+		for (var element : values) {
+			if (!predicate.test(element)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Checks if no element of a collection matches a predicate. Inside a lambda, this becomes a {@code NOT EXISTS} condition.
+	 *
+	 * @param values    The collection.
+	 * @param predicate The predicate to test the elements with.
+	 * @param <T>       The type of the elements.
+	 * @return {@code True} if no element matches the predicate, otherwise {@code false}.
+	 * @see #anyMatch(Collection, SqlPredicate)
+	 */
+	public static <T> boolean noneMatch(Collection<? extends T> values, SqlPredicate<? super T> predicate) {
+		return !anyMatch(values, predicate);
+	}
 }
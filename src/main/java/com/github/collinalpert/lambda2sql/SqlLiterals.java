@@ -0,0 +1,224 @@
+package com.github.collinalpert.lambda2sql;
+
+import java.lang.reflect.Array;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.Temporal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Converts Java values to SQL literals or to placeholders of a prepared statement.
+ *
+ * @author Collin Alpert
+ */
+final class SqlLiterals {
+
+	private SqlLiterals() {
+	}
+
+	/**
+	 * Appends a value in the way described by a {@link SqlTemplate.SlotKind}.
+	 *
+	 * @param sb         The {@link StringBuilder} to append to.
+	 * @param kind       The way the value is rendered. {@link SqlTemplate.SlotKind#TABLE} and {@link SqlTemplate.SlotKind#IN_LIST} are not supported.
+	 * @param value      The value to append.
+	 * @param type       The declared type of the value.
+	 * @param dialect    The {@link SqlDialect} which writes the value if it is rendered as a literal.
+	 * @param parameters The parameters of a prepared statement. If this is not {@code null}, placeholders are appended
+	 *                   and the values are added to this list instead.
+	 * @return The {@link StringBuilder} with the value appended.
+	 */
+	static StringBuilder appendValue(StringBuilder sb, SqlTemplate.SlotKind kind, Object value, Class<?> type, SqlDialect dialect, List<SqlParameter> parameters) {
+		switch (kind) {
+			case LIKE_PREFIX:
+			case LIKE_SUFFIX:
+			case LIKE_CONTAINS:
+				if (value != null) {
+					value = likePattern(kind, value.toString());
+				}
+
+				type = String.class;
+				break;
+			case YEAR_START:
+			case YEAR_END:
+			case MONTH_START:
+			case MONTH_END:
+				type = type == LocalDateTime.class ? LocalDateTime.class : LocalDate.class;
+				if (value != null) {
+					value = dateBoundary(kind, value, type);
+				}
+
+				break;
+			default:
+				break;
+		}
+
+		if (parameters == null) {
+			return appendLiteral(sb, value, dialect);
+		}
+
+		parameters.add(new SqlParameter(value, type));
+		return sb.append('?');
+	}
+
+	/**
+	 * Appends a value as an SQL literal.
+	 * Strings and dates are quoted, {@code null} becomes {@code NULL}.
+	 *
+	 * @param sb      The {@link StringBuilder} to append to.
+	 * @param value   The value to convert.
+	 * @param dialect The {@link SqlDialect} which quotes and escapes strings.
+	 * @return The {@link StringBuilder} with the literal appended.
+	 */
+	static StringBuilder appendLiteral(StringBuilder sb, Object value, SqlDialect dialect) {
+		if (value == null) {
+			return sb.append("NULL");
+		}
+
+		if (value instanceof String || value instanceof Temporal) {
+			return dialect.appendStringLiteral(sb, value.toString());
+		}
+
+		return sb.append(value.toString());
+	}
+
+	/**
+	 * Appends the membership of an operand in a collection or an array, e.g. {@code `person`.`id` IN (1, 2, 3)}.
+	 * The elements of primitive {@code int} and {@code long} arrays are written without boxing them.
+	 * The membership in an empty collection or array becomes {@code 1 = 0}, and its negation {@code 1 = 1}.
+	 *
+	 * @param sb                The {@link StringBuilder} to append to.
+	 * @param operand           The rendered operand, e.g. a column.
+	 * @param operandParameters The parameters of the placeholders in the operand, which are repeated whenever the operand is. Can be {@code null}.
+	 * @param values            The {@link Collection} or array the operand is looked up in.
+	 * @param isNegated         Specifies if the membership is negated, i.e. {@code NOT IN}.
+	 * @param strategy          The {@link InListStrategy} which decides how the elements are rendered.
+	 *                          An array parameter is only bound if the dialect supports it, otherwise an {@code IN} list is rendered.
+	 * @param dialect           The {@link SqlDialect} which writes the elements if they are rendered as literals.
+	 * @param parameters        The parameters of a prepared statement. If this is not {@code null}, placeholders are appended
+	 *                          and the elements are added to this list instead.
+	 * @return The {@link StringBuilder} with the membership appended.
+	 */
+	static StringBuilder appendMembership(StringBuilder sb, CharSequence operand, List<SqlParameter> operandParameters, Object values, boolean isNegated, InListStrategy strategy, SqlDialect dialect, List<SqlParameter> parameters) {
+		Objects.requireNonNull(values, "Cannot check the membership in a null collection.");
+		if (parameters != null && strategy.isArray() && dialect.supportsArrayParameters()) {
+			appendOperand(sb, operand, operandParameters, parameters).append(isNegated ? " <> ALL(?)" : " = ANY(?)");
+			var array = values instanceof Collection ? ((Collection<?>) values).toArray() : values;
+			parameters.add(new SqlParameter(array, array.getClass()));
+			return sb;
+		}
+
+		var iterator = values instanceof Collection ? ((Collection<?>) values).iterator() : null;
+		var size = iterator == null ? Array.getLength(values) : ((Collection<?>) values).size();
+		if (size == 0) {
+			// An empty IN list is not valid SQL, so the membership is written as the constant it evaluates to.
+			return sb.append(isNegated ? "1 = 1" : "1 = 0");
+		}
+
+		var paddedSize = parameters != null && strategy.isPadded() && size > 1 ? Integer.highestOneBit(size - 1) << 1 : size;
+
+		var maxElements = strategy.getMaxElements();
+		var isChunked = paddedSize > maxElements;
+		if (isChunked) {
+			sb.append('(');
+		}
+
+		Object element = null;
+		var index = 0;
+		do {
+			if (index > 0) {
+				sb.append(isNegated ? " AND " : " OR ");
+			}
+
+			appendOperand(sb, operand, operandParameters, parameters).append(isNegated ? " NOT IN (" : " IN (");
+			var end = Math.min(index + maxElements, paddedSize);
+			for (var first = index; index < end; index++) {
+				if (index > first) {
+					sb.append(", ");
+				}
+
+				if (index >= size) {
+					parameters.add(new SqlParameter(element, Object.class));
+					sb.append('?');
+				} else if (parameters == null && values instanceof int[]) {
+					sb.append(((int[]) values)[index]);
+				} else if (parameters == null && values instanceof long[]) {
+					sb.append(((long[]) values)[index]);
+				} else {
+					element = iterator == null ? Array.get(values, index) : iterator.next();
+					if (parameters == null) {
+						appendLiteral(sb, element, dialect);
+					} else {
+						parameters.add(new SqlParameter(element, Object.class));
+						sb.append('?');
+					}
+				}
+			}
+
+			sb.append(')');
+		} while (index < paddedSize);
+
+		return isChunked ? sb.append(')') : sb;
+	}
+
+	private static StringBuilder appendOperand(StringBuilder sb, CharSequence operand, List<SqlParameter> operandParameters, List<SqlParameter> parameters) {
+		if (parameters != null && operandParameters != null) {
+			parameters.addAll(operandParameters);
+		}
+
+		return sb.append(operand);
+	}
+
+	/**
+	 * Creates the value of a slot which {@link SqlTemplate.SlotKind#hasTwoArguments() has two arguments}.
+	 *
+	 * @param year  The year.
+	 * @param month The month of the year, from 1 to 12.
+	 * @return The {@link YearMonth} of the arguments.
+	 */
+	static YearMonth yearMonth(Object year, Object month) {
+		return YearMonth.of(((Number) year).intValue(), ((Number) month).intValue());
+	}
+
+	/**
+	 * Computes the boundary of a date range.
+	 *
+	 * @param kind  The kind of boundary.
+	 * @param value A year for year boundaries or a {@link YearMonth} for month boundaries.
+	 * @param type  Either {@link LocalDate} or {@link LocalDateTime}, the type of the column which is compared to the boundary.
+	 * @return The first day of the range, or of the range after it.
+	 */
+	private static Temporal dateBoundary(SqlTemplate.SlotKind kind, Object value, Class<?> type) {
+		LocalDate date;
+		switch (kind) {
+			case YEAR_START:
+				date = LocalDate.of(((Number) value).intValue(), 1, 1);
+				break;
+			case YEAR_END:
+				date = LocalDate.of(((Number) value).intValue() + 1, 1, 1);
+				break;
+			case MONTH_START:
+				date = ((YearMonth) value).atDay(1);
+				break;
+			default:
+				date = ((YearMonth) value).plusMonths(1).atDay(1);
+				break;
+		}
+
+		return type == LocalDateTime.class ? date.atStartOfDay() : date;
+	}
+
+	private static String likePattern(SqlTemplate.SlotKind kind, String value) {
+		switch (kind) {
+			case LIKE_PREFIX:
+				return value + '%';
+			case LIKE_SUFFIX:
+				return '%' + value;
+			default:
+				return '%' + value + '%';
+		}
+	}
+}
@@ -0,0 +1,229 @@
+package com.github.collinalpert.lambda2sql;
+
+import com.github.collinalpert.expressions.expression.Expression;
+import com.github.collinalpert.expressions.expression.ExpressionType;
+import com.github.collinalpert.lambda2sql.functions.SqlPredicate;
+
+import java.lang.reflect.Member;
+import java.time.*;
+import java.time.chrono.*;
+import java.time.temporal.ChronoField;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * The Java methods which can be used inside lambda expressions, together with their translation to SQL.
+ * A registry is immutable and can therefore be shared by all {@link SqlVisitor}s.
+ * Registering a method creates a new registry which replaces the current one.
+ *
+ * @author Collin Alpert
+ */
+final class SqlMethodRegistry {
+
+	private static volatile SqlMethodRegistry current = new SqlMethodRegistry(createDefaultTranslators(), false);
+
+	private final Map<Member, SqlMethodTranslator> translators;
+	private final boolean isCustomized;
+
+	private SqlMethodRegistry(Map<Member, SqlMethodTranslator> translators, boolean isCustomized) {
+		this.translators = Map.copyOf(translators);
+		this.isCustomized = isCustomized;
+	}
+
+	/**
+	 * @return the registry containing the built-in and all registered methods.
+	 */
+	static SqlMethodRegistry current() {
+		return current;
+	}
+
+	/**
+	 * Adds a translator for a method to the current registry. An existing translator for the same method is replaced.
+	 *
+	 * @param member     The method to translate.
+	 * @param translator The translator for the method.
+	 */
+	static synchronized void register(Member member, SqlMethodTranslator translator) {
+		var translators = new HashMap<>(current.translators);
+		translators.put(member, translator);
+		current = new SqlMethodRegistry(translators, true);
+	}
+
+	/**
+	 * @return {@code True} if methods were registered in addition to the built-in ones, so templates precompiled at build time may contain outdated translations, otherwise {@code false}.
+	 */
+	boolean isCustomized() {
+		return isCustomized;
+	}
+
+	/**
+	 * @param member The method which is invoked.
+	 * @return The translator for the method or {@code null}, if the method has no special translation.
+	 */
+	SqlMethodTranslator get(Member member) {
+		return translators.get(member);
+	}
+
+	private static Map<Member, SqlMethodTranslator> createDefaultTranslators() {
+		var translators = new HashMap<Member, SqlMethodTranslator>(64, 1);
+
+		try {
+			translators.put(String.class.getDeclaredMethod("equals", Object.class), operator(ExpressionType.Equal));
+			translators.put(Object.class.getDeclaredMethod("equals", Object.class), operator(ExpressionType.Equal));
+			translators.put(LocalDate.class.getDeclaredMethod("isAfter", ChronoLocalDate.class), operator(ExpressionType.GreaterThan));
+			translators.put(LocalTime.class.getDeclaredMethod("isAfter", LocalTime.class), operator(ExpressionType.GreaterThan));
+			translators.put(LocalDateTime.class.getDeclaredMethod("isAfter", ChronoLocalDateTime.class), operator(ExpressionType.GreaterThan));
+			translators.put(LocalDate.class.getDeclaredMethod("isBefore", ChronoLocalDate.class), operator(ExpressionType.LessThan));
+			translators.put(LocalTime.class.getDeclaredMethod("isBefore", LocalTime.class), operator(ExpressionType.LessThan));
+			translators.put(LocalDateTime.class.getDeclaredMethod("isBefore", ChronoLocalDateTime.class), operator(ExpressionType.LessThan));
+
+			translators.put(SqlFunctions.class.getDeclaredMethod("sum", Object.class), staticSqlFunction("SUM"));
+			translators.put(SqlFunctions.class.getDeclaredMethod("min", Object.class), staticSqlFunction("MIN"));
+			translators.put(SqlFunctions.class.getDeclaredMethod("max", Object.class), staticSqlFunction("MAX"));
+			translators.put(SqlFunctions.class.getDeclaredMethod("avg", Object.class), staticSqlFunction("AVG"));
+			translators.put(SqlFunctions.class.getDeclaredMethod("count", Object.class), staticSqlFunction("COUNT"));
+			translators.put(SqlFunctions.class.getDeclaredMethod("count"), (visitor, instance, arguments, isNegated) -> visitor.getBuffer().append("COUNT(*)"));
+			translators.put(SqlFunctions.class.getDeclaredMethod("countDistinct", Object.class), SqlMethodRegistry::countDistinct);
+
+			translators.put(String.class.getDeclaredMethod("startsWith", String.class), (visitor, string, arguments, isNegated) -> visitor.doStringOperation(string, arguments.get(0), isNegated, SqlTemplate.SlotKind.LIKE_PREFIX));
+			translators.put(String.class.getDeclaredMethod("endsWith", String.class), (visitor, string, arguments, isNegated) -> visitor.doStringOperation(string, arguments.get(0), isNegated, SqlTemplate.SlotKind.LIKE_SUFFIX));
+			translators.put(String.class.getDeclaredMethod("contains", CharSequence.class), (visitor, string, arguments, isNegated) -> visitor.doStringOperation(string, arguments.get(0), isNegated, SqlTemplate.SlotKind.LIKE_CONTAINS));
+			translators.put(String.class.getDeclaredMethod("length"), sqlFunction("LENGTH"));
+
+			translators.put(Collection.class.getDeclaredMethod("contains", Object.class), SqlMethodRegistry::listContains);
+			translators.put(List.class.getDeclaredMethod("contains", Object.class), SqlMethodRegistry::listContains);
+			translators.put(ArrayList.class.getDeclaredMethod("contains", Object.class), SqlMethodRegistry::listContains);
+			translators.put(LinkedList.class.getDeclaredMethod("contains", Object.class), SqlMethodRegistry::listContains);
+			translators.put(Set.class.getDeclaredMethod("contains", Object.class), SqlMethodRegistry::listContains);
+			translators.put(HashSet.class.getDeclaredMethod("contains", Object.class), SqlMethodRegistry::listContains);
+			translators.put(TreeSet.class.getDeclaredMethod("contains", Object.class), SqlMethodRegistry::listContains);
+			translators.put(SqlFunctions.class.getDeclaredMethod("between", LocalDate.class, LocalDate.class, LocalDate.class), SqlMethodRegistry::between);
+			translators.put(SqlFunctions.class.getDeclaredMethod("between", LocalDateTime.class, LocalDateTime.class, LocalDateTime.class), SqlMethodRegistry::between);
+			translators.put(SqlFunctions.class.getDeclaredMethod("startsWithIgnoreCase", String.class, String.class), (visitor, instance, arguments, isNegated) -> visitor.doStringOperation(arguments.get(0), arguments.get(1), isNegated, SqlTemplate.SlotKind.LIKE_PREFIX, true));
+			translators.put(SqlFunctions.class.getDeclaredMethod("endsWithIgnoreCase", String.class, String.class), (visitor, instance, arguments, isNegated) -> visitor.doStringOperation(arguments.get(0), arguments.get(1), isNegated, SqlTemplate.SlotKind.LIKE_SUFFIX, true));
+			translators.put(SqlFunctions.class.getDeclaredMethod("containsIgnoreCase", String.class, String.class), (visitor, instance, arguments, isNegated) -> visitor.doStringOperation(arguments.get(0), arguments.get(1), isNegated, SqlTemplate.SlotKind.LIKE_CONTAINS, true));
+			translators.put(SqlFunctions.class.getDeclaredMethod("in", int.class, int[].class), SqlMethodRegistry::arrayContains);
+			translators.put(SqlFunctions.class.getDeclaredMethod("in", long.class, long[].class), SqlMethodRegistry::arrayContains);
+			translators.put(SqlFunctions.class.getDeclaredMethod("in", Object.class, Object[].class), SqlMethodRegistry::arrayContains);
+			translators.put(SqlFunctions.class.getDeclaredMethod("anyMatch", Collection.class, SqlPredicate.class), collectionMatch(true, false));
+			translators.put(SqlFunctions.class.getDeclaredMethod("allMatch", Collection.class, SqlPredicate.class), collectionMatch(false, true));
+			translators.put(SqlFunctions.class.getDeclaredMethod("noneMatch", Collection.class, SqlPredicate.class), collectionMatch(false, false));
+			translators.put(Stream.class.getDeclaredMethod("anyMatch", Predicate.class), streamMatch(true, false));
+			translators.put(Stream.class.getDeclaredMethod("allMatch", Predicate.class), streamMatch(false, true));
+			translators.put(Stream.class.getDeclaredMethod("noneMatch", Predicate.class), streamMatch(false, false));
+
+			translators.put(LocalTime.class.getDeclaredMethod("getSecond"), datePart(ChronoField.SECOND_OF_MINUTE));
+			translators.put(LocalDateTime.class.getDeclaredMethod("getSecond"), datePart(ChronoField.SECOND_OF_MINUTE));
+			translators.put(LocalTime.class.getDeclaredMethod("getMinute"), datePart(ChronoField.MINUTE_OF_HOUR));
+			translators.put(LocalDateTime.class.getDeclaredMethod("getMinute"), datePart(ChronoField.MINUTE_OF_HOUR));
+			translators.put(LocalTime.class.getDeclaredMethod("getHour"), datePart(ChronoField.HOUR_OF_DAY));
+			translators.put(LocalDateTime.class.getDeclaredMethod("getHour"), datePart(ChronoField.HOUR_OF_DAY));
+			translators.put(LocalDate.class.getDeclaredMethod("getDayOfWeek"), datePart(ChronoField.DAY_OF_WEEK));
+			translators.put(LocalDateTime.class.getDeclaredMethod("getDayOfWeek"), datePart(ChronoField.DAY_OF_WEEK));
+			translators.put(LocalDate.class.getDeclaredMethod("getDayOfMonth"), datePart(ChronoField.DAY_OF_MONTH));
+			translators.put(LocalDateTime.class.getDeclaredMethod("getDayOfMonth"), datePart(ChronoField.DAY_OF_MONTH));
+			translators.put(LocalDate.class.getDeclaredMethod("getDayOfYear"), datePart(ChronoField.DAY_OF_YEAR));
+			translators.put(LocalDateTime.class.getDeclaredMethod("getDayOfYear"), datePart(ChronoField.DAY_OF_YEAR));
+			translators.put(LocalDate.class.getDeclaredMethod("getMonthValue"), datePart(ChronoField.MONTH_OF_YEAR));
+			translators.put(LocalDateTime.class.getDeclaredMethod("getMonthValue"), datePart(ChronoField.MONTH_OF_YEAR));
+			translators.put(LocalDate.class.getDeclaredMethod("getYear"), datePart(ChronoField.YEAR));
+			translators.put(LocalDateTime.class.getDeclaredMethod("getYear"), datePart(ChronoField.YEAR));
+		} catch (NoSuchMethodException e) {
+			e.printStackTrace();
+		}
+
+		return translators;
+	}
+
+	/**
+	 * Creates a translator for a method which is equivalent to a Java operator, e.g. {@code equals} or {@code isAfter}.
+	 *
+	 * @param expressionType The {@link ExpressionType} of the operator.
+	 * @return The translator for the method.
+	 */
+	private static SqlMethodTranslator operator(int expressionType) {
+		return (visitor, instance, arguments, isNegated) -> {
+			Expression expression = Expression.binary(expressionType, instance, arguments.get(0));
+			if (isNegated) {
+				expression = Expression.logicalNot(expression);
+			}
+
+			return expression.accept(visitor);
+		};
+	}
+
+	/**
+	 * Creates a translator which applies an SQL function to the instance of a method.
+	 * For example, {@code person.getName().length()} becomes {@code LENGTH(name)}.
+	 *
+	 * @param functionName The name of the SQL function.
+	 * @return The translator for the method.
+	 */
+	private static SqlMethodTranslator sqlFunction(String functionName) {
+		return (visitor, instance, arguments, isNegated) -> visitor.applySqlFunction(instance, functionName);
+	}
+
+	/**
+	 * Creates a translator which extracts a part of the date or time a method is invoked on, using the function of the dialect.
+	 * For example, {@code person.getDate().getYear()} becomes {@code YEAR(date)} for MySQL.
+	 *
+	 * @param field The part which is extracted.
+	 * @return The translator for the method.
+	 */
+	private static SqlMethodTranslator datePart(ChronoField field) {
+		return (visitor, instance, arguments, isNegated) -> visitor.applyDatePart(instance, field);
+	}
+
+	/**
+	 * Creates a translator which applies an SQL function to the first argument of a static method.
+	 * For example, {@code SqlFunctions.sum(person.getAge())} becomes {@code SUM(age)}.
+	 *
+	 * @param functionName The name of the SQL function.
+	 * @return The translator for the method.
+	 */
+	private static SqlMethodTranslator staticSqlFunction(String functionName) {
+		return (visitor, instance, arguments, isNegated) -> visitor.applySqlFunction(arguments.get(0), functionName);
+	}
+
+	/**
+	 * Creates a translator which matches a related collection with a predicate, e.g. {@code SqlFunctions.anyMatch(person.getOrders(), bigOrder)}.
+	 *
+	 * @param exists             Specifies if a related row which matches must exist. Otherwise, it must not exist.
+	 * @param isConditionNegated Specifies if the related rows are tested with the negation of the predicate.
+	 * @return The translator for the method.
+	 */
+	private static SqlMethodTranslator collectionMatch(boolean exists, boolean isConditionNegated) {
+		return (visitor, instance, arguments, isNegated) -> visitor.matchCollection(arguments.get(0), arguments.get(1), exists != isNegated, isConditionNegated);
+	}
+
+	/**
+	 * Creates a translator which matches the stream of a related collection with a predicate, e.g. {@code person.getOrders().stream().anyMatch(bigOrder)}.
+	 *
+	 * @param exists             Specifies if a related row which matches must exist. Otherwise, it must not exist.
+	 * @param isConditionNegated Specifies if the related rows are tested with the negation of the predicate.
+	 * @return The translator for the method.
+	 */
+	private static SqlMethodTranslator streamMatch(boolean exists, boolean isConditionNegated) {
+		return (visitor, stream, arguments, isNegated) -> visitor.matchCollection(stream, arguments.get(0), exists != isNegated, isConditionNegated);
+	}
+
+	private static StringBuilder countDistinct(SqlVisitor visitor, Expression instance, List<Expression> arguments, boolean isNegated) {
+		visitor.getBuffer().append("COUNT(DISTINCT ");
+		return arguments.get(0).accept(visitor).append(')');
+	}
+
+	private static StringBuilder listContains(SqlVisitor visitor, Expression list, List<Expression> arguments, boolean isNegated) {
+		return visitor.listContains(list, arguments.get(0), isNegated);
+	}
+
+	private static StringBuilder between(SqlVisitor visitor, Expression instance, List<Expression> arguments, boolean isNegated) {
+		arguments.get(0).accept(visitor).append(isNegated ? " NOT BETWEEN " : " BETWEEN ");
+		arguments.get(1).accept(visitor).append(" AND ");
+		return arguments.get(2).accept(visitor);
+	}
+
+	private static StringBuilder arrayContains(SqlVisitor visitor, Expression instance, List<Expression> arguments, boolean isNegated) {
+		return visitor.listContains(arguments.get(1), arguments.get(0), isNegated);
+	}
+}
@@ -0,0 +1,37 @@
+package com.github.collinalpert.lambda2sql;
+
+import com.github.collinalpert.expressions.expression.Expression;
+
+import java.util.List;
+
+/**
+ * Translates the invocation of a Java method inside a lambda expression to SQL.
+ * Custom translators can be registered using {@link Lambda2Sql#registerMethod(java.lang.reflect.Method, SqlMethodTranslator)}.
+ * <p>
+ * A translator writes its SQL to the buffer of the {@link SqlVisitor}, which is obtained using {@link SqlVisitor#getBuffer()}.
+ * Sub-expressions such as the instance or the arguments are rendered into the same buffer by passing the visitor to their
+ * {@link Expression#accept} method. For example, a translator for {@link String#equalsIgnoreCase(String)} could look like this:
+ * <pre>{@code
+ * (visitor, instance, arguments, isNegated) -> {
+ *     visitor.getBuffer().append("LOWER(");
+ *     instance.accept(visitor).append(isNegated ? ") != LOWER(" : ") = LOWER(");
+ *     return arguments.get(0).accept(visitor).append(')');
+ * }
+ * }</pre>
+ *
+ * @author Collin Alpert
+ */
+@FunctionalInterface
+public interface SqlMethodTranslator {
+
+	/**
+	 * Translates a method invocation.
+	 *
+	 * @param visitor   The visitor which converts the lambda expression.
+	 * @param instance  The expression the method is invoked on, or {@code null} if the method is static.
+	 * @param arguments The arguments passed to the method.
+	 * @param isNegated Specifies if the result of the method is negated using {@code !}.
+	 * @return The buffer of the visitor, containing the SQL of the method invocation.
+	 */
+	StringBuilder translate(SqlVisitor visitor, Expression instance, List<Expression> arguments, boolean isNegated);
+}
@@ -0,0 +1,274 @@
+package com.github.collinalpert.lambda2sql;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * Immutable settings which control how a lambda is converted to SQL.
+ * Every {@code with} method returns a new instance, so options can be shared freely between threads.
+ * <pre>{@code
+ * SqlPredicate<Person> predicate = person -> person.getLastName() == "Smith";
+ * Lambda2Sql.toSql(predicate, "person", SqlOptions.DEFAULT.withNamingStrategy(NamingStrategy.SNAKE_CASE));
+ * }</pre>
+ * Becomes:
+ * <pre>{@code "`person`.`last_name` = 'Smith'" }</pre>
+ *
+ * @author Collin Alpert
+ */
+public final class SqlOptions {
+
+	/**
+	 * The options used when no options are specified: the SQL is written for {@link SqlDialect#MYSQL}, identifiers are escaped with backticks,
+	 * columns are named by {@link NamingStrategy#DEFAULT} and memberships are rendered by {@link InListStrategy#EXPAND}. Conditions are neither simplified nor rewritten and no {@link Relationships} are navigated.
+	 */
+	public static final SqlOptions DEFAULT = new SqlOptions(true, NamingStrategy.DEFAULT, InListStrategy.EXPAND, false, false, SqlDialect.MYSQL, Relationships.NONE);
+
+	private final boolean withBackticks;
+	private final NamingStrategy namingStrategy;
+	private final InListStrategy inListStrategy;
+	private final boolean isSimplifying;
+	private final boolean isRewritingDateRanges;
+	private final SqlDialect dialect;
+	private final Relationships relationships;
+
+	/**
+	 * The key of these options in the {@link TranslationCache}, created when it is first needed.
+	 */
+	private List<Object> cacheKey;
+
+	private SqlOptions(boolean withBackticks, NamingStrategy namingStrategy, InListStrategy inListStrategy, boolean isSimplifying, boolean isRewritingDateRanges, SqlDialect dialect, Relationships relationships) {
+		this.withBackticks = withBackticks;
+		this.namingStrategy = namingStrategy;
+		this.inListStrategy = inListStrategy;
+		this.isSimplifying = isSimplifying;
+		this.isRewritingDateRanges = isRewritingDateRanges;
+		this.dialect = dialect;
+		this.relationships = relationships;
+	}
+
+	/**
+	 * @param withBackticks Specifies if the table and the column names should be escaped with the identifier quotes of the dialect, e.g. backticks for MySQL.
+	 * @return options which only differ from these in the escaping of identifiers.
+	 */
+	public SqlOptions withBackticks(boolean withBackticks) {
+		if (withBackticks == this.withBackticks) {
+			return this;
+		}
+
+		return new SqlOptions(withBackticks, this.namingStrategy, this.inListStrategy, this.isSimplifying, this.isRewritingDateRanges, this.dialect, this.relationships);
+	}
+
+	/**
+	 * @param namingStrategy The {@link NamingStrategy} which derives column names from getters.
+	 * @return options which only differ from these in the naming strategy.
+	 */
+	public SqlOptions withNamingStrategy(NamingStrategy namingStrategy) {
+		Objects.requireNonNull(namingStrategy);
+		if (namingStrategy == this.namingStrategy) {
+			return this;
+		}
+
+		return new SqlOptions(this.withBackticks, namingStrategy, this.inListStrategy, this.isSimplifying, this.isRewritingDateRanges, this.dialect, this.relationships);
+	}
+
+	/**
+	 * @param inListStrategy The {@link InListStrategy} which renders the membership of a column in a captured collection or array.
+	 * @return options which only differ from these in the rendering of memberships.
+	 */
+	public SqlOptions withInListStrategy(InListStrategy inListStrategy) {
+		Objects.requireNonNull(inListStrategy);
+		if (inListStrategy.equals(this.inListStrategy)) {
+			return this;
+		}
+
+		return new SqlOptions(this.withBackticks, this.namingStrategy, inListStrategy, this.isSimplifying, this.isRewritingDateRanges, this.dialect, this.relationships);
+	}
+
+	/**
+	 * Simplifies the logical structure of a condition before it is written, which is most useful for predicates composed with {@code and} and {@code or}.
+	 * Constant {@code true} and {@code false} terms are folded, nested {@code AND} and {@code OR} chains are flattened,
+	 * duplicate terms and double negations are removed, and parentheses are only written where the precedence of the operators requires them.
+	 * For example, {@code isAdult.and(x -> true).and(isAdult)} becomes {@code `person`.`isAdult`} instead of {@code `person`.`isAdult` AND true AND `person`.`isAdult`}.
+	 *
+	 * @param isSimplifying Specifies if conditions should be simplified.
+	 * @return options which only differ from these in the simplification of conditions.
+	 */
+	public SqlOptions withSimplification(boolean isSimplifying) {
+		if (isSimplifying == this.isSimplifying) {
+			return this;
+		}
+
+		return new SqlOptions(this.withBackticks, this.namingStrategy, this.inListStrategy, isSimplifying, this.isRewritingDateRanges, this.dialect, this.relationships);
+	}
+
+	/**
+	 * Rewrites comparisons of date parts into ranges on the date column itself, so the database can use an index on the column.
+	 * For example, {@code person.getDate().getYear() == 2020} becomes {@code `person`.`date` >= '2020-01-01' AND `person`.`date` < '2021-01-01'}
+	 * instead of {@code YEAR(`person`.`date`) = 2020}. Comparisons of the year with any operator are rewritten, and so is a year which is
+	 * compared for equality together with the month, e.g. {@code date.getYear() == year && date.getMonthValue() == month}, which becomes the range of that month.
+	 *
+	 * @param isRewritingDateRanges Specifies if comparisons of date parts should be rewritten.
+	 * @return options which only differ from these in the rewriting of date parts.
+	 */
+	public SqlOptions withDateRangeRewrite(boolean isRewritingDateRanges) {
+		if (isRewritingDateRanges == this.isRewritingDateRanges) {
+			return this;
+		}
+
+		return new SqlOptions(this.withBackticks, this.namingStrategy, this.inListStrategy, this.isSimplifying, isRewritingDateRanges, this.dialect, this.relationships);
+	}
+
+	/**
+	 * @param dialect The {@link SqlDialect} of the database the SQL is written for.
+	 * @return options which only differ from these in the dialect.
+	 */
+	public SqlOptions withDialect(SqlDialect dialect) {
+		Objects.requireNonNull(dialect);
+		if (dialect == this.dialect) {
+			return this;
+		}
+
+		return new SqlOptions(this.withBackticks, this.namingStrategy, this.inListStrategy, this.isSimplifying, this.isRewritingDateRanges, dialect, this.relationships);
+	}
+
+	/**
+	 * Navigates the relationships between tables which are mapped onto getters. Columns of a related object become correlated subqueries
+	 * and matching a related collection becomes an {@code EXISTS} condition. A table name must be specified to navigate relationships.
+	 *
+	 * @param relationships The {@link Relationships} which map getters onto the tables of related rows.
+	 * @return options which only differ from these in the relationships.
+	 */
+	public SqlOptions withRelationships(Relationships relationships) {
+		Objects.requireNonNull(relationships);
+		if (relationships.equals(this.relationships)) {
+			return this;
+		}
+
+		return new SqlOptions(this.withBackticks, this.namingStrategy, this.inListStrategy, this.isSimplifying, this.isRewritingDateRanges, this.dialect, relationships);
+	}
+
+	/**
+	 * @return {@code true} if the table and the column names are escaped with the identifier quotes of the dialect.
+	 */
+	public boolean hasBackticks() {
+		return withBackticks;
+	}
+
+	/**
+	 * @return the {@link NamingStrategy} which derives column names from getters.
+	 */
+	public NamingStrategy getNamingStrategy() {
+		return namingStrategy;
+	}
+
+	/**
+	 * @return the {@link InListStrategy} which renders the membership of a column in a captured collection or array.
+	 */
+	public InListStrategy getInListStrategy() {
+		return inListStrategy;
+	}
+
+	/**
+	 * @return {@code true} if the logical structure of conditions is simplified.
+	 * @see #withSimplification(boolean)
+	 */
+	public boolean isSimplifying() {
+		return isSimplifying;
+	}
+
+	/**
+	 * @return {@code true} if comparisons of date parts are rewritten into ranges on the date column.
+	 * @see #withDateRangeRewrite(boolean)
+	 */
+	public boolean isRewritingDateRanges() {
+		return isRewritingDateRanges;
+	}
+
+	/**
+	 * @return the {@link SqlDialect} of the database the SQL is written for.
+	 */
+	public SqlDialect getDialect() {
+		return dialect;
+	}
+
+	/**
+	 * @return the {@link Relationships} which map getters onto the tables of related rows.
+	 * @see #withRelationships(Relationships)
+	 */
+	public Relationships getRelationships() {
+		return relationships;
+	}
+
+	/**
+	 * @return {@code true} if these options only differ from {@link #DEFAULT} in the escaping of identifiers.
+	 */
+	boolean isDefaultExceptBackticks() {
+		return namingStrategy.equals(DEFAULT.namingStrategy) && inListStrategy.equals(DEFAULT.inListStrategy) && !isSimplifying && !isRewritingDateRanges && dialect.equals(DEFAULT.dialect) && relationships.isEmpty();
+	}
+
+	/**
+	 * Identifies these options in the {@link TranslationCache}. Unlike the options themselves, the key does not reference a naming strategy or a dialect
+	 * which an application defines, so a cached template does not keep the class loader of the application alive.
+	 *
+	 * @return a key which equals the key of equal options.
+	 */
+	Object getCacheKey() {
+		var key = this.cacheKey;
+		if (key == null) {
+			key = List.of(withBackticks, CacheIdentity.of(namingStrategy), inListStrategy, isSimplifying, isRewritingDateRanges, CacheIdentity.of(dialect), relationships);
+			this.cacheKey = key;
+		}
+
+		return key;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+
+		if (!(o instanceof SqlOptions)) {
+			return false;
+		}
+
+		var other = (SqlOptions) o;
+		return withBackticks == other.withBackticks && namingStrategy.equals(other.namingStrategy) && inListStrategy.equals(other.inListStrategy) && isSimplifying == other.isSimplifying && isRewritingDateRanges == other.isRewritingDateRanges && dialect.equals(other.dialect) && relationships.equals(other.relationships);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(withBackticks, namingStrategy, inListStrategy, isSimplifying, isRewritingDateRanges, dialect, relationships);
+	}
+
+	@Override
+	public String toString() {
+		return "SqlOptions{withBackticks=" + withBackticks + ", namingStrategy=" + namingStrategy + ", inListStrategy=" + inListStrategy + ", isSimplifying=" + isSimplifying + ", isRewritingDateRanges=" + isRewritingDateRanges + ", dialect=" + dialect + ", relationships=" + relationships + '}';
+	}
+
+	/**
+	 * Stands in for a naming strategy or a dialect in the key of cached options.
+	 */
+	private static final class CacheIdentity {
+
+		/**
+		 * The identities of the strategies and dialects defined outside of this library. The values do not reference their keys, so the strategies can still be garbage collected.
+		 */
+		private static final Map<Object, CacheIdentity> foreignIdentities = Collections.synchronizedMap(new WeakHashMap<>());
+
+		/**
+		 * @param option A naming strategy or a dialect.
+		 * @return the option itself if it is defined by this library, otherwise an identity which equals the identity of equal options.
+		 */
+		static Object of(Object option) {
+			if (option.getClass().getClassLoader() == SqlOptions.class.getClassLoader()) {
+				return option;
+			}
+
+			return foreignIdentities.computeIfAbsent(option, key -> new CacheIdentity());
+		}
+	}
+}
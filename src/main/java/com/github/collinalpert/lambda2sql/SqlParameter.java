@@ -0,0 +1,57 @@
+package com.github.collinalpert.lambda2sql;
+
+import java.util.Objects;
+
+/**
+ * A value which is bound to a placeholder of a {@link PreparedSql} statement.
+ *
+ * @author Collin Alpert
+ */
+public final class SqlParameter {
+
+	private final Object value;
+	private final Class<?> type;
+
+	SqlParameter(Object value, Class<?> type) {
+		this.value = value;
+		this.type = value == null ? type : value.getClass();
+	}
+
+	/**
+	 * @return the value to bind. Can be {@code null}.
+	 */
+	public Object getValue() {
+		return value;
+	}
+
+	/**
+	 * @return the Java type of the value. If the value is {@code null}, this is the declared type of the variable it came from.
+	 */
+	public Class<?> getType() {
+		return type;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+
+		if (!(o instanceof SqlParameter)) {
+			return false;
+		}
+
+		var other = (SqlParameter) o;
+		return Objects.equals(value, other.value) && Objects.equals(type, other.type);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(value, type);
+	}
+
+	@Override
+	public String toString() {
+		return String.valueOf(value);
+	}
+}
@@ -0,0 +1,497 @@
+package com.github.collinalpert.lambda2sql;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * A precompiled translation of a lambda shape.
+ * The SQL is stored as constant fragments with slots in between, which are filled with the table name
+ * or the captured arguments of a lambda when the template is rendered.
+ *
+ * @author Collin Alpert
+ */
+final class SqlTemplate {
+
+	/**
+	 * The maximum number of captured arguments whose nullness can be tracked by a template.
+	 */
+	static final int MAX_CAPTURED_ARGUMENTS = Long.SIZE;
+
+	private final String[] fragments;
+	private final Slot[] slots;
+
+	/**
+	 * Bit mask of the captured arguments whose nullness changed the structure of the SQL, e.g. {@code IS NULL}.
+	 */
+	private final long consultedMask;
+
+	/**
+	 * Bit mask of the captured arguments which were {@code null} when this template was compiled.
+	 */
+	private final long nullMask;
+
+	private SqlTemplate(String[] fragments, Slot[] slots, long consultedMask, long nullMask) {
+		this.fragments = fragments;
+		this.slots = slots;
+		this.consultedMask = consultedMask;
+		this.nullMask = nullMask;
+	}
+
+	/**
+	 * Checks if this template can be used to render a lambda with the given captured arguments.
+	 *
+	 * @param capturedArguments The captured arguments of the lambda.
+	 * @return {@code True} if every argument which influenced the structure of this template has the same nullness, otherwise {@code false}.
+	 */
+	boolean matches(Object[] capturedArguments) {
+		var remaining = consultedMask;
+		while (remaining != 0) {
+			var index = Long.numberOfTrailingZeros(remaining);
+			remaining &= remaining - 1;
+			if ((capturedArguments[index] == null) != ((nullMask & (1L << index)) != 0)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Checks if another template of the same lambda applies to the same captured arguments, e.g. when two threads compiled the same lambda at once.
+	 *
+	 * @param other A template of the same lambda shape.
+	 * @return {@code True} if both templates were compiled for the same nullness of the arguments which influence the structure of the SQL.
+	 */
+	boolean isSameVariant(SqlTemplate other) {
+		return consultedMask == other.consultedMask && nullMask == other.nullMask;
+	}
+
+	/**
+	 * Renders this template by filling its slots.
+	 *
+	 * @param capturedArguments The captured arguments of the lambda.
+	 * @param tableName         The table name the columns belong to.
+	 * @param options           The {@link SqlOptions} the template was compiled with, which specify how the table name and the values are written.
+	 * @param out               The {@link StringBuilder} to append the SQL to.
+	 * @param parameters        The parameters of a prepared statement, or {@code null} if values are rendered as literals.
+	 * @return The {@link StringBuilder} with the SQL appended.
+	 */
+	StringBuilder render(Object[] capturedArguments, String tableName, SqlOptions options, StringBuilder out, List<SqlParameter> parameters) {
+		for (int i = 0; i < slots.length; i++) {
+			out.append(fragments[i]);
+			slots[i].render(capturedArguments, tableName, options, out, parameters);
+		}
+
+		return out.append(fragments[slots.length]);
+	}
+
+	/**
+	 * Writes this template in the format of a {@link TemplateIndex}.
+	 *
+	 * @param out The output to write to.
+	 * @throws IOException If the output cannot be written.
+	 */
+	void writeTo(DataOutput out) throws IOException {
+		out.writeLong(consultedMask);
+		out.writeLong(nullMask);
+		out.writeShort(slots.length);
+		for (int i = 0; i < slots.length; i++) {
+			out.writeUTF(fragments[i]);
+			slots[i].writeTo(out);
+		}
+
+		out.writeUTF(fragments[slots.length]);
+	}
+
+	/**
+	 * Reads a template written by {@link #writeTo(DataOutput)}.
+	 *
+	 * @param in          The input to read from.
+	 * @param classLoader The class loader to resolve the types of the slots with.
+	 * @return The template.
+	 * @throws IOException If the input cannot be read.
+	 */
+	static SqlTemplate readFrom(DataInput in, ClassLoader classLoader) throws IOException {
+		var consultedMask = in.readLong();
+		var nullMask = in.readLong();
+		var slots = new Slot[in.readUnsignedShort()];
+		var fragments = new String[slots.length + 1];
+		for (int i = 0; i < slots.length; i++) {
+			fragments[i] = in.readUTF();
+			slots[i] = Slot.readFrom(in, classLoader);
+		}
+
+		fragments[slots.length] = in.readUTF();
+		return new SqlTemplate(fragments, slots, consultedMask, nullMask);
+	}
+
+	/**
+	 * The different ways a slot can be filled.
+	 */
+	enum SlotKind {
+		TABLE,
+		VALUE,
+		LIKE_PREFIX,
+		LIKE_SUFFIX,
+		LIKE_CONTAINS,
+
+		/**
+		 * The membership of an operand in a collection or an array, including the operand, which may be repeated when the elements are split into several lists.
+		 */
+		IN_LIST,
+
+		/**
+		 * The first day of the year given by the argument, as a date or a date-time depending on the type of the slot.
+		 */
+		YEAR_START,
+
+		/**
+		 * The first day of the year after the year given by the argument.
+		 */
+		YEAR_END,
+
+		/**
+		 * The first day of the month given by two arguments, the year and the month.
+		 */
+		MONTH_START,
+
+		/**
+		 * The first day of the month after the month given by two arguments, the year and the month.
+		 */
+		MONTH_END;
+
+		/**
+		 * @return {@code true} if slots of this kind are filled from two arguments.
+		 */
+		boolean hasTwoArguments() {
+			return this == MONTH_START || this == MONTH_END;
+		}
+	}
+
+	/**
+	 * A position in the SQL which is filled when the template is rendered.
+	 */
+	private static final class Slot {
+
+		private final SlotKind kind;
+		private final int argumentIndex;
+
+		/**
+		 * The index of the second argument of a slot whose kind {@link SlotKind#hasTwoArguments() has two arguments}, otherwise {@code -1}.
+		 */
+		private final int secondArgumentIndex;
+
+		/**
+		 * The declared type of the argument. It is referenced weakly, so a cached template does not keep the class loader of an application alive.
+		 */
+		private final WeakReference<Class<?>> type;
+
+		/**
+		 * The template of the operand of an {@link SlotKind#IN_LIST} slot.
+		 */
+		private final SqlTemplate operand;
+		private final boolean isNegated;
+		private final InListStrategy inListStrategy;
+
+		Slot(SlotKind kind, int argumentIndex, Class<?> type) {
+			this(kind, argumentIndex, -1, type, null, false, null);
+		}
+
+		Slot(SlotKind kind, int argumentIndex, int secondArgumentIndex, Class<?> type) {
+			this(kind, argumentIndex, secondArgumentIndex, type, null, false, null);
+		}
+
+		Slot(SlotKind kind, int argumentIndex, Class<?> type, SqlTemplate operand, boolean isNegated, InListStrategy inListStrategy) {
+			this(kind, argumentIndex, -1, type, operand, isNegated, inListStrategy);
+		}
+
+		private Slot(SlotKind kind, int argumentIndex, int secondArgumentIndex, Class<?> type, SqlTemplate operand, boolean isNegated, InListStrategy inListStrategy) {
+			this.kind = kind;
+			this.argumentIndex = argumentIndex;
+			this.secondArgumentIndex = secondArgumentIndex;
+			this.type = type == null ? null : new WeakReference<>(type);
+			this.operand = operand;
+			this.isNegated = isNegated;
+			this.inListStrategy = inListStrategy;
+		}
+
+		void render(Object[] capturedArguments, String tableName, SqlOptions options, StringBuilder out, List<SqlParameter> parameters) {
+			if (kind == SlotKind.TABLE) {
+				if (options.hasBackticks()) {
+					var quote = options.getDialect().getIdentifierQuote();
+					out.append(quote).append(tableName).append(quote);
+				} else {
+					out.append(tableName);
+				}
+
+				return;
+			}
+
+			if (kind == SlotKind.IN_LIST) {
+				var operandParameters = parameters == null ? null : new ArrayList<SqlParameter>(0);
+				var renderedOperand = operand.render(capturedArguments, tableName, options, new StringBuilder(), operandParameters);
+				SqlLiterals.appendMembership(out, renderedOperand, operandParameters, capturedArguments[argumentIndex], isNegated, inListStrategy, options.getDialect(), parameters);
+				return;
+			}
+
+			if (kind.hasTwoArguments()) {
+				var yearMonth = SqlLiterals.yearMonth(capturedArguments[argumentIndex], capturedArguments[secondArgumentIndex]);
+				SqlLiterals.appendValue(out, kind, yearMonth, type.get(), options.getDialect(), parameters);
+				return;
+			}
+
+			SqlLiterals.appendValue(out, kind, capturedArguments[argumentIndex], type.get(), options.getDialect(), parameters);
+		}
+
+		void writeTo(DataOutput out) throws IOException {
+			out.writeByte(kind.ordinal());
+			out.writeShort(argumentIndex);
+			var type = this.type == null ? null : this.type.get();
+			out.writeUTF(type == null ? "" : type.getName());
+			if (kind.hasTwoArguments()) {
+				out.writeShort(secondArgumentIndex);
+			}
+
+			if (kind == SlotKind.IN_LIST) {
+				out.writeBoolean(isNegated);
+				operand.writeTo(out);
+			}
+		}
+
+		/**
+		 * Reads a slot written by {@link #writeTo(DataOutput)}. Only templates for {@link InListStrategy#EXPAND} are written to a {@link TemplateIndex}.
+		 */
+		static Slot readFrom(DataInput in, ClassLoader classLoader) throws IOException {
+			var kind = SlotKind.values()[in.readUnsignedByte()];
+			var argumentIndex = in.readShort();
+			var typeName = in.readUTF();
+			var type = typeName.isEmpty() ? null : resolveType(typeName, classLoader);
+			if (kind.hasTwoArguments()) {
+				return new Slot(kind, argumentIndex, in.readShort(), type);
+			}
+
+			if (kind == SlotKind.IN_LIST) {
+				var isNegated = in.readBoolean();
+				return new Slot(kind, argumentIndex, type, SqlTemplate.readFrom(in, classLoader), isNegated, InListStrategy.EXPAND);
+			}
+
+			return new Slot(kind, argumentIndex, type);
+		}
+
+		private static Class<?> resolveType(String typeName, ClassLoader classLoader) {
+			switch (typeName) {
+				case "boolean":
+					return boolean.class;
+				case "byte":
+					return byte.class;
+				case "short":
+					return short.class;
+				case "char":
+					return char.class;
+				case "int":
+					return int.class;
+				case "long":
+					return long.class;
+				case "float":
+					return float.class;
+				case "double":
+					return double.class;
+				default:
+					try {
+						return Class.forName(typeName, false, classLoader);
+					} catch (ClassNotFoundException e) {
+						return Object.class;
+					}
+			}
+		}
+	}
+
+	/**
+	 * Records the slots of a template while the {@link SqlVisitor} renders a lambda for the first time.
+	 * The recorded positions refer to the buffer the visitor writes into.
+	 */
+	static final class Recorder {
+
+		private final int offset;
+		private final Object[] capturedArguments;
+		private final List<Integer> starts;
+		private final List<Integer> ends;
+		private final List<Slot> slots;
+		private long consultedMask;
+		private long nullMask;
+		private boolean compilable;
+
+		/**
+		 * @param offset            The length of the buffer before the visitor started writing to it.
+		 * @param capturedArguments The captured arguments of the lambda which is rendered.
+		 */
+		Recorder(int offset, Object[] capturedArguments) {
+			this.offset = offset;
+			this.capturedArguments = capturedArguments;
+			this.starts = new ArrayList<>();
+			this.ends = new ArrayList<>();
+			this.slots = new ArrayList<>();
+			this.compilable = true;
+		}
+
+		/**
+		 * Records a slot for the table name in the region {@code [start, end)} of the buffer.
+		 */
+		void table(int start, int end) {
+			starts.add(start);
+			ends.add(end);
+			slots.add(new Slot(SlotKind.TABLE, -1, null));
+		}
+
+		/**
+		 * Records a slot for a captured argument in the region {@code [start, end)} of the buffer.
+		 *
+		 * @param value The value of the argument as seen by the visitor. It is used to verify that the index refers to the captured argument.
+		 * @param type  The declared type of the argument.
+		 */
+		void slot(SlotKind kind, int argumentIndex, int start, int end, Object value, Class<?> type) {
+			if (argumentIndex >= capturedArguments.length || !Objects.equals(capturedArguments[argumentIndex], value)) {
+				compilable = false;
+				return;
+			}
+
+			starts.add(start);
+			ends.add(end);
+			slots.add(new Slot(kind, argumentIndex, type));
+		}
+
+		/**
+		 * Records a slot which is filled from two captured arguments in the region {@code [start, end)} of the buffer.
+		 *
+		 * @param value       The value of the first argument as seen by the visitor.
+		 * @param secondValue The value of the second argument as seen by the visitor.
+		 * @param type        The type of the value the slot is filled with.
+		 */
+		void slot(SlotKind kind, int argumentIndex, int secondArgumentIndex, int start, int end, Object value, Object secondValue, Class<?> type) {
+			if (argumentIndex >= capturedArguments.length || secondArgumentIndex >= capturedArguments.length
+					|| !Objects.equals(capturedArguments[argumentIndex], value) || !Objects.equals(capturedArguments[secondArgumentIndex], secondValue)) {
+				compilable = false;
+				return;
+			}
+
+			starts.add(start);
+			ends.add(end);
+			slots.add(new Slot(kind, argumentIndex, secondArgumentIndex, type));
+		}
+
+		/**
+		 * Records a slot for the membership of an operand in a captured collection or array in the region {@code [start, end)} of the buffer.
+		 *
+		 * @param value          The collection or array as seen by the visitor. It is used to verify that the index refers to the captured argument.
+		 * @param operand        The template of the operand, as returned by {@link #extract(CharSequence, int)}.
+		 * @param isNegated      Specifies if the membership is negated.
+		 * @param inListStrategy The {@link InListStrategy} the membership is rendered with.
+		 */
+		void membership(int argumentIndex, int start, int end, Object value, SqlTemplate operand, boolean isNegated, InListStrategy inListStrategy) {
+			if (argumentIndex >= capturedArguments.length || capturedArguments[argumentIndex] != value) {
+				compilable = false;
+				return;
+			}
+
+			starts.add(start);
+			ends.add(end);
+			slots.add(new Slot(SlotKind.IN_LIST, argumentIndex, null, operand, isNegated, inListStrategy));
+		}
+
+		/**
+		 * @return the number of slots recorded so far, to be passed to {@link #discard(int)}.
+		 */
+		int mark() {
+			return slots.size();
+		}
+
+		/**
+		 * Removes the slots recorded after a mark, because the SQL they were recorded for was removed from the buffer.
+		 *
+		 * @param mark The number of slots to keep, as returned by {@link #mark()}.
+		 * @return {@code True} if a removed slot was filled with a captured argument, otherwise {@code false}.
+		 */
+		boolean discard(int mark) {
+			var removesArgument = false;
+			for (int i = mark; i < slots.size(); i++) {
+				removesArgument |= slots.get(i).kind != SlotKind.TABLE;
+			}
+
+			starts.subList(mark, starts.size()).clear();
+			ends.subList(mark, ends.size()).clear();
+			slots.subList(mark, slots.size()).clear();
+			return removesArgument;
+		}
+
+		/**
+		 * Moves the slots recorded since a position of the buffer into a separate template, e.g. for an operand which is rendered several times by another slot.
+		 *
+		 * @param sql   The buffer the visitor wrote into.
+		 * @param start The position the extracted template starts at.
+		 * @return The template of the buffer from {@code start} on.
+		 */
+		SqlTemplate extract(CharSequence sql, int start) {
+			var first = slots.size();
+			while (first > 0 && starts.get(first - 1) >= start) {
+				first--;
+			}
+
+			var template = create(sql, start, starts.subList(first, starts.size()), ends.subList(first, ends.size()), slots.subList(first, slots.size()), 0, 0);
+			starts.subList(first, starts.size()).clear();
+			ends.subList(first, ends.size()).clear();
+			slots.subList(first, slots.size()).clear();
+			return template;
+		}
+
+		/**
+		 * Records that the structure of the SQL depends on whether a captured argument is {@code null}.
+		 */
+		void consult(int argumentIndex, boolean isNull) {
+			if (argumentIndex >= capturedArguments.length || (capturedArguments[argumentIndex] == null) != isNull) {
+				compilable = false;
+				return;
+			}
+
+			consultedMask |= 1L << argumentIndex;
+			if (isNull) {
+				nullMask |= 1L << argumentIndex;
+			}
+		}
+
+		/**
+		 * Marks the lambda as not compilable to a template, because its SQL depends on its captured arguments in a way a template cannot express.
+		 */
+		void invalidate() {
+			compilable = false;
+		}
+
+		/**
+		 * Creates the template from the rendered buffer.
+		 *
+		 * @param sql The buffer the visitor wrote into.
+		 * @return The compiled template or {@code null} if the lambda cannot be expressed as a template.
+		 */
+		SqlTemplate build(CharSequence sql) {
+			if (!compilable) {
+				return null;
+			}
+
+			return create(sql, offset, starts, ends, slots, consultedMask, nullMask);
+		}
+
+		private static SqlTemplate create(CharSequence sql, int offset, List<Integer> starts, List<Integer> ends, List<Slot> slots, long consultedMask, long nullMask) {
+			var fragments = new String[slots.size() + 1];
+			var position = offset;
+			for (int i = 0; i < slots.size(); i++) {
+				fragments[i] = sql.subSequence(position, starts.get(i)).toString();
+				position = ends.get(i);
+			}
+
+			fragments[slots.size()] = sql.subSequence(position, sql.length()).toString();
+			return new SqlTemplate(fragments, slots.toArray(new Slot[0]), consultedMask, nullMask);
+		}
+	}
+}
@@ -1,15 +1,10 @@
 package com.github.collinalpert.lambda2sql;
 
 import com.github.collinalpert.expressions.expression.*;
-import com.github.collinalpert.lambda2sql.functions.TriFunction;
 
-import java.lang.reflect.Member;
-import java.time.*;
-import java.time.chrono.*;
+import java.time.temporal.ChronoField;
 import java.time.temporal.Temporal;
 import java.util.*;
-import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 /**
  * Converts a lambda expression to an SQL where condition.
@@ -17,89 +12,91 @@ import java.util.stream.Collectors;
 public class SqlVisitor implements ExpressionVisitor<StringBuilder> {
 
 	/**
-	 * The supported methods that can be used on Java objects inside the lambda expressions.
+	 * The precedences of the logical operators, used to decide which terms of a simplified condition need parentheses.
 	 */
-	private static final Map<Member, Integer> operatorMethods;
-	private static final Map<Member, String> sqlFunctionMethods;
-
-	static {
-		operatorMethods = new HashMap<>(8, 1);
-		sqlFunctionMethods = new HashMap<>(4, 1);
-
-		try {
-			operatorMethods.put(String.class.getDeclaredMethod("equals", Object.class), ExpressionType.Equal);
-			operatorMethods.put(Object.class.getDeclaredMethod("equals", Object.class), ExpressionType.Equal);
-			operatorMethods.put(LocalDate.class.getDeclaredMethod("isAfter", ChronoLocalDate.class), ExpressionType.GreaterThan);
-			operatorMethods.put(LocalTime.class.getDeclaredMethod("isAfter", LocalTime.class), ExpressionType.GreaterThan);
-			operatorMethods.put(LocalDateTime.class.getDeclaredMethod("isAfter", ChronoLocalDateTime.class), ExpressionType.GreaterThan);
-			operatorMethods.put(LocalDate.class.getDeclaredMethod("isBefore", ChronoLocalDate.class), ExpressionType.LessThan);
-			operatorMethods.put(LocalTime.class.getDeclaredMethod("isBefore", LocalTime.class), ExpressionType.LessThan);
-			operatorMethods.put(LocalDateTime.class.getDeclaredMethod("isBefore", ChronoLocalDateTime.class), ExpressionType.LessThan);
-
-			sqlFunctionMethods.put(SqlFunctions.class.getDeclaredMethod("sum", Object.class), "SUM");
-			sqlFunctionMethods.put(SqlFunctions.class.getDeclaredMethod("min", Object.class), "MIN");
-			sqlFunctionMethods.put(SqlFunctions.class.getDeclaredMethod("max", Object.class), "MAX");
-		} catch (NoSuchMethodException e) {
-			e.printStackTrace();
-		}
-	}
+	private static final int NO_PRECEDENCE = 0;
+	private static final int OR_PRECEDENCE = 1;
+	private static final int AND_PRECEDENCE = 2;
+	private static final int NOT_PRECEDENCE = 3;
 
 	private final String tableName;
 	private final boolean withBackticks;
-	private final LinkedListStack<List<ConstantExpression>> arguments;
-	private final Map<String, Integer> parameterConsumptionCount;
+	private final SqlDialect dialect;
+	private final NamingStrategy namingStrategy;
+	private final InListStrategy inListStrategy;
+	private final boolean isSimplifying;
+	private final boolean isRewritingDateRanges;
+	private final Relationships relationships;
 
 	/**
-	 * More complex methods that can be used on Java objects inside the lambda expressions.
+	 * The aliases of the related tables whose subqueries are being rendered, with the innermost last.
+	 * Columns of the rows the lambdas test belong to the innermost table, or to the table of the lambda if there is none.
 	 */
-	private final Map<Member, TriFunction<Expression, Expression, Boolean, StringBuilder>> complexMethods;
+	private final Deque<String> relatedTables = new ArrayDeque<>();
+
+	/**
+	 * Resolves the parameters of the lambdas to the arguments they are invoked with.
+	 */
+	private final ArgumentBinder binder;
+
+	/**
+	 * The methods that can be used on Java objects inside the lambda expressions.
+	 */
+	private final SqlMethodRegistry registry;
 
 	private final StringBuilder sb;
+
+	/**
+	 * Records the slots of a template while rendering. Is {@code null} if no template is compiled.
+	 */
+	private final SqlTemplate.Recorder recorder;
+
+	/**
+	 * The parameters which are bound to the placeholders of a prepared statement.
+	 * Is {@code null} if values are written into the SQL as literals.
+	 */
+	private final List<SqlParameter> parameters;
 	private Expression body;
-	private Expression javaMethodParameter;
+	private List<Expression> javaMethodArguments = Collections.emptyList();
+
+	/**
+	 * Specifies how the next value is rendered, e.g. as a {@code LIKE} pattern.
+	 */
+	private SqlTemplate.SlotKind valueKind = SqlTemplate.SlotKind.VALUE;
+
+	/**
+	 * The precedence of the logical operator the current expression is an operand of, when conditions are simplified.
+	 */
+	private int precedence = NO_PRECEDENCE;
 
 	SqlVisitor(String tableName, boolean withBackTicks) {
-		this(tableName, withBackTicks, null, new LinkedListStack<>());
+		this(tableName, SqlOptions.DEFAULT.withBackticks(withBackTicks), new StringBuilder(), null, null);
 	}
 
-	private SqlVisitor(String tableName, boolean withBackticks, Expression body, LinkedListStack<List<ConstantExpression>> arguments) {
+	/**
+	 * Creates a visitor which renders into an existing buffer.
+	 *
+	 * @param tableName  The table name which the columns belong to.
+	 * @param options    The {@link SqlOptions} which control the conversion.
+	 * @param sb         The buffer the complete SQL is written to.
+	 * @param recorder   The recorder for compiling a template of the lambda. Can be {@code null}.
+	 * @param parameters The list to add parameters to, if values should be rendered as placeholders. Can be {@code null}.
+	 */
+	SqlVisitor(String tableName, SqlOptions options, StringBuilder sb, SqlTemplate.Recorder recorder, List<SqlParameter> parameters) {
 		this.tableName = tableName;
-		this.withBackticks = withBackticks;
-		this.body = body;
-		this.arguments = arguments;
-		this.sb = new StringBuilder();
-		this.parameterConsumptionCount = new HashMap<>();
+		this.withBackticks = options.hasBackticks();
+		this.dialect = options.getDialect();
+		this.namingStrategy = options.getNamingStrategy();
+		this.inListStrategy = options.getInListStrategy();
+		this.isSimplifying = options.isSimplifying();
+		this.isRewritingDateRanges = options.isRewritingDateRanges();
+		this.relationships = options.getRelationships();
+		this.binder = new ArgumentBinder();
+		this.sb = sb;
+		this.recorder = recorder;
+		this.parameters = parameters;
 
-		this.complexMethods = new HashMap<>(32, 1);
-		try {
-			this.complexMethods.put(String.class.getDeclaredMethod("startsWith", String.class), this::stringStartsWith);
-			this.complexMethods.put(String.class.getDeclaredMethod("endsWith", String.class), this::stringEndsWith);
-			this.complexMethods.put(String.class.getDeclaredMethod("contains", CharSequence.class), this::stringContains);
-			this.complexMethods.put(String.class.getDeclaredMethod("length"), (string, argument, isNegated) -> applySqlFunction(string, "LENGTH"));
-
-			this.complexMethods.put(List.class.getDeclaredMethod("contains", Object.class), this::listContains);
-			this.complexMethods.put(ArrayList.class.getDeclaredMethod("contains", Object.class), this::listContains);
-			this.complexMethods.put(LinkedList.class.getDeclaredMethod("contains", Object.class), this::listContains);
-
-			this.complexMethods.put(LocalTime.class.getDeclaredMethod("getSecond"), (date, argument, isNegated) -> applySqlFunction(date, "SECOND"));
-			this.complexMethods.put(LocalDateTime.class.getDeclaredMethod("getSecond"), (date, argument, isNegated) -> applySqlFunction(date, "SECOND"));
-			this.complexMethods.put(LocalTime.class.getDeclaredMethod("getMinute"), (date, argument, isNegated) -> applySqlFunction(date, "MINUTE"));
-			this.complexMethods.put(LocalDateTime.class.getDeclaredMethod("getMinute"), (date, argument, isNegated) -> applySqlFunction(date, "MINUTE"));
-			this.complexMethods.put(LocalTime.class.getDeclaredMethod("getHour"), (date, argument, isNegated) -> applySqlFunction(date, "HOUR"));
-			this.complexMethods.put(LocalDateTime.class.getDeclaredMethod("getHour"), (date, argument, isNegated) -> applySqlFunction(date, "HOUR"));
-			this.complexMethods.put(LocalDate.class.getDeclaredMethod("getDayOfWeek"), (date, argument, isNegated) -> applySqlFunction(date, "DAYOFWEEK"));
-			this.complexMethods.put(LocalDateTime.class.getDeclaredMethod("getDayOfWeek"), (date, argument, isNegated) -> applySqlFunction(date, "DAYOFWEEK"));
-			this.complexMethods.put(LocalDate.class.getDeclaredMethod("getDayOfMonth"), (date, argument, isNegated) -> applySqlFunction(date, "DAY"));
-			this.complexMethods.put(LocalDateTime.class.getDeclaredMethod("getDayOfWeek"), (date, argument, isNegated) -> applySqlFunction(date, "DAY"));
-			this.complexMethods.put(LocalDate.class.getDeclaredMethod("getDayOfYear"), (date, argument, isNegated) -> applySqlFunction(date, "DAYOFYEAR"));
-			this.complexMethods.put(LocalDateTime.class.getDeclaredMethod("getDayOfYear"), (date, argument, isNegated) -> applySqlFunction(date, "DAYOFYEAR"));
-			this.complexMethods.put(LocalDate.class.getDeclaredMethod("getMonthValue"), (date, argument, isNegated) -> applySqlFunction(date, "MONTH"));
-			this.complexMethods.put(LocalDateTime.class.getDeclaredMethod("getMonthValue"), (date, argument, isNegated) -> applySqlFunction(date, "MONTH"));
-			this.complexMethods.put(LocalDate.class.getDeclaredMethod("getYear"), (date, argument, isNegated) -> applySqlFunction(date, "YEAR"));
-			this.complexMethods.put(LocalDateTime.class.getDeclaredMethod("getYear"), (date, argument, isNegated) -> applySqlFunction(date, "YEAR"));
-		} catch (NoSuchMethodException e) {
-			e.printStackTrace();
-		}
+		this.registry = SqlMethodRegistry.current();
 	}
 
 	/**
@@ -139,10 +136,28 @@ public class SqlVisitor implements ExpressionVisitor<StringBuilder> {
 	@Override
 	public StringBuilder visit(BinaryExpression e) {
 		//Handling for null parameters
-		if (e.getSecond() instanceof ParameterExpression && !arguments.top().isEmpty() && arguments.top().get(((ParameterExpression) e.getSecond()).getIndex()).getValue() == null) {
-			//If we don't pop here and there are more expressions after this one, they will work with an incorrect argument.
-			arguments.pop();
-			return Expression.unary(e.getExpressionType() == ExpressionType.Equal ? ExpressionType.IsNull : ExpressionType.IsNonNull, Boolean.TYPE, e.getFirst()).accept(this);
+		if (e.getSecond() instanceof ParameterExpression && this.binder.isBound((ParameterExpression) e.getSecond())) {
+			var parameter = (ParameterExpression) e.getSecond();
+			var isNull = this.binder.resolve(parameter).getValue() == null;
+			consult(parameter, isNull);
+			if (isNull) {
+				return Expression.unary(e.getExpressionType() == ExpressionType.Equal ? ExpressionType.IsNull : ExpressionType.IsNonNull, Boolean.TYPE, e.getFirst()).accept(this);
+			}
+		}
+
+		if (this.isRewritingDateRanges) {
+			if (e.getExpressionType() == ExpressionType.LogicalAnd && isMonthRange(e.getFirst(), e.getSecond())) {
+				return appendMonthRange(e.getFirst(), e.getSecond(), needsParentheses(e, AND_PRECEDENCE));
+			}
+
+			var yearComparison = DatePartComparison.of(e, "getYear");
+			if (yearComparison != null && isRangeValue(yearComparison.value)) {
+				return appendYearRange(e, yearComparison);
+			}
+		}
+
+		if (this.isSimplifying && (e.getExpressionType() == ExpressionType.LogicalAnd || e.getExpressionType() == ExpressionType.LogicalOr)) {
+			return simplifyChain(e);
 		}
 
 		boolean quote = e != this.body && e.getExpressionType() == ExpressionType.LogicalOr;
@@ -166,31 +181,25 @@ public class SqlVisitor implements ExpressionVisitor<StringBuilder> {
 
 	/**
 	 * Returns a constant used in a lambda expression as the SQL equivalent.
+	 * When rendering a prepared statement, dates and times become parameters.
 	 *
 	 * @param e The {@link ConstantExpression} to transform.
 	 * @return A {@link StringBuilder} that has this constant appended.
 	 */
 	@Override
 	public StringBuilder visit(ConstantExpression e) {
-		if (e.getValue() == null) {
-			return sb.append("NULL");
+		var value = e.getValue();
+		if (value instanceof LambdaExpression) {
+			return ((LambdaExpression) value).getBody().accept(this);
 		}
 
-		if (e.getValue() instanceof LambdaExpression) {
-			return ((LambdaExpression) e.getValue()).getBody().accept(this);
-		}
-
-		if (e.getValue() instanceof String || e.getValue() instanceof Temporal) {
-			return sb.append("'").append(escapeString(e.getValue().toString())).append("'");
-		}
-
-		return sb.append(e.getValue().toString());
+		return SqlLiterals.appendValue(sb, this.valueKind, value, e.getResultType(), this.dialect, value instanceof Temporal ? this.parameters : null);
 	}
 
 	/**
 	 * An expression which represents an invocation of a lambda expression.
-	 * It is the last {@link #visit} where the arguments of {@link ParameterExpression}s are available which is why
-	 * they are temporarily saved in a list to be inserted into the SQL where condition later.
+	 * The arguments of the invocation are bound to the parameters of the lambda while its body is converted,
+	 * so they can be inserted into the SQL where condition.
 	 *
 	 * @param e The {@link InvocationExpression} to convert.
 	 * @return A {@link StringBuilder} containing the body/target of the lambda expression.
@@ -199,30 +208,19 @@ public class SqlVisitor implements ExpressionVisitor<StringBuilder> {
 	public StringBuilder visit(InvocationExpression e) {
 		var target = e.getTarget();
 		if (target instanceof LambdaExpression) {
-			var list = e.getArguments()
-					.stream()
-					.filter(x -> x instanceof ConstantExpression)
-					.map(ConstantExpression.class::cast)
-					.collect(Collectors.toList());
-			if (!list.isEmpty()) {
-				arguments.push(list);
+			this.binder.enter(e.getArguments());
+			try {
+				return target.accept(this);
+			} finally {
+				this.binder.exit();
 			}
 		}
 
-		String sqlFunctionName;
-		if (target instanceof MemberExpression && (sqlFunctionName = sqlFunctionMethods.get(((MemberExpression) e.getTarget()).getMember())) != null) {
-			sb.append(sqlFunctionName).append('(');
-			e.getArguments().get(0).accept(this);
-			sb.append(')');
-
-			return sb;
-		}
-
-		if (e.getTarget().getExpressionType() == ExpressionType.MethodAccess && !e.getArguments().isEmpty()) {
-			javaMethodParameter = e.getArguments().get(0);
+		if (target instanceof MemberExpression) {
+			javaMethodArguments = e.getArguments();
 		}
 
-		return e.getTarget().accept(this);
+		return target.accept(this);
 	}
 
 	/**
@@ -257,52 +255,74 @@ public class SqlVisitor implements ExpressionVisitor<StringBuilder> {
 	 */
 	@Override
 	public StringBuilder visit(MemberExpression e) {
-		if (operatorMethods.containsKey(e.getMember())) {
-			return Expression.binary(operatorMethods.get(e.getMember()), e.getInstance(), this.javaMethodParameter).accept(this);
+		var translator = this.registry.get(e.getMember());
+		if (translator != null) {
+			return translator.translate(this, e.getInstance(), this.javaMethodArguments, false);
 		}
 
-		if (this.complexMethods.containsKey(e.getMember())) {
-			return sb.append(this.complexMethods.get(e.getMember()).apply(e.getInstance(), this.javaMethodParameter, false));
+		var columnNames = ColumnNames.of(e.getMember(), this.namingStrategy);
+		var navigation = navigationOf(e.getInstance(), false);
+		if (navigation != null) {
+			return appendRelatedColumn(navigation, columnNames.getQualifiedName(this.withBackticks, this.dialect));
 		}
 
-		var nameArray = e.getMember().getName().replaceAll("^(get)", "").toCharArray();
-		nameArray[0] = Character.toLowerCase(nameArray[0]);
-		var name = new String(nameArray);
 		if (this.tableName == null) {
-			return sb.append(name);
+			return sb.append(columnNames.getName());
 		}
 
-		String escape = this.withBackticks ? "`" : "";
-		return sb.append(escape).append(this.tableName).append(escape).append(".").append(escape).append(name).append(escape);
+		appendTable();
+		return sb.append(columnNames.getQualifiedName(this.withBackticks, this.dialect));
+	}
+
+	/**
+	 * Appends the table the current row belongs to, which is the table of the lambda or the innermost related table.
+	 */
+	private void appendTable() {
+		if (!this.relatedTables.isEmpty()) {
+			appendIdentifier(this.relatedTables.peekLast());
+			return;
+		}
+
+		var start = sb.length();
+		appendIdentifier(this.tableName);
+		if (this.recorder != null) {
+			this.recorder.table(start, sb.length());
+		}
+	}
+
+	private StringBuilder appendIdentifier(String identifier) {
+		if (!this.withBackticks) {
+			return sb.append(identifier);
+		}
+
+		var quote = this.dialect.getIdentifierQuote();
+		return sb.append(quote).append(identifier).append(quote);
 	}
 
 	/**
 	 * Represents a parameterized expression, for example if a variable is used in a query.
+	 * When rendering a prepared statement, the value of the variable becomes a parameter.
 	 *
 	 * @param e The parameterized expression.
 	 * @return The {@link StringBuilder} with the SQL equivalent appended.
 	 */
 	@Override
 	public StringBuilder visit(ParameterExpression e) {
-		arguments.top().get(e.getIndex()).accept(this);
-		if (e.getIndex() == arguments.top().size() - 1) {
-			var numberOfParameterUsages = countParameterUsages(e);
-			// If parameter is used exactly once in the expression or has been consumed for as many times as it occurs, it can be removed.
-			if (this.arguments.size() > 1 || numberOfParameterUsages == 1 || numberOfParameterUsages == parameterConsumptionCount.merge(e.toString(), 1, Integer::sum)) {
-				arguments.pop();
+		var value = this.binder.resolve(e).getValue();
+		if (value instanceof LambdaExpression) {
+			if (this.recorder != null) {
+				this.recorder.invalidate();
 			}
+
+			return ((LambdaExpression) value).getBody().accept(this);
 		}
 
+		var start = sb.length();
+		SqlLiterals.appendValue(sb, this.valueKind, value, e.getResultType(), this.dialect, this.parameters);
+		record(e, value, this.valueKind, start, e.getResultType());
 		return sb;
 	}
 
-	private int countParameterUsages(ParameterExpression e) {
-		var identifier = e.toString();
-		var expressionString = this.body.toString();
-
-		return expressionString.split(identifier, -1).length - 1;
-	}
-
 	/**
 	 * Converts a unary expression to the SQL equivalent.
 	 * For example:
@@ -314,18 +334,20 @@ public class SqlVisitor implements ExpressionVisitor<StringBuilder> {
 	 */
 	@Override
 	public StringBuilder visit(UnaryExpression e) {
+		if (e.getExpressionType() == ExpressionType.LogicalNot && this.isSimplifying) {
+			return simplifyNegation(e);
+		}
+
 		if (e.getExpressionType() == ExpressionType.LogicalNot) {
 			//for support for negated Java methods
 			var invocationExpression = (InvocationExpression) e.getFirst();
 			var memberExpression = (MemberExpression) invocationExpression.getTarget();
-			if (operatorMethods.containsKey(memberExpression.getMember())) {
-				return Expression.logicalNot(Expression.binary(operatorMethods.get(memberExpression.getMember()), memberExpression.getInstance(), invocationExpression.getArguments().get(0))).accept(this);
-			} else if (complexMethods.containsKey(memberExpression.getMember())) {
-				return sb.append(complexMethods.get(memberExpression.getMember()).apply(memberExpression.getInstance(), invocationExpression.getArguments().get(0), true));
-			} else {
-				sb.append("!");
+			var translator = this.registry.get(memberExpression.getMember());
+			if (translator != null) {
+				return translator.translate(this, memberExpression.getInstance(), invocationExpression.getArguments(), true);
 			}
 
+			sb.append(this.dialect.getNegationOperator());
 			return e.getFirst().accept(this);
 		}
 
@@ -333,42 +355,933 @@ public class SqlVisitor implements ExpressionVisitor<StringBuilder> {
 		return sb.append(toSqlOperator(e.getExpressionType()));
 	}
 
+	//region Simplification
+
+	/**
+	 * Converts a chain of {@code AND} or {@code OR} operations in its simplified form.
+	 * The chain is flattened across nested lambdas, constant terms are folded and duplicate terms are removed.
+	 * Duplicates are detected by their rendered SQL, so every term is rendered once to compare it and once more without the duplicates.
+	 *
+	 * @param e The outermost operation of the chain.
+	 * @return The {@link StringBuilder} containing the simplified chain.
+	 */
+	private StringBuilder simplifyChain(BinaryExpression e) {
+		var operator = e.getExpressionType();
+		var absorbingValue = operator == ExpressionType.LogicalOr;
+		var terms = new ArrayList<Term>();
+		collectTerms(e, operator, terms);
+
+		var remaining = new ArrayList<Term>(terms.size());
+		for (var term : terms) {
+			var constant = constantValue(term);
+			if (constant == null) {
+				remaining.add(term);
+			} else if (constant == absorbingValue) {
+				return sb.append(absorbingValue);
+			}
+		}
+
+		if (this.isRewritingDateRanges && operator == ExpressionType.LogicalAnd) {
+			mergeMonthRanges(remaining);
+		}
+
+		var ownPrecedence = operator == ExpressionType.LogicalAnd ? AND_PRECEDENCE : OR_PRECEDENCE;
+		var unique = removeDuplicates(remaining, ownPrecedence);
+		if (unique.isEmpty()) {
+			return sb.append(!absorbingValue);
+		}
+
+		if (unique.size() == 1) {
+			return renderTerm(unique.get(0), this.precedence);
+		}
+
+		var quote = this.precedence > ownPrecedence;
+		if (quote) {
+			sb.append('(');
+		}
+
+		for (int i = 0; i < unique.size(); i++) {
+			if (i > 0) {
+				sb.append(' ').append(toSqlOperator(operator)).append(' ');
+			}
+
+			renderTerm(unique.get(i), ownPrecedence);
+		}
+
+		return quote ? sb.append(')') : sb;
+	}
+
+	/**
+	 * Converts a negation in its simplified form. Double negations and negated constants are removed.
+	 *
+	 * @param e The negation.
+	 * @return The {@link StringBuilder} containing the simplified negation.
+	 */
+	private StringBuilder simplifyNegation(UnaryExpression e) {
+		var terms = new ArrayList<Term>(1);
+		collectTerms(e.getFirst(), ExpressionType.LogicalNot, terms);
+		var operand = terms.get(0);
+
+		var constant = constantValue(operand);
+		if (constant != null) {
+			return sb.append(!constant);
+		}
+
+		if (operand.expression instanceof UnaryExpression && operand.expression.getExpressionType() == ExpressionType.LogicalNot) {
+			return renderTerm(new Term(((UnaryExpression) operand.expression).getFirst(), operand.scope), this.precedence);
+		}
+
+		if (operand.expression instanceof InvocationExpression && ((InvocationExpression) operand.expression).getTarget() instanceof MemberExpression) {
+			var invocationExpression = (InvocationExpression) operand.expression;
+			var memberExpression = (MemberExpression) invocationExpression.getTarget();
+			var translator = this.registry.get(memberExpression.getMember());
+			if (translator != null) {
+				enterScope(operand.scope);
+				try {
+					return translator.translate(this, memberExpression.getInstance(), invocationExpression.getArguments(), true);
+				} finally {
+					exitScope(operand.scope);
+				}
+			}
+		}
+
+		sb.append(this.dialect.getNegationOperator());
+		return renderTerm(operand, NOT_PRECEDENCE);
+	}
+
+	/**
+	 * Collects the terms of a chain of the same logical operator. Invocations of lambdas are followed, so chains built
+	 * with {@link com.github.collinalpert.lambda2sql.functions.SqlPredicate#and} are flattened.
+	 * Every term remembers the scope of the lambda it was found in.
+	 *
+	 * @param e        The expression to collect the terms of.
+	 * @param operator The {@link ExpressionType} of the chain. For any other operator, the unwrapped expression is the only term.
+	 * @param terms    The list to add the terms to.
+	 */
+	private void collectTerms(Expression e, int operator, List<Term> terms) {
+		if (e instanceof InvocationExpression) {
+			var invocation = (InvocationExpression) e;
+			if (invocation.getTarget() instanceof LambdaExpression) {
+				this.binder.enter(invocation.getArguments());
+				try {
+					collectTerms(((LambdaExpression<?>) invocation.getTarget()).getBody(), operator, terms);
+				} finally {
+					this.binder.exit();
+				}
+
+				return;
+			}
+
+			if (!(invocation.getTarget() instanceof MemberExpression)) {
+				collectTerms(invocation.getTarget(), operator, terms);
+				return;
+			}
+		}
+
+		if (e instanceof LambdaExpression) {
+			collectTerms(((LambdaExpression<?>) e).getBody(), operator, terms);
+			return;
+		}
+
+		if (e instanceof ConstantExpression && ((ConstantExpression) e).getValue() instanceof LambdaExpression) {
+			collectTerms(((LambdaExpression<?>) ((ConstantExpression) e).getValue()).getBody(), operator, terms);
+			return;
+		}
+
+		if (e instanceof ParameterExpression && this.binder.isBound((ParameterExpression) e)) {
+			var value = this.binder.resolve((ParameterExpression) e).getValue();
+			if (value instanceof LambdaExpression) {
+				if (this.recorder != null) {
+					this.recorder.invalidate();
+				}
+
+				collectTerms(((LambdaExpression<?>) value).getBody(), operator, terms);
+				return;
+			}
+		}
+
+		if (e instanceof BinaryExpression && e.getExpressionType() == operator) {
+			collectTerms(((BinaryExpression) e).getFirst(), operator, terms);
+			collectTerms(((BinaryExpression) e).getSecond(), operator, terms);
+			return;
+		}
+
+		terms.add(new Term(e, this.binder.current()));
+	}
+
+	/**
+	 * @param term The term to check.
+	 * @return The value of the term, if it is a constant {@code true} or {@code false}, otherwise {@code null}.
+	 */
+	private Boolean constantValue(Term term) {
+		if (term.expression instanceof ConstantExpression) {
+			var value = ((ConstantExpression) term.expression).getValue();
+			return value instanceof Boolean ? (Boolean) value : null;
+		}
+
+		if (term.expression instanceof ParameterExpression && term.scope != null) {
+			var index = ((ParameterExpression) term.expression).getIndex();
+			var argument = index < term.scope.length ? term.scope[index] : null;
+			if (argument != null && argument.getValue() instanceof Boolean) {
+				// The structure of the SQL depends on the value of the argument, which a template cannot express.
+				if (this.recorder != null) {
+					this.recorder.invalidate();
+				}
+
+				return (Boolean) argument.getValue();
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Removes the terms which render to the same SQL as an earlier term. Every term is rendered and then removed from the buffer again.
+	 *
+	 * @param terms      The terms of a chain.
+	 * @param precedence The precedence of the operator of the chain.
+	 * @return The terms without duplicates.
+	 */
+	private List<Term> removeDuplicates(List<Term> terms, int precedence) {
+		if (terms.size() < 2) {
+			return terms;
+		}
+
+		var unique = new ArrayList<Term>(terms.size());
+		var renderedTerms = new HashSet<List<Object>>();
+		var start = sb.length();
+		var parameterCount = this.parameters == null ? 0 : this.parameters.size();
+		for (var term : terms) {
+			var mark = this.recorder == null ? 0 : this.recorder.mark();
+			renderTerm(term, precedence);
+
+			var rendered = new ArrayList<Object>();
+			rendered.add(sb.substring(start));
+			if (this.parameters != null) {
+				var added = this.parameters.subList(parameterCount, this.parameters.size());
+				rendered.addAll(added);
+				added.clear();
+			}
+
+			sb.setLength(start);
+			var isDuplicate = !renderedTerms.add(rendered);
+			if (this.recorder != null && this.recorder.discard(mark) && isDuplicate) {
+				// Whether the term is a duplicate depends on the values of the captured arguments.
+				this.recorder.invalidate();
+			}
+
+			if (!isDuplicate) {
+				unique.add(term);
+			}
+		}
+
+		return unique;
+	}
+
+	private StringBuilder renderTerm(Term term, int precedence) {
+		var outerPrecedence = this.precedence;
+		this.precedence = precedence;
+		enterScope(term.scope);
+		try {
+			if (term.second != null) {
+				return appendMonthRange(term.expression, term.second, needsParentheses(term.expression, AND_PRECEDENCE));
+			}
+
+			return term.expression.accept(this);
+		} finally {
+			exitScope(term.scope);
+			this.precedence = outerPrecedence;
+		}
+	}
+
+	private void enterScope(ConstantExpression[] scope) {
+		if (scope != null) {
+			this.binder.restore(scope);
+		}
+	}
+
+	private void exitScope(ConstantExpression[] scope) {
+		if (scope != null) {
+			this.binder.exit();
+		}
+	}
+
+	/**
+	 * A term of a logical operation, together with the scope of the lambda it was found in.
+	 */
+	private static final class Term {
+
+		private final Expression expression;
+		private final ConstantExpression[] scope;
+
+		/**
+		 * The comparison of the month, if this term is a comparison of the year which is rendered together with it as a month range.
+		 */
+		private final Expression second;
+
+		Term(Expression expression, ConstantExpression[] scope) {
+			this(expression, scope, null);
+		}
+
+		Term(Expression expression, ConstantExpression[] scope, Expression second) {
+			this.expression = expression;
+			this.scope = scope;
+			this.second = second;
+		}
+	}
+
+	/**
+	 * Merges adjacent terms of an {@code AND} chain which compare the year and the month of the same column into a single month range.
+	 *
+	 * @param terms The terms of the chain.
+	 */
+	private void mergeMonthRanges(List<Term> terms) {
+		for (int i = 0; i + 1 < terms.size(); i++) {
+			var first = terms.get(i);
+			var second = terms.get(i + 1);
+			if (first.scope != second.scope || first.second != null || second.second != null) {
+				continue;
+			}
+
+			enterScope(first.scope);
+			try {
+				if (isMonthRange(first.expression, second.expression)) {
+					terms.set(i, new Term(first.expression, first.scope, second.expression));
+					terms.remove(i + 1);
+				}
+			} finally {
+				exitScope(first.scope);
+			}
+		}
+	}
+
+	private boolean needsParentheses(Expression e, int precedence) {
+		return this.isSimplifying ? this.precedence > precedence : e != this.body;
+	}
+
+	//endregion
+
+	//region Date ranges
+
+	/**
+	 * Checks if two conditions compare the year and the month of the same date column for equality, e.g. {@code date.getYear() == 2020} and {@code date.getMonthValue() == 3}.
+	 *
+	 * @param first  The first condition, in either order.
+	 * @param second The second condition, in either order.
+	 * @return {@code True} if the conditions can be rewritten into the range of a month, otherwise {@code false}.
+	 */
+	private boolean isMonthRange(Expression first, Expression second) {
+		var year = DatePartComparison.of(first, "getYear");
+		var month = DatePartComparison.of(second, "getMonthValue");
+		if (year == null || month == null) {
+			year = DatePartComparison.of(second, "getYear");
+			month = DatePartComparison.of(first, "getMonthValue");
+		}
+
+		return year != null && month != null && year.operator == ExpressionType.Equal && month.operator == ExpressionType.Equal
+				&& year.part.getMember().getDeclaringClass() == month.part.getMember().getDeclaringClass()
+				&& isSameColumn(year.part.getInstance(), month.part.getInstance())
+				&& isRangeValue(year.value) && isRangeValue(month.value);
+	}
+
+	/**
+	 * Converts the comparisons of the year and the month of a date column into the half-open range of the month.
+	 */
+	private StringBuilder appendMonthRange(Expression first, Expression second, boolean quote) {
+		var year = DatePartComparison.of(first, "getYear");
+		var month = DatePartComparison.of(second, "getMonthValue");
+		if (year == null || month == null) {
+			year = DatePartComparison.of(second, "getYear");
+			month = DatePartComparison.of(first, "getMonthValue");
+		}
+
+		var column = year.part.getInstance();
+		var type = year.part.getMember().getDeclaringClass();
+		if (quote) {
+			sb.append('(');
+		}
+
+		column.accept(this).append(" >= ");
+		appendMonthBoundary(year.value, month.value, SqlTemplate.SlotKind.MONTH_START, type);
+		sb.append(" AND ");
+		column.accept(this).append(" < ");
+		appendMonthBoundary(year.value, month.value, SqlTemplate.SlotKind.MONTH_END, type);
+		return quote ? sb.append(')') : sb;
+	}
+
+	/**
+	 * Converts a comparison of the year of a date column into a comparison of the column with the first day of a year.
+	 * For example, {@code date.getYear() > 2020} becomes {@code date >= '2021-01-01'}.
+	 */
+	private StringBuilder appendYearRange(BinaryExpression e, DatePartComparison comparison) {
+		var column = comparison.part.getInstance();
+		var type = comparison.part.getMember().getDeclaringClass();
+		switch (comparison.operator) {
+			case ExpressionType.Equal:
+			case ExpressionType.NotEqual:
+				var isEqual = comparison.operator == ExpressionType.Equal;
+				var quote = needsParentheses(e, isEqual ? AND_PRECEDENCE : OR_PRECEDENCE);
+				if (quote) {
+					sb.append('(');
+				}
+
+				column.accept(this).append(isEqual ? " >= " : " < ");
+				appendYearBoundary(comparison.value, SqlTemplate.SlotKind.YEAR_START, type);
+				sb.append(isEqual ? " AND " : " OR ");
+				column.accept(this).append(isEqual ? " < " : " >= ");
+				appendYearBoundary(comparison.value, SqlTemplate.SlotKind.YEAR_END, type);
+				return quote ? sb.append(')') : sb;
+			case ExpressionType.GreaterThan:
+				column.accept(this).append(" >= ");
+				return appendYearBoundary(comparison.value, SqlTemplate.SlotKind.YEAR_END, type);
+			case ExpressionType.GreaterThanOrEqual:
+				column.accept(this).append(" >= ");
+				return appendYearBoundary(comparison.value, SqlTemplate.SlotKind.YEAR_START, type);
+			case ExpressionType.LessThan:
+				column.accept(this).append(" < ");
+				return appendYearBoundary(comparison.value, SqlTemplate.SlotKind.YEAR_START, type);
+			default:
+				column.accept(this).append(" < ");
+				return appendYearBoundary(comparison.value, SqlTemplate.SlotKind.YEAR_END, type);
+		}
+	}
+
+	private StringBuilder appendYearBoundary(Expression year, SqlTemplate.SlotKind kind, Class<?> type) {
+		if (year instanceof ConstantExpression) {
+			return SqlLiterals.appendValue(sb, kind, ((ConstantExpression) year).getValue(), type, this.dialect, this.parameters);
+		}
+
+		var parameter = (ParameterExpression) year;
+		var value = this.binder.resolve(parameter).getValue();
+		var start = sb.length();
+		SqlLiterals.appendValue(sb, kind, value, type, this.dialect, this.parameters);
+		record(parameter, value, kind, start, type);
+		return sb;
+	}
+
+	private void appendMonthBoundary(Expression year, Expression month, SqlTemplate.SlotKind kind, Class<?> type) {
+		var yearValue = rangeValue(year);
+		var monthValue = rangeValue(month);
+		var start = sb.length();
+		SqlLiterals.appendValue(sb, kind, SqlLiterals.yearMonth(yearValue, monthValue), type, this.dialect, this.parameters);
+		if (this.recorder == null || year instanceof ConstantExpression && month instanceof ConstantExpression) {
+			return;
+		}
+
+		if (year instanceof ParameterExpression && month instanceof ParameterExpression
+				&& this.binder.isCaptured((ParameterExpression) year) && this.binder.isCaptured((ParameterExpression) month)) {
+			this.recorder.slot(kind, ((ParameterExpression) year).getIndex(), ((ParameterExpression) month).getIndex(), start, sb.length(), yearValue, monthValue, type);
+		} else {
+			this.recorder.invalidate();
+		}
+	}
+
+	/**
+	 * Checks if the value a date part is compared to can be used as the boundary of a range, i.e. if it is a known number.
+	 * Since a {@code null} argument is compared with {@code IS NULL} instead, the nullness of a captured argument is recorded.
+	 *
+	 * @param e The value a date part is compared to.
+	 * @return {@code True} if the value is a constant or an argument which is a number, otherwise {@code false}.
+	 */
+	private boolean isRangeValue(Expression e) {
+		if (e instanceof ConstantExpression) {
+			return ((ConstantExpression) e).getValue() instanceof Number;
+		}
+
+		if (e instanceof ParameterExpression && this.binder.isBound((ParameterExpression) e)) {
+			var value = this.binder.resolve((ParameterExpression) e).getValue();
+			consult((ParameterExpression) e, value == null);
+			return value instanceof Number;
+		}
+
+		return false;
+	}
+
+	private Object rangeValue(Expression e) {
+		if (e instanceof ConstantExpression) {
+			return ((ConstantExpression) e).getValue();
+		}
+
+		return this.binder.resolve((ParameterExpression) e).getValue();
+	}
+
+	/**
+	 * Checks if two expressions refer to the same column, e.g. both are {@code person.getDate()}.
+	 */
+	private static boolean isSameColumn(Expression first, Expression second) {
+		if (first == null || second == null) {
+			return first == second;
+		}
+
+		if (first instanceof InvocationExpression && second instanceof InvocationExpression) {
+			return ((InvocationExpression) first).getArguments().isEmpty() && ((InvocationExpression) second).getArguments().isEmpty()
+					&& isSameColumn(((InvocationExpression) first).getTarget(), ((InvocationExpression) second).getTarget());
+		}
+
+		if (first instanceof MemberExpression && second instanceof MemberExpression) {
+			return ((MemberExpression) first).getMember().equals(((MemberExpression) second).getMember())
+					&& isSameColumn(((MemberExpression) first).getInstance(), ((MemberExpression) second).getInstance());
+		}
+
+		if (first instanceof ParameterExpression && second instanceof ParameterExpression) {
+			return ((ParameterExpression) first).getIndex() == ((ParameterExpression) second).getIndex();
+		}
+
+		return false;
+	}
+
+	/**
+	 * A comparison of a part of a date column, e.g. {@code date.getYear() > 2020}, normalized so that the date part is on the left.
+	 */
+	private static final class DatePartComparison {
+
+		private final MemberExpression part;
+		private final Expression value;
+		private final int operator;
+
+		private DatePartComparison(MemberExpression part, Expression value, int operator) {
+			this.part = part;
+			this.value = value;
+			this.operator = operator;
+		}
+
+		/**
+		 * @param e          The expression to check.
+		 * @param methodName The name of the date part method, e.g. {@code getYear}.
+		 * @return The comparison, or {@code null} if the expression does not compare the date part of a {@link java.time.LocalDate} or {@link java.time.LocalDateTime}.
+		 */
+		static DatePartComparison of(Expression e, String methodName) {
+			if (!(e instanceof BinaryExpression)) {
+				return null;
+			}
+
+			var binary = (BinaryExpression) e;
+			var part = datePart(binary.getFirst(), methodName);
+			if (part != null) {
+				return isComparison(binary.getExpressionType()) ? new DatePartComparison(part, binary.getSecond(), binary.getExpressionType()) : null;
+			}
+
+			part = datePart(binary.getSecond(), methodName);
+			if (part != null) {
+				return isComparison(binary.getExpressionType()) ? new DatePartComparison(part, binary.getFirst(), mirror(binary.getExpressionType())) : null;
+			}
+
+			return null;
+		}
+
+		private static MemberExpression datePart(Expression e, String methodName) {
+			if (e instanceof InvocationExpression && ((InvocationExpression) e).getArguments().isEmpty()) {
+				e = ((InvocationExpression) e).getTarget();
+			}
+
+			if (!(e instanceof MemberExpression) || ((MemberExpression) e).getInstance() == null) {
+				return null;
+			}
+
+			var member = ((MemberExpression) e).getMember();
+			var isDate = member.getDeclaringClass() == java.time.LocalDate.class || member.getDeclaringClass() == java.time.LocalDateTime.class;
+			return isDate && member.getName().equals(methodName) ? (MemberExpression) e : null;
+		}
+
+		private static boolean isComparison(int expressionType) {
+			switch (expressionType) {
+				case ExpressionType.Equal:
+				case ExpressionType.NotEqual:
+				case ExpressionType.GreaterThan:
+				case ExpressionType.GreaterThanOrEqual:
+				case ExpressionType.LessThan:
+				case ExpressionType.LessThanOrEqual:
+					return true;
+				default:
+					return false;
+			}
+		}
+
+		/**
+		 * @return the operator which gives the same result when its operands are swapped.
+		 */
+		private static int mirror(int expressionType) {
+			switch (expressionType) {
+				case ExpressionType.GreaterThan:
+					return ExpressionType.LessThan;
+				case ExpressionType.GreaterThanOrEqual:
+					return ExpressionType.LessThanOrEqual;
+				case ExpressionType.LessThan:
+					return ExpressionType.GreaterThan;
+				case ExpressionType.LessThanOrEqual:
+					return ExpressionType.GreaterThanOrEqual;
+				default:
+					return expressionType;
+			}
+		}
+	}
+
+	//endregion
+
+	/**
+	 * Gives {@link SqlMethodTranslator}s access to the buffer the SQL is written to.
+	 *
+	 * @return The {@link StringBuilder} containing the SQL rendered so far.
+	 */
+	public StringBuilder getBuffer() {
+		return sb;
+	}
+
 	//region Complex Java methods
 
-	private StringBuilder stringStartsWith(Expression string, Expression argument, boolean isNegated) {
-		return doStringOperation(string, argument, isNegated, valueBuilder -> valueBuilder.insert(valueBuilder.length() - 1, '%'));
+	/**
+	 * Converts the membership of an argument in a captured collection or array to an {@code IN} condition.
+	 * The argument is rendered first and then written once per {@code IN} list, as the {@link InListStrategy} demands.
+	 *
+	 * @param values    The captured collection or array.
+	 * @param argument  The argument which is looked up, e.g. a column.
+	 * @param isNegated Specifies if the membership is negated.
+	 * @return The {@link StringBuilder} containing the SQL.
+	 */
+	StringBuilder listContains(Expression values, Expression argument, boolean isNegated) {
+		var parameter = (ParameterExpression) values;
+		var value = this.binder.resolve(parameter).getValue();
+
+		var start = sb.length();
+		var parameterCount = this.parameters == null ? 0 : this.parameters.size();
+		argument.accept(this);
+
+		var operand = sb.substring(start);
+		var operandTemplate = this.recorder == null ? null : this.recorder.extract(sb, start);
+		List<SqlParameter> operandParameters = null;
+		if (this.parameters != null) {
+			var added = this.parameters.subList(parameterCount, this.parameters.size());
+			operandParameters = new ArrayList<>(added);
+			added.clear();
+		}
+
+		sb.setLength(start);
+		SqlLiterals.appendMembership(sb, operand, operandParameters, value, isNegated, this.inListStrategy, this.dialect, this.parameters);
+		if (this.recorder != null) {
+			if (this.binder.isCaptured(parameter)) {
+				this.recorder.membership(parameter.getIndex(), start, sb.length(), value, operandTemplate, isNegated, this.inListStrategy);
+			} else {
+				this.recorder.invalidate();
+			}
+		}
+
+		return sb;
+	}
+
+	StringBuilder applySqlFunction(Expression date, String field) {
+		sb.append(field).append('(');
+		date.accept(this);
+		return sb.append(')');
+	}
+
+	/**
+	 * Extracts a part of a date or a time with the function of the dialect, e.g. {@code YEAR(`person`.`date`)} for MySQL.
+	 *
+	 * @param date  The date or time, e.g. a column.
+	 * @param field The part which is extracted.
+	 * @return The {@link StringBuilder} containing the SQL.
+	 */
+	StringBuilder applyDatePart(Expression date, ChronoField field) {
+		var function = this.dialect.getDatePartFunction(field);
+		var placeholder = function.indexOf("%s");
+		sb.append(function, 0, placeholder);
+		date.accept(this);
+		return sb.append(function, placeholder + 2, function.length());
+	}
+
+	//endregion
+
+	//region Relationships
+
+	/**
+	 * Converts the match of a related collection with a predicate to an {@code EXISTS} or a {@code NOT EXISTS} condition.
+	 * For example, {@code SqlFunctions.anyMatch(person.getOrders(), bigOrder)} becomes
+	 * {@code EXISTS (SELECT 1 FROM `order` `order_1` WHERE `order_1`.`personId` = `person`.`id` AND `order_1`.`total` > 100)}.
+	 * {@code allMatch} becomes the absence of a related row which does not match, so like in Java, it holds for an empty collection.
+	 *
+	 * @param collection         The collection, e.g. {@code person.getOrders()} or {@code person.getOrders().stream()}.
+	 * @param predicate          The predicate the related rows are tested with.
+	 * @param exists             Specifies if a related row which matches must exist. Otherwise, it must not exist.
+	 * @param isConditionNegated Specifies if the related rows are tested with the negation of the predicate.
+	 * @return The {@link StringBuilder} containing the SQL.
+	 */
+	StringBuilder matchCollection(Expression collection, Expression predicate, boolean exists, boolean isConditionNegated) {
+		var getter = navigationOf(streamSourceOf(collection), true);
+		if (getter == null) {
+			throw new UnsupportedOperationException(String.format("The collection %s is not mapped as a relationship. Map its getter using Relationships.withMany.", collection));
+		}
+
+		var lambda = resolvePredicate(predicate);
+		var relationship = this.relationships.get(getter.getMember());
+		var alias = aliasOf(relationship.getTable());
+		sb.append(exists ? "EXISTS (SELECT 1 FROM " : "NOT EXISTS (SELECT 1 FROM ");
+		appendCorrelation(getter, relationship, alias);
+		sb.append(" AND ");
+
+		var outerBody = this.body;
+		var outerPrecedence = this.precedence;
+		this.relatedTables.addLast(alias);
+		try {
+			if (isConditionNegated) {
+				this.body = conditionOf(lambda);
+				this.precedence = NO_PRECEDENCE;
+				sb.append("NOT (");
+				lambda.getBody().accept(this).append(')');
+			} else {
+				this.precedence = AND_PRECEDENCE;
+				lambda.getBody().accept(this);
+			}
+		} finally {
+			this.relatedTables.removeLast();
+			this.body = outerBody;
+			this.precedence = outerPrecedence;
+		}
+
+		return sb.append(')');
+	}
+
+	/**
+	 * Finds the getter of a mapped relationship which an expression invokes, e.g. {@code person.getCar()}.
+	 *
+	 * @param e        The expression, e.g. the instance of another getter.
+	 * @param isToMany Specifies if the getter must return a collection of related rows instead of a single one.
+	 * @return The getter, or {@code null} if the expression does not navigate such a relationship.
+	 */
+	private MemberExpression navigationOf(Expression e, boolean isToMany) {
+		if (this.relationships.isEmpty()) {
+			return null;
+		}
+
+		e = unwrapConvert(e);
+		if (!(e instanceof InvocationExpression) || !(((InvocationExpression) e).getTarget() instanceof MemberExpression)) {
+			return null;
+		}
+
+		var getter = (MemberExpression) ((InvocationExpression) e).getTarget();
+		var relationship = this.relationships.get(getter.getMember());
+		return relationship != null && relationship.isToMany() == isToMany ? getter : null;
 	}
 
-	private StringBuilder stringEndsWith(Expression string, Expression argument, boolean isNegated) {
-		return doStringOperation(string, argument, isNegated, valueBuilder -> valueBuilder.insert(1, '%'));
+	/**
+	 * Appends a column of a related row as a correlated subquery, e.g. {@code (SELECT `car_1`.`model` FROM `car` `car_1` WHERE `car_1`.`id` = `person`.`carId`)}.
+	 * If the related row is itself reached through a relationship, e.g. {@code person.getCar().getOwner()}, the column which references it is selected by a nested subquery.
+	 *
+	 * @param getter          The getter which navigates to the related row.
+	 * @param qualifiedColumn The column of the related row, preceded by a dot.
+	 * @return The {@link StringBuilder} containing the SQL.
+	 */
+	private StringBuilder appendRelatedColumn(MemberExpression getter, String qualifiedColumn) {
+		var relationship = this.relationships.get(getter.getMember());
+		var alias = aliasOf(relationship.getTable());
+		sb.append("(SELECT ");
+		appendIdentifier(alias).append(qualifiedColumn).append(" FROM ");
+		appendCorrelation(getter, relationship, alias);
+		return sb.append(')');
 	}
 
-	private StringBuilder stringContains(Expression string, Expression argument, boolean isNegated) {
-		return doStringOperation(string, argument, isNegated, valueBuilder -> valueBuilder.insert(1, '%').insert(valueBuilder.length() - 1, '%'));
+	/**
+	 * Appends a related table and the condition which restricts it to the rows related to the row the getter is invoked on,
+	 * e.g. {@code `car` `car_1` WHERE `car_1`.`id` = `person`.`carId`}.
+	 */
+	private void appendCorrelation(MemberExpression getter, Relationships.Relationship relationship, String alias) {
+		appendIdentifier(relationship.getTable()).append(' ');
+		appendIdentifier(alias);
+
+		sb.append(" WHERE ");
+		appendIdentifier(alias).append('.');
+		appendIdentifier(relationship.getTargetColumn()).append(" = ");
+
+		var ownerColumn = this.withBackticks ? "." + this.dialect.getIdentifierQuote() + relationship.getOwnerColumn() + this.dialect.getIdentifierQuote() : "." + relationship.getOwnerColumn();
+		var owner = navigationOf(getter.getInstance(), false);
+		if (owner != null) {
+			appendRelatedColumn(owner, ownerColumn);
+		} else {
+			appendTable();
+			sb.append(ownerColumn);
+		}
 	}
 
-	private StringBuilder listContains(Expression list, Expression argument, boolean isNegated) {
-		List l = (List) arguments.pop().get(((ParameterExpression) list).getIndex()).getValue();
-		var joiner = new StringJoiner(", ", "(", ")");
-		l.forEach(x -> joiner.add(x.toString()));
+	/**
+	 * @param table A related table.
+	 * @return The name the table is referred to by in its subquery. The alias is numbered by the depth of the subquery, so it never depends on the table name,
+	 * which a cached template only holds as a slot, and a self-relationship or a nested match of the same table is never correlated with itself.
+	 */
+	private String aliasOf(String table) {
+		if (this.tableName == null) {
+			throw new IllegalStateException("Relationships can only be navigated if a table name is specified.");
+		}
 
-		return argument.accept(new SqlVisitor(this.tableName, this.withBackticks, this.body, this.arguments)).append(isNegated ? " NOT" : "").append(" IN ").append(joiner.toString());
+		return table + '_' + (this.relatedTables.size() + 1);
 	}
 
-	private StringBuilder applySqlFunction(Expression date, String field) {
-		return new StringBuilder().append(field).append("(").append(date.accept(new SqlVisitor(this.tableName, this.withBackticks, this.body, this.arguments))).append(')');
+	/**
+	 * Resolves the predicate a related collection is matched with. The predicate must be known when converting, i.e. an inline lambda or a captured {@link com.github.collinalpert.lambda2sql.functions.SqlPredicate}.
+	 *
+	 * @param predicate The argument of the match.
+	 * @return The lambda expression of the predicate.
+	 */
+	private LambdaExpression<?> resolvePredicate(Expression predicate) {
+		predicate = unwrapConvert(predicate);
+		Object value = predicate;
+		if (predicate instanceof ParameterExpression && this.binder.isBound((ParameterExpression) predicate)) {
+			value = this.binder.resolve((ParameterExpression) predicate).getValue();
+			if (this.recorder != null) {
+				// The condition of a captured predicate is not part of the shape of the lambda, so it cannot be rendered from a template.
+				this.recorder.invalidate();
+			}
+		} else if (predicate instanceof ConstantExpression) {
+			value = ((ConstantExpression) predicate).getValue();
+		}
+
+		if (!(value instanceof LambdaExpression)) {
+			throw new UnsupportedOperationException(String.format("The predicate %s of a related collection cannot be converted. Use a lambda or a captured SqlPredicate.", predicate));
+		}
+
+		return (LambdaExpression<?>) value;
+	}
+
+	/**
+	 * @param lambda A lambda.
+	 * @return The condition of the lambda, after following the invocations of its implementation methods.
+	 */
+	private static Expression conditionOf(LambdaExpression<?> lambda) {
+		var condition = lambda.getBody();
+		while (condition instanceof InvocationExpression && ((InvocationExpression) condition).getTarget() instanceof LambdaExpression) {
+			condition = ((LambdaExpression<?>) ((InvocationExpression) condition).getTarget()).getBody();
+		}
+
+		return condition;
+	}
+
+	/**
+	 * @param e An expression which is matched, e.g. {@code person.getOrders().stream()}.
+	 * @return The collection a stream is created from, or the expression itself if it does not create a stream.
+	 */
+	private static Expression streamSourceOf(Expression e) {
+		e = unwrapConvert(e);
+		if (e instanceof InvocationExpression && ((InvocationExpression) e).getTarget() instanceof MemberExpression) {
+			var target = (MemberExpression) ((InvocationExpression) e).getTarget();
+			if (target.getMember().getName().equals("stream") && Collection.class.isAssignableFrom(target.getMember().getDeclaringClass())) {
+				return target.getInstance();
+			}
+		}
+
+		return e;
+	}
+
+	private static Expression unwrapConvert(Expression e) {
+		while (e instanceof UnaryExpression && e.getExpressionType() == ExpressionType.Convert) {
+			e = ((UnaryExpression) e).getFirst();
+		}
+
+		return e;
 	}
 
 	//endregion
 
-	private StringBuilder doStringOperation(Expression member, Expression argument, boolean isNegated, Consumer<StringBuilder> modifier) {
-		var valueBuilder = argument.accept(new SqlVisitor(this.tableName, this.withBackticks, this.body, this.arguments));
-		modifier.accept(valueBuilder);
+	/**
+	 * Converts a Java string method to a {@code LIKE} condition.
+	 *
+	 * @param member    The string which is compared.
+	 * @param argument  The argument of the string method, which becomes the pattern.
+	 * @param isNegated Specifies if the condition should be negated.
+	 * @param wildcards Specifies where wildcards are added to the pattern.
+	 * @return The {@link StringBuilder} with the {@code LIKE} condition appended.
+	 */
+	StringBuilder doStringOperation(Expression member, Expression argument, boolean isNegated, SqlTemplate.SlotKind wildcards) {
+		return doStringOperation(member, argument, isNegated, wildcards, false);
+	}
+
+	/**
+	 * Converts a Java string method to a {@code LIKE} condition, which optionally ignores the case.
+	 * A case-insensitive condition uses {@code ILIKE} if the dialect supports it, and otherwise converts both sides with {@code LOWER}.
+	 *
+	 * @param member       The string which is compared.
+	 * @param argument     The argument of the string method, which becomes the pattern.
+	 * @param isNegated    Specifies if the condition should be negated.
+	 * @param wildcards    Specifies where wildcards are added to the pattern.
+	 * @param isIgnoreCase Specifies if the case of the strings should be ignored.
+	 * @return The {@link StringBuilder} with the {@code LIKE} condition appended.
+	 */
+	StringBuilder doStringOperation(Expression member, Expression argument, boolean isNegated, SqlTemplate.SlotKind wildcards, boolean isIgnoreCase) {
+		var isLowered = isIgnoreCase && !this.dialect.supportsILike();
+		if (isLowered) {
+			sb.append("LOWER(");
+			member.accept(this).append(')');
+		} else {
+			member.accept(this);
+		}
 
-		return member.accept(new SqlVisitor(this.tableName, this.withBackticks, this.body, this.arguments)).append(isNegated ? " NOT" : "").append(" LIKE ").append(valueBuilder);
+		sb.append(isNegated ? " NOT" : "").append(isIgnoreCase && !isLowered ? " ILIKE " : " LIKE ");
+		if (isLowered) {
+			sb.append("LOWER(");
+			appendPattern(argument, wildcards);
+			return sb.append(')');
+		}
+
+		return appendPattern(argument, wildcards);
 	}
 
-	private String escapeString(String input) {
-		return input.replace("\\", "\\\\").replace("'", "\\'");
+	private StringBuilder appendPattern(Expression argument, SqlTemplate.SlotKind wildcards) {
+		if (argument instanceof ParameterExpression || argument instanceof ConstantExpression) {
+			this.valueKind = wildcards;
+			argument.accept(this);
+			this.valueKind = SqlTemplate.SlotKind.VALUE;
+			return sb;
+		}
+
+		// The pattern is not a value, e.g. another column, so the wildcards are concatenated in SQL.
+		sb.append("CONCAT(");
+		if (wildcards != SqlTemplate.SlotKind.LIKE_PREFIX) {
+			sb.append("'%', ");
+		}
+
+		argument.accept(this);
+		if (wildcards != SqlTemplate.SlotKind.LIKE_SUFFIX) {
+			sb.append(", '%'");
+		}
+
+		return sb.append(')');
+	}
+
+	/**
+	 * Records a slot for a value which was appended to the buffer, if it is an argument captured by the lambda.
+	 *
+	 * @param parameter The parameter the value was bound to.
+	 * @param value     The value which was appended.
+	 * @param kind      The way the value was rendered.
+	 * @param start     The position in the buffer where the value starts.
+	 * @param type      The declared type of the value.
+	 */
+	private void record(ParameterExpression parameter, Object value, SqlTemplate.SlotKind kind, int start, Class<?> type) {
+		if (this.recorder == null) {
+			return;
+		}
+
+		if (!this.binder.isCaptured(parameter)) {
+			this.recorder.invalidate();
+			return;
+		}
+
+		this.recorder.slot(kind, parameter.getIndex(), start, sb.length(), value, type);
+	}
+
+	/**
+	 * Records that the structure of the SQL depends on whether an argument is {@code null}.
+	 *
+	 * @param parameter The parameter the argument was bound to.
+	 * @param isNull    Specifies if the argument is {@code null}.
+	 */
+	private void consult(ParameterExpression parameter, boolean isNull) {
+		if (this.recorder == null) {
+			return;
+		}
+
+		if (!this.binder.isCaptured(parameter)) {
+			this.recorder.invalidate();
+			return;
+		}
+
+		this.recorder.consult(parameter.getIndex(), isNull);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,122 @@
+package com.github.collinalpert.lambda2sql;
+
+import java.io.*;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Templates which were compiled at build time by the {@link TemplateIndexWriter}.
+ * The templates of the lambdas implemented by a class are stored in the resource
+ * {@code META-INF/lambda2sql/<implementation class>.templates} and are read the first time one of these lambdas is translated.
+ *
+ * @author Collin Alpert
+ */
+final class TemplateIndex {
+
+	static final String RESOURCE_PREFIX = "META-INF/lambda2sql/";
+	static final String RESOURCE_SUFFIX = ".templates";
+
+	private static final int MAGIC = 0x4C325351;
+	private static final int VERSION = 2;
+
+	private static final Map<ClassLoader, TemplateIndex> indexes = new WeakHashMap<>();
+
+	/**
+	 * The index of the class loader of every lambda class, so it is only looked up once per lambda.
+	 */
+	private static final ClassValue<TemplateIndex> ofLambdaClass = new ClassValue<>() {
+		@Override
+		protected TemplateIndex computeValue(Class<?> type) {
+			return forClassLoader(type.getClassLoader());
+		}
+	};
+
+	private final WeakReference<ClassLoader> classLoader;
+	private final ConcurrentMap<String, Map<String, SqlTemplate>> templatesByClass;
+
+	private TemplateIndex(ClassLoader classLoader) {
+		this.classLoader = new WeakReference<>(classLoader);
+		this.templatesByClass = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Finds a precompiled template for a lambda.
+	 *
+	 * @param lambdaClass       The class of the lambda.
+	 * @param key               The shape of the lambda.
+	 * @param capturedArguments The captured arguments of the lambda.
+	 * @return The template or {@code null}, if none was precompiled or it does not match the captured arguments.
+	 */
+	static SqlTemplate find(Class<?> lambdaClass, TemplateKey key, Object[] capturedArguments) {
+		var entry = key.getIndexEntry();
+		if (entry == null) {
+			return null;
+		}
+
+		var template = ofLambdaClass.get(lambdaClass).templatesOf(key.getImplementationClass()).get(entry);
+		return template != null && template.matches(capturedArguments) ? template : null;
+	}
+
+	/**
+	 * Writes the templates of the lambdas implemented by one class.
+	 *
+	 * @param templates The templates by their entry name, as returned by {@link TemplateKey#getIndexEntry()}.
+	 * @param out       The stream to write to.
+	 * @throws IOException If the stream cannot be written.
+	 */
+	static void write(Map<String, SqlTemplate> templates, OutputStream out) throws IOException {
+		var data = new DataOutputStream(new BufferedOutputStream(out));
+		data.writeInt(MAGIC);
+		data.writeShort(VERSION);
+		data.writeInt(templates.size());
+		for (var entry : templates.entrySet()) {
+			data.writeUTF(entry.getKey());
+			entry.getValue().writeTo(data);
+		}
+
+		data.flush();
+	}
+
+	private static synchronized TemplateIndex forClassLoader(ClassLoader classLoader) {
+		return indexes.computeIfAbsent(classLoader, TemplateIndex::new);
+	}
+
+	private Map<String, SqlTemplate> templatesOf(String implementationClass) {
+		var templates = this.templatesByClass.get(implementationClass);
+		if (templates == null) {
+			templates = this.templatesByClass.computeIfAbsent(implementationClass, this::read);
+		}
+
+		return templates;
+	}
+
+	/**
+	 * Reads the templates of a class. A missing or unreadable resource results in an empty index, so the lambdas are parsed at runtime instead.
+	 */
+	private Map<String, SqlTemplate> read(String implementationClass) {
+		var classLoader = this.classLoader.get();
+		var resource = RESOURCE_PREFIX + implementationClass + RESOURCE_SUFFIX;
+		try (var in = classLoader == null ? ClassLoader.getSystemResourceAsStream(resource) : classLoader.getResourceAsStream(resource)) {
+			if (in == null) {
+				return Collections.emptyMap();
+			}
+
+			var data = new DataInputStream(new BufferedInputStream(in));
+			if (data.readInt() != MAGIC || data.readUnsignedShort() != VERSION) {
+				return Collections.emptyMap();
+			}
+
+			var count = data.readInt();
+			var templates = new HashMap<String, SqlTemplate>(count * 2);
+			for (int i = 0; i < count; i++) {
+				templates.put(data.readUTF(), SqlTemplate.readFrom(data, classLoader));
+			}
+
+			return templates;
+		} catch (IOException | RuntimeException e) {
+			return Collections.emptyMap();
+		}
+	}
+}
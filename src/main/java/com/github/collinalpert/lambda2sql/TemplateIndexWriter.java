@@ -0,0 +1,102 @@
+package com.github.collinalpert.lambda2sql;
+
+import com.github.collinalpert.lambda2sql.functions.CompositePredicate;
+import com.github.collinalpert.lambda2sql.functions.SerializedFunctionalInterface;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Compiles the translations of lambdas at build time, so they do not have to be parsed when the application runs.
+ * The index is written next to the compiled classes and is picked up by {@link Lambda2Sql} automatically when the lambdas are translated.
+ * Templates are compiled for every combination of table name, backticks and prepared statements, using {@link SqlOptions#DEFAULT}'s naming strategy.
+ * <p>
+ * This class is used by the lambda2sql Maven plugin and is not thread-safe.
+ *
+ * @author Collin Alpert
+ */
+public final class TemplateIndexWriter {
+
+	private static final String TABLE_PLACEHOLDER = "table";
+
+	private final Map<String, Map<String, SqlTemplate>> templatesByClass = new TreeMap<>();
+	private int size;
+
+	/**
+	 * Compiles the templates of a lambda. The lambda's captured arguments only need to have the right types, their values are not part of the templates.
+	 * They must not be {@code null}, since a template compiled for a {@code null} argument only applies to {@code null} arguments.
+	 *
+	 * @param functionalInterface The lambda to compile.
+	 * @return {@code True} if the templates were compiled, or {@code false} if the lambda cannot be compiled to a template,
+	 * e.g. because it captures another lambda. The predicates of a {@link CompositePredicate} are added one by one.
+	 * @throws RuntimeException If the lambda cannot be converted to SQL, e.g. because it uses an unsupported method.
+	 */
+	public boolean add(SerializedFunctionalInterface functionalInterface) {
+		if (functionalInterface instanceof CompositePredicate) {
+			var isAdded = true;
+			for (var operand : ((CompositePredicate<?>) functionalInterface).getOperands()) {
+				isAdded &= add(operand);
+			}
+
+			return isAdded;
+		}
+
+		var serializedLambda = SerializedLambdas.of(functionalInterface);
+		if (serializedLambda == null) {
+			return false;
+		}
+
+		var capturedArguments = SerializedLambdas.capturedArguments(serializedLambda);
+		if (!Lambda2Sql.isCompilable(capturedArguments)) {
+			return false;
+		}
+
+		var expression = SerializedLambdas.parse(functionalInterface);
+		var templates = new HashMap<String, SqlTemplate>();
+		for (var hasTable : new boolean[]{true, false}) {
+			for (var withBackticks : new boolean[]{true, false}) {
+				for (var isPrepared : new boolean[]{true, false}) {
+					var options = SqlOptions.DEFAULT.withBackticks(withBackticks);
+					var template = Lambda2Sql.compile(expression, capturedArguments, hasTable ? TABLE_PLACEHOLDER : null, options, isPrepared);
+					if (template == null) {
+						return false;
+					}
+
+					var entry = TemplateKey.indexEntry(serializedLambda.getImplMethodName(), serializedLambda.getImplMethodSignature(), hasTable, withBackticks, isPrepared);
+					templates.put(entry, template);
+				}
+			}
+		}
+
+		var previous = this.templatesByClass.computeIfAbsent(serializedLambda.getImplClass(), implementationClass -> new TreeMap<>());
+		this.size -= previous.size();
+		previous.putAll(templates);
+		this.size += previous.size();
+		return true;
+	}
+
+	/**
+	 * @return the number of compiled templates.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Writes the index. Every class implementing lambdas gets its own resource, so the index of a class is only read when one of its lambdas is translated.
+	 *
+	 * @param outputDirectory The root directory of the compiled classes, e.g. {@code target/classes}.
+	 * @throws IOException If the index cannot be written.
+	 */
+	public void writeTo(Path outputDirectory) throws IOException {
+		for (var entry : this.templatesByClass.entrySet()) {
+			var file = outputDirectory.resolve(TemplateIndex.RESOURCE_PREFIX + entry.getKey() + TemplateIndex.RESOURCE_SUFFIX);
+			Files.createDirectories(file.getParent());
+			try (var out = Files.newOutputStream(file)) {
+				TemplateIndex.write(entry.getValue(), out);
+			}
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package com.github.collinalpert.lambda2sql;
+
+import java.lang.invoke.SerializedLambda;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+
+/**
+ * Identifies the shape of a lambda by the method which implements it.
+ * Lambdas with the same implementation method only differ in their captured arguments and can therefore share a {@link SqlTemplate}.
+ * Since a class can be loaded by different class loaders, e.g. after a redeployment, the class loader of the lambda is part of the key.
+ *
+ * @author Collin Alpert
+ */
+final class TemplateKey {
+
+	private static final ReferenceQueue<ClassLoader> staleLoaders = new ReferenceQueue<>();
+
+	/**
+	 * The key of the class loader of every lambda class, so it is only created once per lambda.
+	 */
+	private static final ClassValue<LoaderKey> loaderKeys = new ClassValue<>() {
+		@Override
+		protected LoaderKey computeValue(Class<?> type) {
+			return new LoaderKey(type.getClassLoader());
+		}
+	};
+
+	private final LoaderKey loader;
+	private final String implementationClass;
+	private final String implementationMethodName;
+	private final String implementationMethodSignature;
+	private final boolean hasTable;
+
+	/**
+	 * The {@link SqlOptions#getCacheKey() key} of the options, which does not keep the class loader of a naming strategy or a dialect alive.
+	 */
+	private final Object options;
+	private final boolean isIndexed;
+	private final boolean withBackticks;
+	private final boolean isPrepared;
+	private final int hashCode;
+
+	TemplateKey(Class<?> lambdaClass, SerializedLambda serializedLambda, boolean hasTable, SqlOptions options, boolean isPrepared) {
+		this.loader = loaderKeys.get(lambdaClass);
+		this.implementationClass = serializedLambda.getImplClass();
+		this.implementationMethodName = serializedLambda.getImplMethodName();
+		this.implementationMethodSignature = serializedLambda.getImplMethodSignature();
+		this.hasTable = hasTable;
+		this.options = options.getCacheKey();
+		this.isIndexed = options.isDefaultExceptBackticks();
+		this.withBackticks = options.hasBackticks();
+		this.isPrepared = isPrepared;
+		this.hashCode = Objects.hash(implementationClass, implementationMethodName, implementationMethodSignature, hasTable, this.options, isPrepared) * 31 + loader.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+
+		if (!(o instanceof TemplateKey)) {
+			return false;
+		}
+
+		var other = (TemplateKey) o;
+		return hasTable == other.hasTable
+				&& options.equals(other.options)
+				&& isPrepared == other.isPrepared
+				&& implementationMethodName.equals(other.implementationMethodName)
+				&& implementationClass.equals(other.implementationClass)
+				&& implementationMethodSignature.equals(other.implementationMethodSignature)
+				&& loader.equals(other.loader);
+	}
+
+	/**
+	 * @return the class implementing the lambda in its internal form, e.g. {@code com/example/Queries}.
+	 */
+	String getImplementationClass() {
+		return implementationClass;
+	}
+
+	/**
+	 * @return the name of the entry for this key in a {@link TemplateIndex}, or {@code null} if no templates are precompiled for its options.
+	 */
+	String getIndexEntry() {
+		if (!isIndexed) {
+			return null;
+		}
+
+		return indexEntry(implementationMethodName, implementationMethodSignature, hasTable, withBackticks, isPrepared);
+	}
+
+	static String indexEntry(String implementationMethodName, String implementationMethodSignature, boolean hasTable, boolean withBackticks, boolean isPrepared) {
+		return implementationMethodName + implementationMethodSignature + '/' + (hasTable ? 't' : '-') + (withBackticks ? 'b' : '-') + (isPrepared ? 'p' : '-');
+	}
+
+	/**
+	 * @param loader The key of a class loader.
+	 * @return {@code True} if the lambda of this key was defined by the class loader, otherwise {@code false}.
+	 */
+	boolean isDefinedBy(LoaderKey loader) {
+		return this.loader == loader;
+	}
+
+	/**
+	 * @return the key of a class loader which was garbage collected, or {@code null} if there is none.
+	 */
+	static LoaderKey pollStaleLoader() {
+		return (LoaderKey) staleLoaders.poll();
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public String toString() {
+		return implementationClass + "." + implementationMethodName + implementationMethodSignature;
+	}
+
+	/**
+	 * Identifies a class loader without preventing it from being garbage collected.
+	 */
+	static final class LoaderKey extends WeakReference<ClassLoader> {
+
+		private final int hashCode;
+
+		LoaderKey(ClassLoader classLoader) {
+			super(classLoader, staleLoaders);
+			this.hashCode = System.identityHashCode(classLoader);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+
+			if (!(o instanceof LoaderKey)) {
+				return false;
+			}
+
+			var classLoader = get();
+			return classLoader != null && classLoader == ((LoaderKey) o).get();
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package com.github.collinalpert.lambda2sql;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of compiled templates, shared by all threads.
+ * The cache is split into stripes by the hash of the {@link TemplateKey}. Every stripe is an LRU map guarded by its own lock,
+ * so threads translating different lambdas rarely wait for each other.
+ * Entries of lambdas whose class loader was garbage collected are removed on the next insertion.
+ *
+ * @author Collin Alpert
+ */
+final class TranslationCache {
+
+	/**
+	 * The maximum number of templates kept for a single lambda shape, e.g. for different combinations of {@code null} arguments.
+	 */
+	private static final int MAX_TEMPLATE_VARIANTS = 8;
+
+	/**
+	 * The number of stripes. Must be a power of two.
+	 */
+	private static final int STRIPES = 16;
+
+	private final Stripe[] stripes;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private volatile int capacity;
+
+	/**
+	 * @param capacity The maximum number of lambda shapes to keep.
+	 */
+	TranslationCache(int capacity) {
+		this.stripes = new Stripe[STRIPES];
+		for (int i = 0; i < STRIPES; i++) {
+			this.stripes[i] = new Stripe(i);
+		}
+
+		setCapacity(capacity);
+	}
+
+	/**
+	 * Finds a template which can render a lambda with the given captured arguments.
+	 *
+	 * @param key               The shape of the lambda.
+	 * @param capturedArguments The captured arguments of the lambda.
+	 * @return The template or {@code null}, if the lambda has to be parsed.
+	 */
+	SqlTemplate find(TemplateKey key, Object[] capturedArguments) {
+		var stripe = stripeFor(key);
+		SqlTemplate[] variants;
+		synchronized (stripe) {
+			variants = stripe.get(key);
+		}
+
+		if (variants != null) {
+			for (var variant : variants) {
+				if (variant.matches(capturedArguments)) {
+					hits.increment();
+					return variant;
+				}
+			}
+		}
+
+		misses.increment();
+		return null;
+	}
+
+	/**
+	 * Adds a template for a lambda shape. A shape keeps up to {@value #MAX_TEMPLATE_VARIANTS} templates.
+	 *
+	 * @param key      The shape of the lambda.
+	 * @param template The compiled template.
+	 */
+	void add(TemplateKey key, SqlTemplate template) {
+		expungeStaleEntries();
+
+		var stripe = stripeFor(key);
+		synchronized (stripe) {
+			var variants = stripe.get(key);
+			if (variants == null) {
+				stripe.put(key, new SqlTemplate[]{template});
+			} else if (variants.length < MAX_TEMPLATE_VARIANTS && !containsVariant(variants, template)) {
+				var merged = Arrays.copyOf(variants, variants.length + 1);
+				merged[variants.length] = template;
+				stripe.put(key, merged);
+			}
+		}
+	}
+
+	private static boolean containsVariant(SqlTemplate[] variants, SqlTemplate template) {
+		for (var variant : variants) {
+			if (variant.isSameVariant(template)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Removes all entries. The statistics are kept.
+	 */
+	void clear() {
+		for (var stripe : stripes) {
+			synchronized (stripe) {
+				stripe.clear();
+			}
+		}
+	}
+
+	/**
+	 * Changes the capacity of the cache. Entries exceeding the new capacity are evicted immediately.
+	 *
+	 * @param capacity The maximum number of lambda shapes to keep. {@code 0} disables the cache.
+	 */
+	void setCapacity(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("The capacity of the cache must not be negative.");
+		}
+
+		this.capacity = capacity;
+		for (var stripe : stripes) {
+			synchronized (stripe) {
+				stripe.trim();
+			}
+		}
+	}
+
+	CacheStatistics statistics() {
+		var size = 0;
+		for (var stripe : stripes) {
+			synchronized (stripe) {
+				size += stripe.size();
+			}
+		}
+
+		return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), size, capacity);
+	}
+
+	private Stripe stripeFor(TemplateKey key) {
+		var hash = key.hashCode();
+		return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+	}
+
+	/**
+	 * Removes the entries of lambdas whose class loader was garbage collected.
+	 */
+	private void expungeStaleEntries() {
+		TemplateKey.LoaderKey stale;
+		while ((stale = TemplateKey.pollStaleLoader()) != null) {
+			for (var stripe : stripes) {
+				synchronized (stripe) {
+					var iterator = stripe.keySet().iterator();
+					while (iterator.hasNext()) {
+						if (iterator.next().isDefinedBy(stale)) {
+							iterator.remove();
+							evictions.increment();
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * An LRU map holding a share of the capacity of the cache.
+	 */
+	private final class Stripe extends LinkedHashMap<TemplateKey, SqlTemplate[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int index;
+
+		Stripe(int index) {
+			super(16, 0.75f, true);
+			this.index = index;
+		}
+
+		/**
+		 * @return the share of the capacity of this stripe. The remainder of the capacity is spread over the first stripes.
+		 */
+		private int maximumSize() {
+			var capacity = TranslationCache.this.capacity;
+			return capacity / STRIPES + (index < capacity % STRIPES ? 1 : 0);
+		}
+
+		private void trim() {
+			var iterator = keySet().iterator();
+			while (size() > maximumSize() && iterator.hasNext()) {
+				iterator.next();
+				iterator.remove();
+				evictions.increment();
+			}
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<TemplateKey, SqlTemplate[]> eldest) {
+			if (size() > maximumSize()) {
+				evictions.increment();
+				return true;
+			}
+
+			return false;
+		}
+	}
+}
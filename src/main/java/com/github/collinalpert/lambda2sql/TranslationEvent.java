@@ -0,0 +1,156 @@
+package com.github.collinalpert.lambda2sql;
+
+import jdk.jfr.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+/**
+ * The Flight Recorder event of a single conversion of a lambda. It carries the same measurements as {@link TranslationMetrics}.
+ * The event type is created by an {@link EventFactory} and its events are driven through method handles instead of subclassing {@link Event},
+ * because javac cannot resolve the internal supertype of {@code Event} when compiling for Java 13 with a newer JDK, so the build does not depend on the JDK it runs on.
+ * If Flight Recorder is not available in the runtime, no events are created.
+ *
+ * @author Collin Alpert
+ */
+final class TranslationEvent {
+
+	private static final int IMPLEMENTATION_METHOD = 0;
+	private static final int IS_PREPARED = 1;
+	private static final int IS_CACHE_HIT = 2;
+	private static final int CAPTURED_ARGUMENT_COUNT = 3;
+	private static final int OUTPUT_LENGTH = 4;
+	private static final int DESERIALIZATION_NANOS = 5;
+	private static final int LOOKUP_NANOS = 6;
+	private static final int PARSE_NANOS = 7;
+	private static final int RENDER_NANOS = 8;
+
+	/**
+	 * The methods of the event type, or {@code null} if Flight Recorder is not available in this runtime.
+	 */
+	private static final EventMethods methods = EventMethods.load();
+
+	/**
+	 * The event of {@link EventFactory#newEvent()}, referenced as an {@link Object} for the same reason the class does not subclass {@link Event}.
+	 */
+	private final Object event;
+
+	private TranslationEvent(Object event) {
+		this.event = event;
+	}
+
+	/**
+	 * @return {@code True} if Flight Recorder is recording this event, otherwise {@code false}.
+	 */
+	static boolean isEnabled() {
+		return methods != null && methods.type.isEnabled();
+	}
+
+	/**
+	 * Creates an event and starts its timing.
+	 *
+	 * @return The started event.
+	 */
+	static TranslationEvent begin() {
+		try {
+			var event = (Object) methods.newEvent.invokeExact(methods.factory);
+			methods.begin.invokeExact(event);
+			return new TranslationEvent(event);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Ends the timing of the event and commits it with the measurements of the conversion, if it passes the thresholds of the recording.
+	 */
+	void commit(String implementationMethod, boolean isPrepared, boolean isCacheHit, int capturedArgumentCount, int outputLength,
+				long deserializationNanos, long lookupNanos, long parseNanos, long renderNanos) {
+		try {
+			methods.end.invokeExact(event);
+			if (!(boolean) methods.shouldCommit.invokeExact(event)) {
+				return;
+			}
+
+			methods.set.invokeExact(event, IMPLEMENTATION_METHOD, (Object) implementationMethod);
+			methods.set.invokeExact(event, IS_PREPARED, (Object) isPrepared);
+			methods.set.invokeExact(event, IS_CACHE_HIT, (Object) isCacheHit);
+			methods.set.invokeExact(event, CAPTURED_ARGUMENT_COUNT, (Object) capturedArgumentCount);
+			methods.set.invokeExact(event, OUTPUT_LENGTH, (Object) outputLength);
+			methods.set.invokeExact(event, DESERIALIZATION_NANOS, (Object) deserializationNanos);
+			methods.set.invokeExact(event, LOOKUP_NANOS, (Object) lookupNanos);
+			methods.set.invokeExact(event, PARSE_NANOS, (Object) parseNanos);
+			methods.set.invokeExact(event, RENDER_NANOS, (Object) renderNanos);
+			methods.commit.invokeExact(event);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * The event type and the methods of its events, adapted to take the event as an {@link Object}.
+	 */
+	private static final class EventMethods {
+
+		private final EventFactory factory;
+		private final EventType type;
+		private final MethodHandle newEvent;
+		private final MethodHandle begin;
+		private final MethodHandle end;
+		private final MethodHandle shouldCommit;
+		private final MethodHandle set;
+		private final MethodHandle commit;
+
+		private EventMethods(EventFactory factory) throws ReflectiveOperationException {
+			var lookup = MethodHandles.publicLookup();
+			var eventMethod = MethodType.methodType(void.class, Object.class);
+			this.factory = factory;
+			this.type = factory.getEventType();
+			this.newEvent = lookup.findVirtual(EventFactory.class, "newEvent", MethodType.methodType(Event.class)).asType(MethodType.methodType(Object.class, EventFactory.class));
+			this.begin = lookup.findVirtual(Event.class, "begin", MethodType.methodType(void.class)).asType(eventMethod);
+			this.end = lookup.findVirtual(Event.class, "end", MethodType.methodType(void.class)).asType(eventMethod);
+			this.shouldCommit = lookup.findVirtual(Event.class, "shouldCommit", MethodType.methodType(boolean.class)).asType(MethodType.methodType(boolean.class, Object.class));
+			this.set = lookup.findVirtual(Event.class, "set", MethodType.methodType(void.class, int.class, Object.class)).asType(MethodType.methodType(void.class, Object.class, int.class, Object.class));
+			this.commit = lookup.findVirtual(Event.class, "commit", MethodType.methodType(void.class)).asType(eventMethod);
+		}
+
+		private static EventMethods load() {
+			try {
+				var annotations = List.of(
+						new AnnotationElement(Name.class, "com.github.collinalpert.lambda2sql.Translation"),
+						new AnnotationElement(Label.class, "Lambda Translation"),
+						new AnnotationElement(Category.class, new String[]{"Lambda2Sql"}),
+						new AnnotationElement(Description.class, "The conversion of a lambda expression to SQL"),
+						new AnnotationElement(StackTrace.class, false));
+				// The order of the fields is the order of the indexes above.
+				var fields = List.of(
+						field(String.class, "implementationMethod", "Implementation Method"),
+						field(boolean.class, "isPrepared", "Prepared"),
+						field(boolean.class, "isCacheHit", "Cache Hit"),
+						field(int.class, "capturedArgumentCount", "Captured Arguments"),
+						field(int.class, "outputLength", "Output Length"),
+						timespan("deserializationNanos", "Deserialization"),
+						timespan("lookupNanos", "Lookup"),
+						timespan("parseNanos", "Parse"),
+						timespan("renderNanos", "Render"));
+				return new EventMethods(EventFactory.create(annotations, fields));
+			} catch (LinkageError | ReflectiveOperationException | RuntimeException e) {
+				return null;
+			}
+		}
+
+		private static ValueDescriptor field(Class<?> type, String name, String label) {
+			return new ValueDescriptor(type, name, List.of(new AnnotationElement(Label.class, label)));
+		}
+
+		private static ValueDescriptor timespan(String name, String label) {
+			return new ValueDescriptor(long.class, name, List.of(new AnnotationElement(Label.class, label), new AnnotationElement(Timespan.class, Timespan.NANOSECONDS)));
+		}
+	}
+}
@@ -0,0 +1,20 @@
+package com.github.collinalpert.lambda2sql;
+
+/**
+ * Receives the {@link TranslationMetrics} of every lambda converted by {@link Lambda2Sql}, e.g. to record them in a metrics library.
+ * Listeners are called synchronously on the thread which converted the lambda, so they should return quickly.
+ * While no listener is registered and the {@code com.github.collinalpert.lambda2sql.Translation} Flight Recorder event is disabled, conversions are not measured.
+ *
+ * @author Collin Alpert
+ * @see Lambda2Sql#addTranslationListener(TranslationListener)
+ */
+@FunctionalInterface
+public interface TranslationListener {
+
+	/**
+	 * Called after a lambda was converted successfully.
+	 *
+	 * @param metrics The measurements of the conversion.
+	 */
+	void onTranslation(TranslationMetrics metrics);
+}
@@ -0,0 +1,113 @@
+package com.github.collinalpert.lambda2sql;
+
+/**
+ * The measurements of a single conversion of a lambda, split into the stages of the conversion.
+ * The durations of stages which were skipped, e.g. parsing when a cached translation was used, are zero.
+ *
+ * @author Collin Alpert
+ * @see TranslationListener
+ */
+public final class TranslationMetrics {
+
+	private final String implementationMethod;
+	private final boolean isPrepared;
+	private final boolean isCacheHit;
+	private final int capturedArgumentCount;
+	private final int outputLength;
+	private final long deserializationNanos;
+	private final long lookupNanos;
+	private final long parseNanos;
+	private final long renderNanos;
+	private final long totalNanos;
+
+	TranslationMetrics(String implementationMethod, boolean isPrepared, boolean isCacheHit, int capturedArgumentCount, int outputLength,
+					   long deserializationNanos, long lookupNanos, long parseNanos, long renderNanos, long totalNanos) {
+		this.implementationMethod = implementationMethod;
+		this.isPrepared = isPrepared;
+		this.isCacheHit = isCacheHit;
+		this.capturedArgumentCount = capturedArgumentCount;
+		this.outputLength = outputLength;
+		this.deserializationNanos = deserializationNanos;
+		this.lookupNanos = lookupNanos;
+		this.parseNanos = parseNanos;
+		this.renderNanos = renderNanos;
+		this.totalNanos = totalNanos;
+	}
+
+	/**
+	 * @return the method implementing the lambda, e.g. {@code com.example.Queries.lambda$adults$0}, or {@code null} if the lambda could not be deserialized or is a {@link com.github.collinalpert.lambda2sql.functions.CompositePredicate}.
+	 */
+	public String getImplementationMethod() {
+		return implementationMethod;
+	}
+
+	/**
+	 * @return {@code true} if the lambda was converted to a {@link PreparedSql}.
+	 */
+	public boolean isPrepared() {
+		return isPrepared;
+	}
+
+	/**
+	 * @return {@code true} if the SQL was rendered from a cached or precompiled translation without parsing the lambda.
+	 */
+	public boolean isCacheHit() {
+		return isCacheHit;
+	}
+
+	/**
+	 * @return the number of arguments the lambda captured.
+	 */
+	public int getCapturedArgumentCount() {
+		return capturedArgumentCount;
+	}
+
+	/**
+	 * @return the number of characters of the produced SQL.
+	 */
+	public int getOutputLength() {
+		return outputLength;
+	}
+
+	/**
+	 * @return the time it took to obtain the serialized form of the lambda, in nanoseconds.
+	 */
+	public long getDeserializationNanos() {
+		return deserializationNanos;
+	}
+
+	/**
+	 * @return the time it took to look up a cached or precompiled translation, in nanoseconds.
+	 */
+	public long getLookupNanos() {
+		return lookupNanos;
+	}
+
+	/**
+	 * @return the time it took to parse the lambda into an expression tree, in nanoseconds.
+	 */
+	public long getParseNanos() {
+		return parseNanos;
+	}
+
+	/**
+	 * @return the time it took to write the SQL, either by traversing the expression tree or by filling a cached translation, in nanoseconds.
+	 */
+	public long getRenderNanos() {
+		return renderNanos;
+	}
+
+	/**
+	 * @return the time the whole conversion took, in nanoseconds.
+	 */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	@Override
+	public String toString() {
+		return "TranslationMetrics{implementationMethod=" + implementationMethod + ", isPrepared=" + isPrepared + ", isCacheHit=" + isCacheHit
+				+ ", capturedArgumentCount=" + capturedArgumentCount + ", outputLength=" + outputLength + ", deserializationNanos=" + deserializationNanos
+				+ ", lookupNanos=" + lookupNanos + ", parseNanos=" + parseNanos + ", renderNanos=" + renderNanos + ", totalNanos=" + totalNanos + '}';
+	}
+}
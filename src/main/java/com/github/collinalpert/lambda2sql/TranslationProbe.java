@@ -0,0 +1,154 @@
+package com.github.collinalpert.lambda2sql;
+
+import java.lang.invoke.SerializedLambda;
+import java.util.Arrays;
+
+/**
+ * Measures the stages of a single conversion and reports them to the {@link TranslationListener}s and to Flight Recorder.
+ * A probe is only created while a listener is registered or the {@link TranslationEvent} is enabled, so unmeasured conversions only pay for a {@code null} check.
+ *
+ * @author Collin Alpert
+ */
+final class TranslationProbe {
+
+	private static final TranslationListener[] NO_LISTENERS = new TranslationListener[0];
+
+	private static volatile TranslationListener[] listeners = NO_LISTENERS;
+
+	private final TranslationListener[] probeListeners;
+	private final TranslationEvent event;
+	private final long start;
+	private long lastStage;
+	private boolean isDeserialized;
+	private String implementationMethod;
+	private int capturedArgumentCount;
+	private boolean isLookedUp;
+	private boolean isCacheHit;
+	private long deserializationNanos;
+	private long lookupNanos;
+	private long parseNanos;
+	private long renderNanos;
+
+	private TranslationProbe(TranslationListener[] probeListeners, TranslationEvent event) {
+		this.probeListeners = probeListeners;
+		this.event = event;
+		this.start = System.nanoTime();
+		this.lastStage = this.start;
+	}
+
+	/**
+	 * Starts measuring a conversion.
+	 *
+	 * @return A probe, or {@code null} if nobody is interested in the measurements.
+	 */
+	static TranslationProbe start() {
+		var currentListeners = listeners;
+		var isRecording = TranslationEvent.isEnabled();
+		if (currentListeners.length == 0 && !isRecording) {
+			return null;
+		}
+
+		return new TranslationProbe(currentListeners, isRecording ? TranslationEvent.begin() : null);
+	}
+
+	static synchronized void addListener(TranslationListener listener) {
+		var updated = Arrays.copyOf(listeners, listeners.length + 1);
+		updated[listeners.length] = listener;
+		listeners = updated;
+	}
+
+	static synchronized boolean removeListener(TranslationListener listener) {
+		for (int i = 0; i < listeners.length; i++) {
+			if (listeners[i].equals(listener)) {
+				var updated = new TranslationListener[listeners.length - 1];
+				System.arraycopy(listeners, 0, updated, 0, i);
+				System.arraycopy(listeners, i + 1, updated, i, updated.length - i);
+				listeners = updated;
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Marks the end of the deserialization of the lambda.
+	 * A conversion which translates several lambdas, e.g. the operands of a {@link com.github.collinalpert.lambda2sql.functions.CompositePredicate},
+	 * reports every stage once per lambda. The durations are summed up, while the implementation method and the captured arguments are those of the outermost lambda.
+	 *
+	 * @param serializedLambda  The serialized form of the lambda, or {@code null} if it could not be obtained.
+	 * @param capturedArguments The captured arguments of the lambda. Can be {@code null}.
+	 */
+	void deserialized(SerializedLambda serializedLambda, Object[] capturedArguments) {
+		deserializationNanos += elapsed();
+		if (isDeserialized) {
+			return;
+		}
+
+		isDeserialized = true;
+		if (serializedLambda != null) {
+			implementationMethod = serializedLambda.getImplClass().replace('/', '.') + '.' + serializedLambda.getImplMethodName();
+		}
+
+		capturedArgumentCount = capturedArguments == null ? 0 : capturedArguments.length;
+	}
+
+	/**
+	 * Marks the end of the lookup of a cached or precompiled translation.
+	 * The conversion only counts as a cache hit if every lookup found a translation.
+	 *
+	 * @param isHit Specifies if a translation was found.
+	 */
+	void lookedUp(boolean isHit) {
+		lookupNanos += elapsed();
+		isCacheHit = isHit && (isCacheHit || !isLookedUp);
+		isLookedUp = true;
+	}
+
+	/**
+	 * Marks the end of parsing the lambda into an expression tree. A conversion which parses a lambda is not a cache hit.
+	 */
+	void parsed() {
+		parseNanos += elapsed();
+		isCacheHit = false;
+		isLookedUp = true;
+	}
+
+	/**
+	 * Marks the end of rendering one of several lambdas of a conversion, so the rendering is not counted as a stage of the next lambda.
+	 */
+	void rendered() {
+		renderNanos += elapsed();
+	}
+
+	/**
+	 * Marks the end of the conversion and reports its measurements.
+	 *
+	 * @param outputLength The number of characters of the produced SQL.
+	 * @param isPrepared   Specifies if the lambda was converted to a {@link PreparedSql}.
+	 */
+	void finish(int outputLength, boolean isPrepared) {
+		renderNanos += elapsed();
+		if (event != null) {
+			event.commit(implementationMethod, isPrepared, isCacheHit, capturedArgumentCount, outputLength, deserializationNanos, lookupNanos, parseNanos, renderNanos);
+		}
+
+		if (probeListeners.length > 0) {
+			var metrics = new TranslationMetrics(implementationMethod, isPrepared, isCacheHit, capturedArgumentCount, outputLength,
+					deserializationNanos, lookupNanos, parseNanos, renderNanos, lastStage - start);
+			for (var listener : probeListeners) {
+				listener.onTranslation(metrics);
+			}
+		}
+	}
+
+	/**
+	 * @return the time since the previous stage ended.
+	 */
+	private long elapsed() {
+		var now = System.nanoTime();
+		var elapsed = now - lastStage;
+		lastStage = now;
+		return elapsed;
+	}
+}
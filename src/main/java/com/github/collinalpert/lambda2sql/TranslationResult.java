@@ -0,0 +1,52 @@
+package com.github.collinalpert.lambda2sql;
+
+/**
+ * The translation of a single lambda in a batch translated with {@link Lambda2Sql#toSqlBatch}.
+ * Either the SQL or the exception which prevented the translation is present.
+ *
+ * @author Collin Alpert
+ */
+public final class TranslationResult {
+
+	private final String sql;
+	private final RuntimeException failure;
+
+	private TranslationResult(String sql, RuntimeException failure) {
+		this.sql = sql;
+		this.failure = failure;
+	}
+
+	static TranslationResult success(String sql) {
+		return new TranslationResult(sql, null);
+	}
+
+	static TranslationResult failure(RuntimeException failure) {
+		return new TranslationResult(null, failure);
+	}
+
+	/**
+	 * @return {@code true} if the lambda was translated successfully.
+	 */
+	public boolean isSuccessful() {
+		return failure == null;
+	}
+
+	/**
+	 * @return the SQL of the lambda, or {@code null} if it could not be translated.
+	 */
+	public String getSql() {
+		return sql;
+	}
+
+	/**
+	 * @return the exception thrown while translating the lambda, or {@code null} if it was translated successfully.
+	 */
+	public RuntimeException getFailure() {
+		return failure;
+	}
+
+	@Override
+	public String toString() {
+		return isSuccessful() ? sql : "failure: " + failure;
+	}
+}
@@ -0,0 +1,89 @@
+package com.github.collinalpert.lambda2sql.functions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A {@link SqlPredicate} which combines any number of predicates with {@code AND} or {@code OR}, created by {@link SqlPredicate#allOf(List)} and {@link SqlPredicate#anyOf(List)}.
+ * Unlike {@link SqlPredicate#and(SqlPredicate)}, which wraps both predicates in a new lambda, the predicates are kept in a flat list.
+ * Every predicate is translated on its own and the results are joined, so the cost of a translation grows with the number of predicates,
+ * but not with how they were combined, and the translation of every predicate is cached separately.
+ * Combining a composite predicate with another predicate of the same kind appends to the list instead of nesting.
+ *
+ * @param <T> The type of the input to the predicate.
+ * @author Collin Alpert
+ */
+public final class CompositePredicate<T> implements SqlPredicate<T> {
+
+	private static final long serialVersionUID = 1L;
+
+	// Always an unmodifiable list of serializable predicates.
+	@SuppressWarnings("serial")
+	private final List<SqlPredicate<? super T>> operands;
+	private final boolean isConjunction;
+
+	private CompositePredicate(List<SqlPredicate<? super T>> operands, boolean isConjunction) {
+		this.operands = operands;
+		this.isConjunction = isConjunction;
+	}
+
+	/**
+	 * Combines predicates. Operands which are composite predicates of the same kind are flattened into the new one.
+	 *
+	 * @param predicates    The predicates to combine.
+	 * @param isConjunction {@code True} to combine the predicates with {@code AND}, {@code false} to combine them with {@code OR}.
+	 * @param <T>           The type of the input to the predicate.
+	 * @return The combined predicate.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> CompositePredicate<T> of(List<? extends SqlPredicate<? super T>> predicates, boolean isConjunction) {
+		var operands = new ArrayList<SqlPredicate<? super T>>(predicates.size());
+		for (var predicate : predicates) {
+			Objects.requireNonNull(predicate);
+			if (predicate instanceof CompositePredicate && ((CompositePredicate<?>) predicate).isConjunction == isConjunction) {
+				operands.addAll(((CompositePredicate<? super T>) predicate).operands);
+			} else {
+				operands.add(predicate);
+			}
+		}
+
+		return new CompositePredicate<T>(Collections.unmodifiableList(operands), isConjunction);
+	}
+
+	/**
+	 * @return the combined predicates, in the order they are translated.
+	 */
+	public List<SqlPredicate<? super T>> getOperands() {
+		return operands;
+	}
+
+	/**
+	 * @return {@code True} if the predicates are combined with {@code AND}, or {@code false} if they are combined with {@code OR}.
+	 */
+	public boolean isConjunction() {
+		return isConjunction;
+	}
+
+	@Override
+	public boolean test(T t) {
+		for (var operand : operands) {
+			if (operand.test(t) != isConjunction) {
+				return !isConjunction;
+			}
+		}
+
+		return isConjunction;
+	}
+
+	@Override
+	public SqlPredicate<T> and(SqlPredicate<? super T> other) {
+		return of(List.of(this, other), true);
+	}
+
+	@Override
+	public SqlPredicate<T> or(SqlPredicate<? super T> other) {
+		return of(List.of(this, other), false);
+	}
+}
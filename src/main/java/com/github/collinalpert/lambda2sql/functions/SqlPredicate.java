@@ -1,5 +1,6 @@
 package com.github.collinalpert.lambda2sql.functions;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Predicate;
 
@@ -13,13 +14,45 @@ import java.util.function.Predicate;
 @FunctionalInterface
 public interface SqlPredicate<T> extends Predicate<T>, SerializedFunctionalInterface {
 
+	/**
+	 * Combines predicates with {@code AND}. Prefer this over chaining {@link #and(SqlPredicate)} when combining many predicates,
+	 * e.g. a list of optional criteria, since every predicate is translated once instead of as a level of nested lambdas.
+	 *
+	 * @param predicates The predicates to combine.
+	 * @param <T>        The type of the input to the predicate.
+	 * @return A predicate which is fulfilled if all predicates are fulfilled. Translates to {@code true} if the list is empty.
+	 */
+	static <T> SqlPredicate<T> allOf(List<? extends SqlPredicate<? super T>> predicates) {
+		return CompositePredicate.of(predicates, true);
+	}
+
+	/**
+	 * Combines predicates with {@code OR}.
+	 *
+	 * @param predicates The predicates to combine.
+	 * @param <T>        The type of the input to the predicate.
+	 * @return A predicate which is fulfilled if any of the predicates is fulfilled. Translates to {@code false} if the list is empty.
+	 * @see #allOf(List)
+	 */
+	static <T> SqlPredicate<T> anyOf(List<? extends SqlPredicate<? super T>> predicates) {
+		return CompositePredicate.of(predicates, false);
+	}
+
 	default SqlPredicate<T> and(SqlPredicate<? super T> other) {
 		Objects.requireNonNull(other);
+		if (other instanceof CompositePredicate) {
+			return CompositePredicate.of(List.of(this, other), true);
+		}
+
 		return t -> test(t) && other.test(t);
 	}
 
 	default SqlPredicate<T> or(SqlPredicate<? super T> other) {
 		Objects.requireNonNull(other);
+		if (other instanceof CompositePredicate) {
+			return CompositePredicate.of(List.of(this, other), false);
+		}
+
 		return t -> test(t) || other.test(t);
 	}
 }
@@ -0,0 +1,179 @@
+package com.github.collinalpert.lambda2sql.jdbc;
+
+import com.github.collinalpert.lambda2sql.PreparedSql;
+import com.github.collinalpert.lambda2sql.SqlParameter;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.*;
+import java.util.List;
+
+/**
+ * Binds the parameters of a {@link PreparedSql} to a {@link PreparedStatement} with the JDBC types matching their Java types.
+ * Dates and times are bound as {@code java.time} objects, {@code null} values with the type of the variable they came from and
+ * arrays, e.g. for {@code = ANY(?)}, as SQL arrays.
+ *
+ * @author Collin Alpert
+ */
+public final class ParameterBinder {
+
+	private ParameterBinder() {
+	}
+
+	/**
+	 * Binds parameters to the placeholders of a statement, starting with the first one.
+	 *
+	 * @param statement  The statement to bind to.
+	 * @param parameters The parameters, in the order of their placeholders.
+	 * @throws SQLException If the driver rejects a value.
+	 */
+	public static void bind(PreparedStatement statement, List<SqlParameter> parameters) throws SQLException {
+		for (int i = 0; i < parameters.size(); i++) {
+			bind(statement, i + 1, parameters.get(i));
+		}
+	}
+
+	/**
+	 * Binds a single parameter.
+	 *
+	 * @param statement The statement to bind to.
+	 * @param index     The index of the placeholder, starting at 1.
+	 * @param parameter The parameter to bind.
+	 * @throws SQLException If the driver rejects the value.
+	 */
+	public static void bind(PreparedStatement statement, int index, SqlParameter parameter) throws SQLException {
+		var value = parameter.getValue();
+		if (value == null) {
+			statement.setNull(index, getSqlType(parameter.getType()));
+		} else if (value.getClass().isArray() && !(value instanceof byte[])) {
+			statement.setArray(index, createArray(statement.getConnection(), value));
+		} else if (value instanceof Character) {
+			statement.setString(index, value.toString());
+		} else if (value instanceof Enum) {
+			statement.setString(index, ((Enum<?>) value).name());
+		} else {
+			statement.setObject(index, value);
+		}
+	}
+
+	/**
+	 * Creates an SQL array from a Java array. The type of the SQL array is taken from the component type of the array,
+	 * or from its first element, if the array was created from a collection.
+	 */
+	private static java.sql.Array createArray(Connection connection, Object array) throws SQLException {
+		var length = Array.getLength(array);
+		var elements = new Object[length];
+		Class<?> elementType = array.getClass().getComponentType();
+		for (int i = 0; i < length; i++) {
+			elements[i] = Array.get(array, i);
+			if (elementType == Object.class && elements[i] != null) {
+				elementType = elements[i].getClass();
+			}
+		}
+
+		return connection.createArrayOf(getSqlTypeName(elementType), elements);
+	}
+
+	/**
+	 * @param type The Java type of a value.
+	 * @return The {@link Types} constant of the value, or {@link Types#NULL} if it is not known.
+	 */
+	private static int getSqlType(Class<?> type) {
+		if (type == String.class || type == Character.class || type == char.class || (type != null && type.isEnum())) {
+			return Types.VARCHAR;
+		}
+
+		if (type == Integer.class || type == int.class) {
+			return Types.INTEGER;
+		}
+
+		if (type == Long.class || type == long.class) {
+			return Types.BIGINT;
+		}
+
+		if (type == Short.class || type == short.class) {
+			return Types.SMALLINT;
+		}
+
+		if (type == Byte.class || type == byte.class) {
+			return Types.TINYINT;
+		}
+
+		if (type == Double.class || type == double.class) {
+			return Types.DOUBLE;
+		}
+
+		if (type == Float.class || type == float.class) {
+			return Types.REAL;
+		}
+
+		if (type == Boolean.class || type == boolean.class) {
+			return Types.BOOLEAN;
+		}
+
+		if (type == BigDecimal.class) {
+			return Types.NUMERIC;
+		}
+
+		if (type == LocalDate.class) {
+			return Types.DATE;
+		}
+
+		if (type == LocalTime.class) {
+			return Types.TIME;
+		}
+
+		if (type == LocalDateTime.class) {
+			return Types.TIMESTAMP;
+		}
+
+		if (type == OffsetDateTime.class || type == ZonedDateTime.class) {
+			return Types.TIMESTAMP_WITH_TIMEZONE;
+		}
+
+		if (type == byte[].class) {
+			return Types.VARBINARY;
+		}
+
+		if (type != null && type.isArray()) {
+			return Types.ARRAY;
+		}
+
+		return Types.NULL;
+	}
+
+	private static String getSqlTypeName(Class<?> type) {
+		switch (getSqlType(type)) {
+			case Types.INTEGER:
+				return "INTEGER";
+			case Types.BIGINT:
+				return "BIGINT";
+			case Types.SMALLINT:
+				return "SMALLINT";
+			case Types.TINYINT:
+				return "TINYINT";
+			case Types.DOUBLE:
+				return "DOUBLE PRECISION";
+			case Types.REAL:
+				return "REAL";
+			case Types.BOOLEAN:
+				return "BOOLEAN";
+			case Types.NUMERIC:
+				return "NUMERIC";
+			case Types.DATE:
+				return "DATE";
+			case Types.TIME:
+				return "TIME";
+			case Types.TIMESTAMP:
+				return "TIMESTAMP";
+			case Types.TIMESTAMP_WITH_TIMEZONE:
+				return "TIMESTAMP WITH TIME ZONE";
+			default:
+				return "VARCHAR";
+		}
+	}
+}
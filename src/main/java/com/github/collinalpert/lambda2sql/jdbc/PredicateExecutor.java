@@ -0,0 +1,174 @@
+package com.github.collinalpert.lambda2sql.jdbc;
+
+import com.github.collinalpert.lambda2sql.Lambda2Sql;
+import com.github.collinalpert.lambda2sql.SqlOptions;
+import com.github.collinalpert.lambda2sql.functions.SqlPredicate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Executes statements filtered by a {@link SqlPredicate} on a {@link Connection}.
+ * The predicate is converted with {@link Lambda2Sql#toPreparedSql}, so captured values are bound as parameters with {@link ParameterBinder}
+ * instead of being written into the SQL. Since the SQL then only depends on the shape of the predicate, the {@link PreparedStatement}s
+ * are kept per SQL and reused for every further execution of the same shape.
+ * <pre>{@code
+ * try (var executor = new PredicateExecutor(connection, SqlOptions.DEFAULT.withDialect(SqlDialect.H2))) {
+ *     List<String> names = executor.select("SELECT \"name\" FROM \"person\"", person -> person.getAge() > age, "person", resultSet -> resultSet.getString(1));
+ * }
+ * }</pre>
+ * Like the connection, an executor must only be used by one thread at a time. Closing it closes its statements, but not the connection.
+ *
+ * @author Collin Alpert
+ */
+public final class PredicateExecutor implements AutoCloseable {
+
+	/**
+	 * The number of statements an executor keeps open by default.
+	 */
+	public static final int DEFAULT_STATEMENT_CAPACITY = 64;
+
+	private final Connection connection;
+	private final SqlOptions options;
+	private final int statementCapacity;
+
+	/**
+	 * The prepared statements by their SQL, in the order they were last used.
+	 */
+	private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+	public PredicateExecutor(Connection connection) {
+		this(connection, SqlOptions.DEFAULT);
+	}
+
+	public PredicateExecutor(Connection connection, SqlOptions options) {
+		this(connection, options, DEFAULT_STATEMENT_CAPACITY);
+	}
+
+	/**
+	 * @param connection        The connection to execute the statements on.
+	 * @param options           The {@link SqlOptions} which control the conversion of the predicates, e.g. the {@link com.github.collinalpert.lambda2sql.SqlDialect}.
+	 * @param statementCapacity The number of statements which are kept open. When it is exceeded, the least recently used statement is closed.
+	 */
+	public PredicateExecutor(Connection connection, SqlOptions options, int statementCapacity) {
+		if (statementCapacity < 1) {
+			throw new IllegalArgumentException("The statement capacity must be positive.");
+		}
+
+		this.connection = Objects.requireNonNull(connection);
+		this.options = Objects.requireNonNull(options);
+		this.statementCapacity = statementCapacity;
+	}
+
+	/**
+	 * Prepares a statement filtered by a predicate and binds the values the predicate captures.
+	 * The statement belongs to this executor and must not be closed by the caller.
+	 *
+	 * @param statement The statement without its {@code WHERE} clause, e.g. {@code SELECT * FROM person}.
+	 * @param predicate The predicate which becomes the {@code WHERE} clause.
+	 * @param tableName The table name which the columns belong to. It is optional to specify this.
+	 * @param <T>       The type of the rows.
+	 * @return The prepared statement with its parameters bound, which is the same object for every predicate of the same shape.
+	 * @throws SQLException If the statement cannot be prepared or a value cannot be bound.
+	 */
+	public <T> PreparedStatement prepare(String statement, SqlPredicate<T> predicate, String tableName) throws SQLException {
+		var where = Lambda2Sql.toPreparedSql(predicate, tableName, options);
+		var preparedStatement = getStatement(statement + " WHERE " + where.getSql());
+		preparedStatement.clearParameters();
+		ParameterBinder.bind(preparedStatement, where.getParameters());
+		return preparedStatement;
+	}
+
+	/**
+	 * Executes a query filtered by a predicate.
+	 *
+	 * @param query     The query without its {@code WHERE} clause, e.g. {@code SELECT id, name FROM person}.
+	 * @param predicate The predicate which becomes the {@code WHERE} clause.
+	 * @param tableName The table name which the columns belong to. It is optional to specify this.
+	 * @param mapper    Converts every row of the result.
+	 * @param <T>       The type of the rows the predicate tests.
+	 * @param <R>       The type of the result.
+	 * @return The converted rows.
+	 * @throws SQLException If the query fails.
+	 */
+	public <T, R> List<R> select(String query, SqlPredicate<T> predicate, String tableName, RowMapper<R> mapper) throws SQLException {
+		var results = new ArrayList<R>();
+		try (var resultSet = prepare(query, predicate, tableName).executeQuery()) {
+			while (resultSet.next()) {
+				results.add(mapper.map(resultSet));
+			}
+		}
+
+		return results;
+	}
+
+	/**
+	 * Executes an {@code UPDATE} or {@code DELETE} statement filtered by a predicate.
+	 *
+	 * @param statement The statement without its {@code WHERE} clause, e.g. {@code DELETE FROM person}.
+	 * @param predicate The predicate which becomes the {@code WHERE} clause.
+	 * @param tableName The table name which the columns belong to. It is optional to specify this.
+	 * @param <T>       The type of the rows.
+	 * @return The number of affected rows.
+	 * @throws SQLException If the statement fails.
+	 */
+	public <T> int update(String statement, SqlPredicate<T> predicate, String tableName) throws SQLException {
+		return prepare(statement, predicate, tableName).executeUpdate();
+	}
+
+	/**
+	 * @return the number of statements which are currently kept open.
+	 */
+	public int getStatementCount() {
+		return statements.size();
+	}
+
+	private PreparedStatement getStatement(String sql) throws SQLException {
+		var statement = statements.get(sql);
+		if (statement != null && !statement.isClosed()) {
+			return statement;
+		}
+
+		if (statement == null && statements.size() >= statementCapacity) {
+			var eldest = statements.entrySet().iterator();
+			var evicted = eldest.next().getValue();
+			eldest.remove();
+			evicted.close();
+		}
+
+		statement = connection.prepareStatement(sql);
+		statements.put(sql, statement);
+		return statement;
+	}
+
+	/**
+	 * Closes all statements of this executor. The connection stays open.
+	 *
+	 * @throws SQLException If a statement cannot be closed. The statements are closed nonetheless.
+	 */
+	@Override
+	public void close() throws SQLException {
+		SQLException exception = null;
+		for (var statement : statements.values()) {
+			try {
+				statement.close();
+			} catch (SQLException e) {
+				if (exception == null) {
+					exception = e;
+				} else {
+					exception.addSuppressed(e);
+				}
+			}
+		}
+
+		statements.clear();
+		if (exception != null) {
+			throw exception;
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package com.github.collinalpert.lambda2sql.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Converts the current row of a {@link ResultSet} to an object.
+ *
+ * @param <R> The type of the object.
+ * @author Collin Alpert
+ */
+@FunctionalInterface
+public interface RowMapper<R> {
+
+	/**
+	 * @param resultSet The result set, positioned at the row to convert. The mapper must not move the cursor.
+	 * @return The object of the row.
+	 * @throws SQLException If a column cannot be read.
+	 */
+	R map(ResultSet resultSet) throws SQLException;
+}
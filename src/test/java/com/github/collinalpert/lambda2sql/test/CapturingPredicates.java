@@ -0,0 +1,13 @@
+package com.github.collinalpert.lambda2sql.test;
+
+import com.github.collinalpert.lambda2sql.functions.SqlPredicate;
+
+/**
+ * Loaded by its own class loader in {@link Lambda2SqlTest}, which counts how often the class file is read.
+ */
+public class CapturingPredicates {
+
+	public static SqlPredicate<IPerson> olderThan(int age) {
+		return p -> p.getAge() > age;
+	}
+}
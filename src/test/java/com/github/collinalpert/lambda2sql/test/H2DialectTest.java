@@ -0,0 +1,102 @@
+package com.github.collinalpert.lambda2sql.test;
+
+import com.github.collinalpert.lambda2sql.*;
+import com.github.collinalpert.lambda2sql.functions.SqlPredicate;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.collinalpert.lambda2sql.SqlFunctions.*;
+
+/**
+ * Runs the SQL of {@link SqlDialect#H2} against an embedded H2 database.
+ */
+class H2DialectTest {
+
+	private static final SqlOptions options = SqlOptions.DEFAULT.withDialect(SqlDialect.H2);
+
+	private static Connection connection;
+
+	@BeforeAll
+	static void createTable() throws SQLException {
+		connection = DriverManager.getConnection("jdbc:h2:mem:lambda2sql");
+		try (var statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE \"person\" (\"id\" BIGINT PRIMARY KEY, \"name\" VARCHAR(50), \"lastName\" VARCHAR(50), \"age\" INT, \"isActive\" BOOLEAN, \"date\" DATE)");
+			statement.execute("INSERT INTO \"person\" VALUES (1, 'Steve', 'O''Brien', 30, TRUE, DATE '2020-02-15')");
+			statement.execute("INSERT INTO \"person\" VALUES (2, 'Donald', 'Duck', 17, FALSE, DATE '2019-12-31')");
+			statement.execute("INSERT INTO \"person\" VALUES (3, 'stella', 'Back\\slash', 45, TRUE, DATE '2020-03-01')");
+		}
+	}
+
+	@AfterAll
+	static void closeConnection() throws SQLException {
+		connection.close();
+	}
+
+	@Test
+	void testLiterals() throws SQLException {
+		var lastName = "O'Brien";
+		Assertions.assertEquals(List.of(1L), select(p -> p.getLastName() == lastName));
+		Assertions.assertEquals(List.of(3L), select(p -> p.getLastName() == "Back\\slash"));
+		Assertions.assertEquals(List.of(2L), select(p -> !p.isActive()));
+	}
+
+	@Test
+	void testDates() throws SQLException {
+		Assertions.assertEquals(List.of(1L, 3L), select(p -> p.getDate().getYear() == 2020));
+		Assertions.assertEquals(List.of(3L), select(p -> p.getDate().getMonthValue() == 3));
+	}
+
+	@Test
+	void testCaseInsensitivePatterns() throws SQLException {
+		Assertions.assertEquals(List.of(1L, 3L), select(p -> startsWithIgnoreCase(p.getName(), "ST")));
+		Assertions.assertEquals(List.of(2L), select(p -> !containsIgnoreCase(p.getName(), "E")));
+	}
+
+	@Test
+	void testArrayParameter() throws SQLException {
+		var ids = Arrays.asList(1L, 3L);
+		SqlPredicate<IPerson> predicate = p -> ids.contains(p.getId());
+		var preparedSql = Lambda2Sql.toPreparedSql(predicate, "person", options.withInListStrategy(InListStrategy.ARRAY_PARAMETER));
+		Assertions.assertEquals("\"person\".\"id\" = ANY(?)", preparedSql.getSql());
+		Assertions.assertEquals(List.of(1L, 3L), select(preparedSql));
+	}
+
+	@Test
+	void testEmptyInList() throws SQLException {
+		var ids = new ArrayList<Long>();
+		Assertions.assertEquals(List.of(), select(p -> ids.contains(p.getId())));
+		Assertions.assertEquals(List.of(1L, 3L), select(p -> !ids.contains(p.getId()) && p.isActive()));
+		Assertions.assertEquals(List.of(), select(Lambda2Sql.toPreparedSql((SqlPredicate<IPerson>) p -> ids.contains(p.getId()), "person", options)));
+	}
+
+	private List<Long> select(SqlPredicate<IPerson> predicate) throws SQLException {
+		return select(Lambda2Sql.toSql(predicate, "person", options), List.of());
+	}
+
+	private List<Long> select(PreparedSql preparedSql) throws SQLException {
+		return select(preparedSql.getSql(), preparedSql.getParameters());
+	}
+
+	private List<Long> select(String where, List<SqlParameter> parameters) throws SQLException {
+		try (var statement = connection.prepareStatement("SELECT \"id\" FROM \"person\" WHERE " + where + " ORDER BY \"id\"")) {
+			for (int i = 0; i < parameters.size(); i++) {
+				statement.setObject(i + 1, parameters.get(i).getValue());
+			}
+
+			var ids = new ArrayList<Long>();
+			try (var resultSet = statement.executeQuery()) {
+				while (resultSet.next()) {
+					ids.add(resultSet.getLong(1));
+				}
+			}
+
+			return ids;
+		}
+	}
+}
@@ -0,0 +1,10 @@
+package com.github.collinalpert.lambda2sql.test;
+
+/**
+ * @author Collin Alpert
+ */
+public interface IOrder {
+	int getTotal();
+
+	String getStatus();
+}
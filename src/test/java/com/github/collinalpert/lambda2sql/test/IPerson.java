@@ -1,6 +1,9 @@
 package com.github.collinalpert.lambda2sql.test;
 
+import com.github.collinalpert.lambda2sql.Column;
+
 import java.time.*;
+import java.util.List;
 
 public interface IPerson {
 	long getId();
@@ -13,16 +16,27 @@ public interface IPerson {
 
 	int getHeight();
 
+	double getWeight();
+
+	char getInitial();
+
 	boolean isActive();
 
 	ICar getCar();
 
+	IPerson getManager();
+
+	List<IOrder> getOrders();
+
 	LocalDate getDate();
 
 	LocalTime getTime();
 
 	LocalDateTime getDateTime();
 
+	@Column("place_of_birth")
+	String getBirthPlace();
+
 	default boolean isAdult() {
 		return getAge() >= 18;
 	}
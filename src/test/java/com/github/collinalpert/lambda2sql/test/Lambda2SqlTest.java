@@ -1,12 +1,21 @@
 package com.github.collinalpert.lambda2sql.test;
 
-import com.github.collinalpert.lambda2sql.Lambda2Sql;
+import com.github.collinalpert.lambda2sql.*;
 import com.github.collinalpert.lambda2sql.functions.*;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.StringWriter;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.*;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static com.github.collinalpert.lambda2sql.SqlFunctions.*;
 
@@ -89,6 +98,93 @@ class Lambda2SqlTest implements Serializable {
 		assertPredicateEqual("((`person`.`name` = 'Donald' OR `person`.`age` = 80) AND `person`.`name` = 'Steve' AND `person`.`date` > '1984-01-01' OR !`person`.`isActive`) OR `person`.`height` < 150", personPredicate);
 	}
 
+	@Test
+	void testSimplification() {
+		var options = SqlOptions.DEFAULT.withSimplification(true);
+		var age = 80;
+		var name = "Steve";
+		var localDate = LocalDate.of(1984, 1, 1);
+		SqlPredicate<IPerson> isAdult = IPerson::isAdult;
+		SqlPredicate<IPerson> nameOrAge = p -> p.getName().equals("Donald") || p.getAge() == age;
+		SqlPredicate<IPerson> composed = nameOrAge.and(p -> p.getName() == name).and(p -> p.getDate().isAfter(localDate)).or(p -> !p.isActive()).or(p -> p.getHeight() < 150);
+
+		Assertions.assertEquals("`person`.`isAdult`", Lambda2Sql.toSql(isAdult.and(x -> true), "person", options));
+		Assertions.assertEquals("`person`.`isAdult`", Lambda2Sql.toSql(isAdult.and(isAdult), "person", options));
+		Assertions.assertEquals("true", Lambda2Sql.toSql(isAdult.or(x -> true), "person", options));
+		Assertions.assertEquals("false", Lambda2Sql.toSql(isAdult.and(x -> false), "person", options));
+		Assertions.assertEquals("(`person`.`name` = 'Donald' OR `person`.`age` = 80) AND `person`.`isAdult`", Lambda2Sql.toSql(nameOrAge.and(isAdult), "person", options));
+		Assertions.assertEquals("(`person`.`name` = 'Donald' OR `person`.`age` = 80) AND `person`.`name` = 'Steve' AND `person`.`date` > '1984-01-01' OR !`person`.`isActive` OR `person`.`height` < 150", Lambda2Sql.toSql(composed, "person", options));
+
+		var prepared = Lambda2Sql.toPreparedSql(ageIs(80).or(ageIs(80)).or(ageIs(18)), "person", options);
+		Assertions.assertEquals("`person`.`age` = ? OR `person`.`age` = ?", prepared.getSql());
+		Assertions.assertEquals(Arrays.asList(80, 18), prepared.getParameters().stream().map(SqlParameter::getValue).collect(Collectors.toList()));
+	}
+
+	@Test
+	void testFingerprint() {
+		var fingerprint = Lambda2Sql.toPreparedSql(idIn(Arrays.asList(1L, 2L)), "person").getFingerprint();
+		Assertions.assertEquals(fingerprint, Lambda2Sql.toPreparedSql(idIn(Arrays.asList(3L, 4L, 5L)), "person").getFingerprint());
+		Assertions.assertEquals(fingerprint, Lambda2Sql.toPreparedSql(idIn(Collections.singletonList(6L)), "person").getFingerprint());
+		Assertions.assertNotEquals(fingerprint, Lambda2Sql.toPreparedSql(idIn(Arrays.asList(1L, 2L)), "car").getFingerprint());
+		Assertions.assertNotEquals(fingerprint, Lambda2Sql.toPreparedSql(idIn(Arrays.asList(1L, 2L)), "person", SqlOptions.DEFAULT.withDialect(SqlDialect.POSTGRESQL)).getFingerprint());
+		Assertions.assertNotEquals(fingerprint, Lambda2Sql.toPreparedSql(idIn(Collections.emptyList()), "person").getFingerprint());
+
+		var padded = SqlOptions.DEFAULT.withInListStrategy(InListStrategy.EXPAND.withPadding());
+		Assertions.assertEquals(fingerprint, Lambda2Sql.toPreparedSql(idIn(Arrays.asList(1L, 2L, 3L)), "person", padded).getFingerprint());
+		var chunked = SqlOptions.DEFAULT.withInListStrategy(InListStrategy.chunked(2));
+		Assertions.assertNotEquals(Lambda2Sql.toPreparedSql(idIn(Arrays.asList(1L, 2L)), "person", chunked).getFingerprint(),
+				Lambda2Sql.toPreparedSql(idIn(Arrays.asList(1L, 2L, 3L)), "person", chunked).getFingerprint());
+
+		var steve = Lambda2Sql.toPreparedSql(nameOrLastName("Steve", "T"), "person");
+		Assertions.assertEquals(steve.getFingerprint(), Lambda2Sql.toPreparedSql(nameOrLastName("Donald", "D"), "person").getFingerprint());
+		Assertions.assertNotEquals(steve.getFingerprint(), Lambda2Sql.toPreparedSql(nameOrLastName("Donald", null), "person").getFingerprint());
+	}
+
+	@Test
+	void testTranslationListener() {
+		var metrics = new ArrayList<TranslationMetrics>();
+		TranslationListener listener = metrics::add;
+		Lambda2Sql.clearCache();
+		Lambda2Sql.addTranslationListener(listener);
+		try {
+			assertPredicateEqual("`person`.`name` LIKE 'Steve%' OR `person`.`lastName` = 'T'", nameOrLastName("Steve", "T"));
+			assertPredicateEqual("`person`.`name` LIKE 'Donald%' OR `person`.`lastName` = 'D'", nameOrLastName("Donald", "D"));
+		} finally {
+			Assertions.assertTrue(Lambda2Sql.removeTranslationListener(listener));
+		}
+
+		Assertions.assertEquals(2, metrics.size());
+		Assertions.assertFalse(metrics.get(0).isCacheHit());
+		Assertions.assertTrue(metrics.get(1).isCacheHit());
+		Assertions.assertEquals(0, metrics.get(1).getParseNanos());
+		Assertions.assertEquals(2, metrics.get(1).getCapturedArgumentCount());
+		Assertions.assertEquals("`person`.`name` LIKE 'Donald%' OR `person`.`lastName` = 'D'".length(), metrics.get(1).getOutputLength());
+		Assertions.assertTrue(metrics.get(0).getImplementationMethod().startsWith(Lambda2SqlTest.class.getName() + ".lambda$"));
+
+		assertPredicateEqual("`person`.`isAdult`", IPerson::isAdult);
+		Assertions.assertEquals(2, metrics.size());
+	}
+
+	@Test
+	void testFlightRecorderEvent(@TempDir Path directory) throws IOException {
+		var file = directory.resolve("translations.jfr");
+		try (var recording = new Recording()) {
+			recording.enable("com.github.collinalpert.lambda2sql.Translation");
+			recording.start();
+			assertPredicateEqual("`person`.`name` LIKE 'Steve%' OR `person`.`lastName` = 'T'", nameOrLastName("Steve", "T"));
+			recording.stop();
+			recording.dump(file);
+		}
+
+		var events = RecordingFile.readAllEvents(file);
+		Assertions.assertEquals(1, events.size());
+		Assertions.assertEquals("Lambda Translation", events.get(0).getEventType().getLabel());
+		Assertions.assertTrue(events.get(0).getString("implementationMethod").startsWith(Lambda2SqlTest.class.getName() + ".lambda$"));
+		Assertions.assertEquals(2, events.get(0).getInt("capturedArgumentCount"));
+		Assertions.assertEquals("`person`.`name` LIKE 'Steve%' OR `person`.`lastName` = 'T'".length(), events.get(0).getInt("outputLength"));
+		Assertions.assertFalse(events.get(0).getBoolean("isPrepared"));
+	}
+
 	@Test
 	void testNestedProperties() {
 		SqlPredicate<IPerson> p = person -> person.getCar().getModel() == "Mercedes";
@@ -212,6 +308,50 @@ class Lambda2SqlTest implements Serializable {
 		assertPredicateEqual("`person`.`id` NOT IN (3, 6, 9, 12)", person -> !ids3.contains(person.getId()));
 	}
 
+	@Test
+	void testInListStrategies() {
+		var names = new TreeSet<>(Arrays.asList("O'Brien", "Steve"));
+		var ages = new int[]{18, 21};
+		var ids = new long[]{1, 2, 3, 4, 5};
+		assertPredicateEqual("`person`.`name` IN ('O\\'Brien', 'Steve')", person -> names.contains(person.getName()));
+		assertPredicateEqual("`person`.`age` NOT IN (18, 21)", person -> !SqlFunctions.in(person.getAge(), ages));
+		assertPredicateEqual("`person`.`id` IN (1, 2, 3, 4, 5)", person -> SqlFunctions.in(person.getId(), ids));
+
+		SqlPredicate<IPerson> idIn = person -> SqlFunctions.in(person.getId(), ids);
+		var chunked = SqlOptions.DEFAULT.withInListStrategy(InListStrategy.chunked(2));
+		Assertions.assertEquals("(`person`.`id` IN (1, 2) OR `person`.`id` IN (3, 4) OR `person`.`id` IN (5))", Lambda2Sql.toSql(idIn, "person", chunked));
+		SqlPredicate<IPerson> ageNotIn = person -> !SqlFunctions.in(person.getAge(), ages);
+		Assertions.assertEquals("(`person`.`age` NOT IN (18) AND `person`.`age` NOT IN (21))", Lambda2Sql.toSql(ageNotIn, "person", SqlOptions.DEFAULT.withInListStrategy(InListStrategy.chunked(1))));
+
+		var padded = Lambda2Sql.toPreparedSql(idIn, "person", SqlOptions.DEFAULT.withInListStrategy(InListStrategy.EXPAND.withPadding()));
+		Assertions.assertEquals("`person`.`id` IN (?, ?, ?, ?, ?, ?, ?, ?)", padded.getSql());
+		Assertions.assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L, 5L, 5L, 5L), padded.getParameters().stream().map(SqlParameter::getValue).collect(Collectors.toList()));
+
+		var array = Lambda2Sql.toPreparedSql(idIn, "person", SqlOptions.DEFAULT.withInListStrategy(InListStrategy.ARRAY_PARAMETER).withDialect(SqlDialect.POSTGRESQL));
+		Assertions.assertEquals("\"person\".\"id\" = ANY(?)", array.getSql());
+		Assertions.assertSame(ids, array.getParameters().get(0).getValue());
+		Assertions.assertEquals(long[].class, array.getParameters().get(0).getType());
+		var namesArray = Lambda2Sql.toPreparedSql((SqlPredicate<IPerson>) person -> names.contains(person.getName()), "person", SqlOptions.DEFAULT.withInListStrategy(InListStrategy.ARRAY_PARAMETER).withDialect(SqlDialect.POSTGRESQL));
+		Assertions.assertEquals(Object[].class, namesArray.getParameters().get(0).getType());
+		Assertions.assertEquals("`person`.`id` IN (?, ?, ?, ?, ?)", Lambda2Sql.toPreparedSql(idIn, "person", SqlOptions.DEFAULT.withInListStrategy(InListStrategy.ARRAY_PARAMETER)).getSql());
+	}
+
+	@Test
+	void testEmptyInList() {
+		var names = new ArrayList<String>();
+		var ids = new long[0];
+		assertPredicateEqual("1 = 0", person -> names.contains(person.getName()));
+		assertPredicateEqual("1 = 1 AND `person`.`age` > 18", person -> !SqlFunctions.in(person.getId(), ids) && person.getAge() > 18);
+		assertPreparedEqual("1 = 0 OR `person`.`age` > 18", Collections.emptyList(), person -> SqlFunctions.in(person.getId(), ids) || person.getAge() > 18);
+
+		// A template compiled for an empty list renders a list once the collection has elements, and the other way around.
+		names.add("Steve");
+		assertPredicateEqual("`person`.`name` IN ('Steve')", person -> names.contains(person.getName()));
+		Assertions.assertEquals("1 = 0", Lambda2Sql.toSql(idIn(List.of()), "person"));
+		Assertions.assertEquals("`person`.`id` IN (1)", Lambda2Sql.toSql(idIn(List.of(1L)), "person"));
+		Assertions.assertEquals("1 = 0", Lambda2Sql.toSql(idIn(List.of()), "person"));
+	}
+
 	@Test
 	void testLastParameterNull() {
 		String s = null;
@@ -242,6 +382,93 @@ class Lambda2SqlTest implements Serializable {
 		assertPredicateEqual("LENGTH(`person`.`name`) > 6", lengthPredicate);
 	}
 
+	@Test
+	void testDateRangeRewrite() {
+		var options = SqlOptions.DEFAULT.withDateRangeRewrite(true);
+		var year = 2020;
+		var from = LocalDate.of(2020, 1, 1);
+		var to = LocalDate.of(2020, 12, 31);
+		SqlPredicate<IPerson> equal = p -> p.getDate().getYear() == 2020 && p.getName() == "Steve";
+		SqlPredicate<IPerson> notEqual = p -> p.getDate().getYear() != year;
+		SqlPredicate<IPerson> greater = p -> p.getDateTime().getYear() > year;
+		SqlPredicate<IPerson> atMost = p -> 2020 >= p.getDate().getYear();
+		SqlPredicate<IPerson> month = p -> p.getDate().getMonthValue() <= 10;
+		SqlPredicate<IPerson> column = p -> p.getDate().getYear() == p.getAge();
+		SqlPredicate<IPerson> between = p -> between(p.getDate(), from, to);
+
+		Assertions.assertEquals("(`person`.`date` >= '2020-01-01' AND `person`.`date` < '2021-01-01') AND `person`.`name` = 'Steve'", Lambda2Sql.toSql(equal, "person", options));
+		Assertions.assertEquals("`person`.`date` < '2020-01-01' OR `person`.`date` >= '2021-01-01'", Lambda2Sql.toSql(notEqual, "person", options));
+		Assertions.assertEquals("`person`.`dateTime` >= '2021-01-01T00:00'", Lambda2Sql.toSql(greater, "person", options));
+		Assertions.assertEquals("`person`.`date` < '2021-01-01'", Lambda2Sql.toSql(atMost, "person", options));
+		Assertions.assertEquals("MONTH(`person`.`date`) <= 10", Lambda2Sql.toSql(month, "person", options));
+		Assertions.assertEquals("YEAR(`person`.`date`) = `person`.`age`", Lambda2Sql.toSql(column, "person", options));
+		Assertions.assertEquals("YEAR(`person`.`date`) = 2020 AND `person`.`name` = 'Steve'", Lambda2Sql.toSql(equal, "person"));
+		Assertions.assertEquals("`person`.`date` BETWEEN '2020-01-01' AND '2020-12-31'", Lambda2Sql.toSql(between, "person"));
+
+		Assertions.assertEquals("`person`.`date` >= '2020-02-01' AND `person`.`date` < '2020-03-01'", Lambda2Sql.toSql(inMonth(2020, 2), "person", options));
+		Assertions.assertEquals("`person`.`date` >= '2020-12-01' AND `person`.`date` < '2021-01-01'", Lambda2Sql.toSql(inMonth(2020, 12), "person", options));
+		Assertions.assertEquals("`person`.`date` >= '2020-12-01' AND `person`.`date` < '2021-01-01'", Lambda2Sql.toSql(inMonth(2020, 12), "person", options.withSimplification(true)));
+
+		var prepared = Lambda2Sql.toPreparedSql(inMonth(2019, 6), "person", options);
+		Assertions.assertEquals("`person`.`date` >= ? AND `person`.`date` < ?", prepared.getSql());
+		Assertions.assertEquals(Arrays.asList(LocalDate.of(2019, 6, 1), LocalDate.of(2019, 7, 1)), prepared.getParameters().stream().map(SqlParameter::getValue).collect(Collectors.toList()));
+	}
+
+	@Test
+	void testDialects() {
+		var name = "O'Brien";
+		SqlPredicate<IPerson> predicate = p -> p.getLastName() == name && !p.isActive();
+		SqlPredicate<IPerson> backslash = p -> p.getName() == "C:\\";
+		SqlPredicate<IPerson> dates = p -> p.getDate().getYear() == 2020 && p.getDateTime().getSecond() > 30;
+		SqlPredicate<IPerson> ignoreCase = p -> startsWithIgnoreCase(p.getName(), "st") && !containsIgnoreCase(p.getLastName(), "x");
+
+		Assertions.assertEquals("`person`.`lastName` = 'O\\'Brien' AND !`person`.`isActive`", Lambda2Sql.toSql(predicate, "person", SqlDialect.MYSQL));
+		for (int i = 0; i < 2; i++) {
+			Assertions.assertEquals("\"person\".\"lastName\" = 'O''Brien' AND NOT \"person\".\"isActive\"", Lambda2Sql.toSql(predicate, "person", SqlDialect.POSTGRESQL));
+		}
+
+		Assertions.assertEquals("lastName = 'O''Brien' AND NOT isActive", Lambda2Sql.toSql(predicate, null, SqlDialect.H2));
+
+		Assertions.assertEquals("`person`.`name` = 'C:\\\\'", Lambda2Sql.toSql(backslash, "person"));
+		Assertions.assertEquals("\"person\".\"name\" = 'C:\\'", Lambda2Sql.toSql(backslash, "person", SqlDialect.POSTGRESQL));
+
+		Assertions.assertEquals("YEAR(`person`.`date`) = 2020 AND SECOND(`person`.`dateTime`) > 30", Lambda2Sql.toSql(dates, "person", SqlDialect.MYSQL));
+		Assertions.assertEquals("EXTRACT(YEAR FROM \"person\".\"date\") = 2020 AND FLOOR(EXTRACT(SECOND FROM \"person\".\"dateTime\")) > 30", Lambda2Sql.toSql(dates, "person", SqlDialect.POSTGRESQL));
+		Assertions.assertEquals("EXTRACT(YEAR FROM \"person\".\"date\") = 2020 AND EXTRACT(SECOND FROM \"person\".\"dateTime\") > 30", Lambda2Sql.toSql(dates, "person", SqlDialect.H2));
+
+		Assertions.assertEquals("LOWER(`person`.`name`) LIKE LOWER('st%') AND LOWER(`person`.`lastName`) NOT LIKE LOWER('%x%')", Lambda2Sql.toSql(ignoreCase, "person", SqlDialect.MYSQL));
+		Assertions.assertEquals("\"person\".\"name\" ILIKE 'st%' AND \"person\".\"lastName\" NOT ILIKE '%x%'", Lambda2Sql.toSql(ignoreCase, "person", SqlDialect.POSTGRESQL));
+
+		var arrayOptions = SqlOptions.DEFAULT.withInListStrategy(InListStrategy.ARRAY_PARAMETER);
+		Assertions.assertEquals("`person`.`id` IN (?, ?)", Lambda2Sql.toPreparedSql(idIn(Arrays.asList(1L, 2L)), "person", arrayOptions).getSql());
+		Assertions.assertEquals("\"person\".\"id\" = ANY(?)", Lambda2Sql.toPreparedSql(idIn(Arrays.asList(1L, 2L)), "person", arrayOptions.withDialect(SqlDialect.POSTGRESQL)).getSql());
+	}
+
+	@Test
+	void testKeysetPagination() {
+		var pagination = KeysetPagination.<IPerson>orderBy(IPerson::getLastName).thenByDescending(IPerson::getId);
+		var lastValues = Arrays.<Object>asList("Smith", 42L);
+		Assertions.assertEquals("`person`.`lastName` ASC, `person`.`id` DESC", pagination.toOrderBy("person"));
+
+		var seek = pagination.toSeekPredicate(lastValues, "person");
+		Assertions.assertEquals("(`person`.`lastName` > ? OR (`person`.`lastName` = ? AND `person`.`id` < ?))", seek.getSql());
+		Assertions.assertEquals(Arrays.asList("Smith", "Smith", 42L), seek.getParameters().stream().map(SqlParameter::getValue).collect(Collectors.toList()));
+
+		var age = 18;
+		var page = pagination.toSeekPredicate(p -> p.getAge() > age, lastValues, "person");
+		Assertions.assertEquals("(`person`.`age` > ?) AND (`person`.`lastName` > ? OR (`person`.`lastName` = ? AND `person`.`id` < ?))", page.getSql());
+		Assertions.assertEquals(Arrays.asList(18, "Smith", "Smith", 42L), page.getParameters().stream().map(SqlParameter::getValue).collect(Collectors.toList()));
+		Assertions.assertEquals("`person`.`age` > ?", pagination.toSeekPredicate(p -> p.getAge() > age, null, "person").getSql());
+
+		var ascending = KeysetPagination.<IPerson>orderBy(IPerson::getLastName).thenBy(IPerson::getId);
+		Assertions.assertEquals("(`person`.`lastName` > ? OR (`person`.`lastName` = ? AND `person`.`id` > ?))", ascending.toSeekPredicate(lastValues, "person").getSql());
+		Assertions.assertEquals("(\"person\".\"lastName\", \"person\".\"id\") > (?, ?)", ascending.toSeekPredicate(lastValues, "person", SqlOptions.DEFAULT.withDialect(SqlDialect.POSTGRESQL)).getSql());
+		Assertions.assertEquals("`person`.`id` < ?", KeysetPagination.<IPerson>orderByDescending(IPerson::getId).toSeekPredicate(Collections.singletonList(42L), "person").getSql());
+
+		Assertions.assertThrows(IllegalArgumentException.class, () -> pagination.toSeekPredicate(Collections.singletonList("Smith"), "person"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> pagination.toSeekPredicate(Arrays.asList("Smith", null), "person"));
+	}
+
 	@Test
 	void testSqlFunctions() {
 		var name = "Steve";
@@ -255,16 +482,559 @@ class Lambda2SqlTest implements Serializable {
 		assertPredicateEqual("MAX(`person`.`age`) = 1250 OR `person`.`name` LIKE 'Steve%'", maxPredicate);
 	}
 
+	@Test
+	void testGrouping() {
+		var minimum = 5L;
+		var grouping = Grouping.<IPerson>by(IPerson::getLastName).thenBy(IPerson::getHeight).having(p -> count() > minimum).having(p -> avg(p.getAge()) >= 30);
+		List<SqlFunction<IPerson, ?>> aggregates = List.of(p -> count(), p -> countDistinct(p.getName()), p -> avg(p.getAge()));
+
+		Assertions.assertEquals("`person`.`lastName`, `person`.`height`", grouping.toGroupBy("person"));
+		Assertions.assertEquals("`person`.`lastName`, `person`.`height`, COUNT(*), COUNT(DISTINCT `person`.`name`), AVG(`person`.`age`)", grouping.toSelectList(aggregates, "person"));
+		Assertions.assertEquals("COUNT(*) > 5 AND AVG(`person`.`age`) >= 30.0", grouping.toHaving("person"));
+
+		var having = grouping.toPreparedHaving("person");
+		Assertions.assertEquals("COUNT(*) > ? AND AVG(`person`.`age`) >= 30.0", having.getSql());
+		Assertions.assertEquals(Collections.singletonList(5L), having.getParameters().stream().map(SqlParameter::getValue).collect(Collectors.toList()));
+
+		assertPredicateEqual("COUNT(`person`.`id`) > 1", p -> count(p.getId()) > 1);
+		Assertions.assertFalse(Grouping.<IPerson>by(IPerson::getLastName).hasHaving());
+		Assertions.assertThrows(IllegalStateException.class, () -> Grouping.<IPerson>by(IPerson::getLastName).toHaving("person"));
+	}
+
+	@Test
+	void testColumnarFilter() {
+		var table = ColumnarTable.of(5)
+				.withColumn("id", new long[]{1, 2, 3, 4, 5})
+				.withColumn("age", new int[]{17, 18, 42, 12, 18})
+				.withColumn("name", new String[]{"Steve", "Donald", null, "Stella", "Steve"})
+				.withColumn("isActive", new boolean[]{true, true, false, true, false});
+
+		var ids = List.of(2L, 3L);
+		var minimum = 40;
+		var ages = new int[]{12, 42};
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b00010}), ColumnarFilter.<IPerson>compile(p -> p.getAge() >= 18 && p.isActive()).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b11111}), ColumnarFilter.<IPerson>compile(p -> p.getName().startsWith("Ste") || ids.contains(p.getId())).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b10100}), ColumnarFilter.<IPerson>compile(p -> !p.isActive()).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b00010}), ColumnarFilter.<IPerson>compile(p -> p.getName() == "Donald").filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b00100}), ColumnarFilter.<IPerson>compile(p -> p.getName() == null).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b00100}), ColumnarFilter.<IPerson>compile(p -> p.getAge() > minimum).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b10011}), ColumnarFilter.compile(ageIs(18).or(ageIs(17))).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b00100}), ColumnarFilter.<IPerson>compile(p -> 18 < p.getAge()).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b01100}), ColumnarFilter.<IPerson>compile(p -> in(p.getAge(), ages)).filter(table));
+
+		var rowCount = 200_000;
+		var largeIds = new long[rowCount];
+		for (int i = 0; i < rowCount; i++) {
+			largeIds[i] = i;
+		}
+
+		var selection = ColumnarFilter.<IPerson>compile(p -> p.getId() >= 150_000 && p.getId() != 199_999).filter(ColumnarTable.of(rowCount).withColumn("id", largeIds));
+		Assertions.assertEquals(49_999, selection.cardinality());
+		Assertions.assertEquals(150_000, selection.nextSetBit(0));
+		Assertions.assertFalse(selection.get(199_999));
+
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ColumnarFilter.<IPerson>compile(p -> p.getHeight() > 180).filter(table));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> table.withColumn("height", new int[3]));
+	}
+
+	@Test
+	void testColumnarFilterDoubleColumn() {
+		var table = ColumnarTable.of(5).withColumn("weight", new double[]{60.5, 72.0, Double.NaN, 80.25, 72.0});
+
+		var limit = 72;
+		var weights = List.of(72.0, 80.25);
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b01000}), ColumnarFilter.<IPerson>compile(p -> p.getWeight() > 72).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b10011}), ColumnarFilter.<IPerson>compile(p -> p.getWeight() <= 72.0).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b10011}), ColumnarFilter.<IPerson>compile(p -> p.getWeight() >= 60.5 && p.getWeight() < 80.25).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b10010}), ColumnarFilter.<IPerson>compile(p -> p.getWeight() == limit).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b01101}), ColumnarFilter.<IPerson>compile(p -> p.getWeight() != 72).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b11010}), ColumnarFilter.<IPerson>compile(p -> weights.contains(p.getWeight())).filter(table));
+	}
+
+	@Test
+	void testColumnarFilterObjectColumns() {
+		var table = ColumnarTable.of(5)
+				.withColumn("id", new Long[]{1L, 2L, 3L, null, 5L})
+				.withColumn("age", new Integer[]{17, null, 42, 12, 18})
+				.withColumn("initial", new Character[]{'S', 'D', null, 'M', 'A'})
+				.withColumn("name", new String[]{"Steve", "Donald", null, "Stella", "Marvin"});
+
+		var minimum = 2;
+		var letter = 'M';
+		var names = Set.of("Steve", "Marvin");
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b10100}), ColumnarFilter.<IPerson>compile(p -> p.getAge() >= 18).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b01001}), ColumnarFilter.<IPerson>compile(p -> p.getAge() < 18).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b10100}), ColumnarFilter.<IPerson>compile(p -> p.getId() > minimum).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b01001}), ColumnarFilter.<IPerson>compile(p -> p.getInitial() >= 'M').filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b10010}), ColumnarFilter.<IPerson>compile(p -> p.getInitial() < letter).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b00001}), ColumnarFilter.<IPerson>compile(p -> p.getName().endsWith("ve")).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b01000}), ColumnarFilter.<IPerson>compile(p -> p.getName().contains("ll")).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b10001}), ColumnarFilter.<IPerson>compile(p -> names.contains(p.getName())).filter(table));
+	}
+
+	@Test
+	void testColumnarFilterBounds() {
+		var table = ColumnarTable.of(5)
+				.withColumn("id", new long[]{Long.MIN_VALUE, -1, 0, 1, Long.MAX_VALUE})
+				.withColumn("age", new int[]{17, 18, 42, 12, 18});
+
+		var nan = Double.NaN;
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b01101}), ColumnarFilter.<IPerson>compile(p -> p.getAge() != 18).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b11011}), ColumnarFilter.<IPerson>compile(p -> p.getId() != 0).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b10110}), ColumnarFilter.<IPerson>compile(p -> p.getAge() > 17.5).filter(table));
+		Assertions.assertEquals(new BitSet(), ColumnarFilter.<IPerson>compile(p -> p.getAge() == 17.5).filter(table));
+
+		Assertions.assertEquals(new BitSet(), ColumnarFilter.<IPerson>compile(p -> p.getId() > 1e19).filter(table));
+		Assertions.assertEquals(new BitSet(), ColumnarFilter.<IPerson>compile(p -> p.getId() < -1e19).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b11111}), ColumnarFilter.<IPerson>compile(p -> p.getId() >= -1e19).filter(table));
+		Assertions.assertEquals(new BitSet(), ColumnarFilter.<IPerson>compile(p -> p.getId() > Long.MAX_VALUE).filter(table));
+		Assertions.assertEquals(new BitSet(), ColumnarFilter.<IPerson>compile(p -> p.getId() < Long.MIN_VALUE).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b10000}), ColumnarFilter.<IPerson>compile(p -> p.getId() >= Long.MAX_VALUE).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b00001}), ColumnarFilter.<IPerson>compile(p -> p.getId() <= Long.MIN_VALUE).filter(table));
+		Assertions.assertEquals(new BitSet(), ColumnarFilter.<IPerson>compile(p -> p.getId() == nan).filter(table));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{0b11111}), ColumnarFilter.<IPerson>compile(p -> p.getId() != nan).filter(table));
+	}
+
+	@Test
+	void testCompositePredicate() {
+		var name = "Steve";
+		List<SqlPredicate<IPerson>> criteria = new ArrayList<>();
+		criteria.add(p -> p.getName() == name);
+		criteria.add(ageIs(18).or(ageIs(80)));
+		criteria.add(p -> p.getHeight() > 150 || p.isActive());
+		for (int i = 0; i < 50; i++) {
+			criteria.add(ageIs(i));
+		}
+
+		var allOf = SqlPredicate.allOf(criteria);
+		var sql = Lambda2Sql.toSql(allOf, "person");
+		Assertions.assertTrue(sql.startsWith("`person`.`name` = 'Steve' AND (`person`.`age` = 18 OR `person`.`age` = 80) AND (`person`.`height` > 150 OR `person`.`isActive`) AND `person`.`age` = 0 AND "));
+		Assertions.assertTrue(sql.endsWith(" AND `person`.`age` = 49"));
+
+		var prepared = Lambda2Sql.toPreparedSql(SqlPredicate.<IPerson>anyOf(List.of(p -> p.getName() == name, ageIs(18))).and(p -> p.isActive()), "person");
+		Assertions.assertEquals("(`person`.`name` = ? OR `person`.`age` = ?) AND `person`.`isActive`", prepared.getSql());
+		Assertions.assertEquals(Arrays.asList("Steve", 18), prepared.getParameters().stream().map(SqlParameter::getValue).collect(Collectors.toList()));
+
+		var flattened = (CompositePredicate<IPerson>) SqlPredicate.allOf(List.of(ageIs(1), ageIs(2))).and(ageIs(3)).and(ageIs(4));
+		Assertions.assertEquals(4, flattened.getOperands().size());
+		assertPredicateEqual("`person`.`age` = 1 AND `person`.`age` = 2 AND `person`.`age` = 3 AND `person`.`age` = 4", flattened);
+		assertPredicateEqual("true", SqlPredicate.allOf(List.of()));
+		assertPredicateEqual("false", SqlPredicate.anyOf(List.of()));
+
+		SqlPredicate<IPerson> quoted = p -> p.getName() == "Smith OR Jones";
+		SqlPredicate<IPerson> nested = p -> p.isActive() && (p.getAge() == 1 || p.getAge() == 2);
+		var structured = SqlPredicate.allOf(List.of(quoted, nested));
+		var structuredSql = "`person`.`name` = 'Smith OR Jones' AND `person`.`isActive` AND (`person`.`age` = 1 OR `person`.`age` = 2)";
+		assertPredicateEqual(structuredSql, structured);
+		assertPredicateEqual("(`person`.`age` = 1 OR `person`.`age` = 2) AND `person`.`isActive`", SqlPredicate.allOf(List.of(SqlPredicate.anyOf(List.of(ageIs(1), ageIs(2))), p -> p.isActive())));
+		assertPredicateEqual("`person`.`age` = 1 OR `person`.`age` = 2", SqlPredicate.allOf(List.of(SqlPredicate.anyOf(List.of(ageIs(1), ageIs(2))))));
+
+		var simplifying = SqlOptions.DEFAULT.withSimplification(true);
+		Assertions.assertEquals("`person`.`age` = 1", Lambda2Sql.toSql(SqlPredicate.allOf(List.of(ageIs(1), ageIs(1))), "person", simplifying));
+		Assertions.assertEquals("`person`.`age` = 1 AND `person`.`isActive`", Lambda2Sql.toSql(SqlPredicate.<IPerson>anyOf(List.of(p -> false, ageIs(1))).and(p -> p.isActive()), "person", simplifying));
+
+		var metrics = new ArrayList<TranslationMetrics>();
+		TranslationListener listener = metrics::add;
+		Lambda2Sql.addTranslationListener(listener);
+		try {
+			Lambda2Sql.toSql(structured, "person");
+			Lambda2Sql.toSql(structured, "person", simplifying);
+		} finally {
+			Assertions.assertTrue(Lambda2Sql.removeTranslationListener(listener));
+		}
+
+		Assertions.assertEquals(2, metrics.size());
+		Assertions.assertTrue(metrics.get(0).isCacheHit());
+		Assertions.assertEquals(structuredSql.length(), metrics.get(0).getOutputLength());
+		Assertions.assertNull(metrics.get(0).getImplementationMethod());
+		Assertions.assertFalse(metrics.get(1).isCacheHit());
+
+		Assertions.assertTrue(SqlPredicate.<String>anyOf(List.of(s -> s.isEmpty(), s -> s.startsWith("a"))).test("abc"));
+		Assertions.assertFalse(SqlPredicate.<String>allOf(List.of(s -> s.isEmpty(), s -> s.startsWith("a"))).test("abc"));
+	}
+
+	@Test
+	void testComposedTranslationReusesOperands() {
+		var tenant = 7;
+		SqlPredicate<IPerson> base = p -> p.isActive() || p.getAge() > 18;
+		SqlPredicate<IPerson> tenantFilter = p -> p.getHeight() == tenant;
+		assertPredicateEqual("`person`.`isActive` OR `person`.`age` > 18", base);
+		assertPredicateEqual("`person`.`height` = 7", tenantFilter);
+
+		var metrics = new ArrayList<TranslationMetrics>();
+		TranslationListener listener = metrics::add;
+		Lambda2Sql.addTranslationListener(listener);
+		try {
+			for (int i = 0; i < 2; i++) {
+				assertPredicateEqual("(`person`.`isActive` OR `person`.`age` > 18) AND `person`.`height` = 7 AND `person`.`name` IS NULL", base.and(tenantFilter).and(p -> p.getName() == null));
+			}
+
+			assertPredicateEqual("`person`.`age` = 1 AND (`person`.`age` = 2 OR `person`.`height` = 7)", SqlPredicate.allOf(List.of(ageIs(1), ageIs(2).or(tenantFilter))));
+		} finally {
+			Assertions.assertTrue(Lambda2Sql.removeTranslationListener(listener));
+		}
+
+		Assertions.assertEquals(3, metrics.size());
+		Assertions.assertTrue(metrics.get(0).getImplementationMethod().startsWith(SqlPredicate.class.getName() + ".lambda$and$"));
+		Assertions.assertFalse(metrics.get(0).isCacheHit());
+		Assertions.assertTrue(metrics.get(1).isCacheHit());
+		Assertions.assertEquals(0, metrics.get(1).getParseNanos());
+		Assertions.assertEquals(metrics.get(1).getOutputLength(), metrics.get(0).getOutputLength());
+		Assertions.assertNull(metrics.get(2).getImplementationMethod());
+
+		var prepared = Lambda2Sql.toPreparedSql(base.or(tenantFilter).and(ageIs(30).or(ageIs(40))), "person");
+		Assertions.assertEquals("((`person`.`isActive` OR `person`.`age` > 18) OR `person`.`height` = ?) AND (`person`.`age` = ? OR `person`.`age` = ?)", prepared.getSql());
+		Assertions.assertEquals(Arrays.asList(7, 30, 40), prepared.getParameters().stream().map(SqlParameter::getValue).collect(Collectors.toList()));
+	}
+
+	@Test
+	void testParsedLambdasSurviveClearedCache() {
+		SqlPredicate<IPerson> adult = p -> p.getAge() >= 18 && p.isActive();
+		var sql = Lambda2Sql.toSql(adult, "person");
+		var preparedSql = Lambda2Sql.toPreparedSql(adult, "person").getSql();
+		Lambda2Sql.clearCache();
+
+		Assertions.assertEquals(sql, Lambda2Sql.toSql(adult, "person"));
+		Assertions.assertEquals(preparedSql, Lambda2Sql.toPreparedSql(adult, "person").getSql());
+		Assertions.assertEquals("`person`.`age` >= 18 AND `person`.`isActive`", Lambda2Sql.toSql(adult, "person"));
+		Assertions.assertEquals("age >= 18 AND isActive", Lambda2Sql.toSql(adult));
+		Assertions.assertEquals(ColumnarFilter.compile(adult).filter(ColumnarTable.of(2).withColumn("age", new int[]{18, 17}).withColumn("isActive", new boolean[]{true, true})), BitSet.valueOf(new long[]{1}));
+	}
+
+	@Test
+	void testRelationships() {
+		var relationships = Relationships.NONE.withOne(IPerson::getCar, "car", "carId", "id").withMany(IPerson::getOrders, "order", "id", "personId");
+		var options = SqlOptions.DEFAULT.withRelationships(relationships);
+		SqlPredicate<IOrder> bigOrder = o -> o.getTotal() > 100;
+		SqlPredicate<IOrder> shipped = o -> o.getStatus() == "shipped" || o.getStatus() == "delivered";
+		var exists = "EXISTS (SELECT 1 FROM `order` `order_1` WHERE `order_1`.`personId` = `person`.`id` AND ";
+
+		SqlPredicate<IPerson> mercedes = p -> p.getCar().getModel() == "Mercedes";
+		Assertions.assertEquals("(SELECT `car_1`.`model` FROM `car` `car_1` WHERE `car_1`.`id` = `person`.`carId`) = 'Mercedes'", Lambda2Sql.toSql(mercedes, "person", options));
+		Assertions.assertEquals("car.model = 'Mercedes'", Lambda2Sql.toSql(mercedes, "car", false));
+		Assertions.assertEquals(exists + "`order_1`.`total` > 100)", Lambda2Sql.toSql((SqlPredicate<IPerson>) p -> anyMatch(p.getOrders(), bigOrder), "person", options));
+		Assertions.assertEquals("NOT " + exists + "`order_1`.`total` > 100)", Lambda2Sql.toSql((SqlPredicate<IPerson>) p -> p.getOrders().stream().noneMatch(bigOrder), "person", options));
+		Assertions.assertEquals("NOT " + exists + "NOT (`order_1`.`status` = 'shipped' OR `order_1`.`status` = 'delivered'))", Lambda2Sql.toSql((SqlPredicate<IPerson>) p -> allMatch(p.getOrders(), shipped), "person", options));
+		Assertions.assertEquals("NOT " + exists + "(`order_1`.`status` = 'shipped' OR `order_1`.`status` = 'delivered')) AND `person`.`age` >= 18",
+				Lambda2Sql.toSql((SqlPredicate<IPerson>) p -> !anyMatch(p.getOrders(), shipped) && p.getAge() >= 18, "person", options));
+
+		Assertions.assertThrows(IllegalStateException.class, () -> Lambda2Sql.toSql(mercedes, null, options));
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> Lambda2Sql.toSql((SqlPredicate<IPerson>) p -> anyMatch(p.getOrders(), bigOrder), "person"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> Relationships.NONE.withOne((IPerson p) -> p.getCar(), "car", "carId", "id"));
+		Assertions.assertEquals(options, SqlOptions.DEFAULT.withRelationships(Relationships.NONE.withOne(IPerson::getCar, "car", "carId", "id").withMany(IPerson::getOrders, "order", "id", "personId")));
+		Assertions.assertTrue(allMatch(List.of(), bigOrder));
+		Assertions.assertFalse(anyMatch(List.of(), bigOrder));
+	}
+
+	@Test
+	void testRelationshipsWithInlinePredicates() {
+		var options = SqlOptions.DEFAULT.withRelationships(Relationships.NONE.withMany(IPerson::getOrders, "order", "id", "personId"));
+		var exists = "EXISTS (SELECT 1 FROM `order` `order_1` WHERE `order_1`.`personId` = `person`.`id` AND ";
+
+		Assertions.assertEquals(exists + "`order_1`.`total` > 100)", Lambda2Sql.toSql((SqlPredicate<IPerson>) p -> p.getOrders().stream().anyMatch(o -> o.getTotal() > 100), "person", options));
+		Assertions.assertEquals("NOT " + exists + "NOT (`order_1`.`status` = 'shipped'))", Lambda2Sql.toSql((SqlPredicate<IPerson>) p -> allMatch(p.getOrders(), o -> o.getStatus() == "shipped"), "person", options));
+
+		Assertions.assertEquals(exists + "`order_1`.`total` > 50)", Lambda2Sql.toSql(spentMoreThan(50), "person", options));
+		Assertions.assertEquals(exists + "`order_1`.`total` > 70)", Lambda2Sql.toSql(spentMoreThan(70), "person", options));
+
+		// An inline predicate which captures nothing is part of the template of the lambda, so the match is not parsed again.
+		Assertions.assertEquals("`person`.`age` >= 18 AND " + exists + "`order_1`.`total` > 100)", Lambda2Sql.toSql(adultWithBigOrder(18), "person", options));
+		var hits = Lambda2Sql.getCacheStatistics().getHitCount();
+		Assertions.assertEquals("`person`.`age` >= 21 AND " + exists + "`order_1`.`total` > 100)", Lambda2Sql.toSql(adultWithBigOrder(21), "person", options));
+		Assertions.assertEquals(hits + 1, Lambda2Sql.getCacheStatistics().getHitCount());
+	}
+
+	@Test
+	void testSelfRelationship() {
+		var options = SqlOptions.DEFAULT.withRelationships(Relationships.NONE.withOne(IPerson::getManager, "person", "managerId", "id"));
+		SqlPredicate<IPerson> managedBySteve = p -> p.getManager().getName() == "Steve";
+
+		// The second conversion is rendered from the template cached by the first one, so the alias must not depend on the table name.
+		Assertions.assertEquals("(SELECT `person_1`.`name` FROM `person` `person_1` WHERE `person_1`.`id` = `employee`.`managerId`) = 'Steve'", Lambda2Sql.toSql(managedBySteve, "employee", options));
+		Assertions.assertEquals("(SELECT `person_1`.`name` FROM `person` `person_1` WHERE `person_1`.`id` = `person`.`managerId`) = 'Steve'", Lambda2Sql.toSql(managedBySteve, "person", options));
+		Assertions.assertEquals("(SELECT `person_1`.`name` FROM `person` `person_1` WHERE `person_1`.`id` = (SELECT `person_1`.`managerId` FROM `person` `person_1` WHERE `person_1`.`id` = `person`.`managerId`)) = 'Steve'",
+				Lambda2Sql.toSql((SqlPredicate<IPerson>) p -> p.getManager().getManager().getName() == "Steve", "person", options));
+	}
+
+	@Test
+	void testParsedLambdasAreNotReadAgain() throws Exception {
+		var classLoader = new CountingClassLoader(CapturingPredicates.class.getName());
+		var olderThan = classLoader.loadClass(CapturingPredicates.class.getName()).getMethod("olderThan", int.class);
+
+		Assertions.assertEquals("`person`.`age` > 18", Lambda2Sql.toSql((SqlPredicate<IPerson>) olderThan.invoke(null, 18), "person"));
+		Assertions.assertEquals(1, classLoader.reads);
+
+		// Without a cached template, the lambda is parsed again, but with the tree of its implementation method and its own captured argument.
+		Lambda2Sql.clearCache();
+		Assertions.assertEquals("`person`.`age` > 30", Lambda2Sql.toSql((SqlPredicate<IPerson>) olderThan.invoke(null, 30), "person"));
+		Assertions.assertEquals(BitSet.valueOf(new long[]{2}), ColumnarFilter.compile((SqlPredicate<IPerson>) olderThan.invoke(null, 20)).filter(ColumnarTable.of(2).withColumn("age", new int[]{20, 21})));
+		Assertions.assertEquals(1, classLoader.reads);
+	}
+
+	@Test
+	void testCompiledTranslation() {
+		assertPredicateEqual("`person`.`name` LIKE 'Steve%' OR `person`.`lastName` = 'T'", nameOrLastName("Steve", "T"));
+		assertPredicateEqual("`person`.`name` LIKE 'Donald%' OR `person`.`lastName` = 'D'", nameOrLastName("Donald", "D"));
+		assertPredicateEqual("`person`.`name` LIKE 'O\\'Neill%' OR `person`.`lastName` IS NULL", nameOrLastName("O'Neill", null));
+		assertPredicateEqual("`person`.`name` LIKE 'Steve%' OR `person`.`lastName` = 'T'", nameOrLastName("Steve", "T"));
+		Assertions.assertEquals("car.name LIKE 'Steve%' OR car.lastName = 'T'", Lambda2Sql.toSql(nameOrLastName("Steve", "T"), "car", false));
+		Assertions.assertEquals("name LIKE 'Steve%' OR lastName = 'T'", Lambda2Sql.toSql(nameOrLastName("Steve", "T")));
+	}
+
+	@Test
+	void testCompiledTranslationWithList() {
+		assertPredicateEqual("`person`.`id` IN (1, 2)", idIn(Arrays.asList(1L, 2L)));
+		assertPredicateEqual("`person`.`id` IN (3, 4, 5)", idIn(Arrays.asList(3L, 4L, 5L)));
+	}
+
+	@Test
+	void testCacheStatistics() {
+		Lambda2Sql.clearCache();
+		var before = Lambda2Sql.getCacheStatistics();
+		assertPredicateEqual("`person`.`name` LIKE 'Steve%' OR `person`.`lastName` = 'T'", nameOrLastName("Steve", "T"));
+		assertPredicateEqual("`person`.`name` LIKE 'Donald%' OR `person`.`lastName` = 'D'", nameOrLastName("Donald", "D"));
+		var after = Lambda2Sql.getCacheStatistics();
+		Assertions.assertEquals(before.getMissCount() + 1, after.getMissCount());
+		Assertions.assertEquals(before.getHitCount() + 1, after.getHitCount());
+		Assertions.assertEquals(1, after.getSize());
+
+		try {
+			Lambda2Sql.setCacheCapacity(0);
+			Assertions.assertEquals(0, Lambda2Sql.getCacheStatistics().getSize());
+			Assertions.assertEquals(after.getEvictionCount() + 1, Lambda2Sql.getCacheStatistics().getEvictionCount());
+			assertPredicateEqual("`person`.`name` LIKE 'Steve%' OR `person`.`lastName` = 'T'", nameOrLastName("Steve", "T"));
+			assertPredicateEqual("`person`.`name` LIKE 'Steve%' OR `person`.`lastName` = 'T'", nameOrLastName("Steve", "T"));
+			Assertions.assertEquals(after.getMissCount() + 2, Lambda2Sql.getCacheStatistics().getMissCount());
+			Assertions.assertEquals(0, Lambda2Sql.getCacheStatistics().getSize());
+		} finally {
+			Lambda2Sql.setCacheCapacity(Lambda2Sql.DEFAULT_CACHE_CAPACITY);
+		}
+	}
+
+	@Test
+	void testPreload() {
+		Lambda2Sql.clearCache();
+		var report = Lambda2Sql.preload(Arrays.asList(nameOrLastName("", ""), null), "person");
+		Assertions.assertEquals(1, report.getTranslatedCount());
+		Assertions.assertEquals(1, report.getFailures().size());
+		Assertions.assertNull(report.getFailures().get(0).getFunctionalInterface());
+		Assertions.assertEquals(2, Lambda2Sql.getCacheStatistics().getSize());
+
+		var misses = Lambda2Sql.getCacheStatistics().getMissCount();
+		assertPredicateEqual("`person`.`name` LIKE 'Steve%' OR `person`.`lastName` = 'T'", nameOrLastName("Steve", "T"));
+		Assertions.assertEquals(misses, Lambda2Sql.getCacheStatistics().getMissCount());
+
+		Lambda2Sql.clearCache();
+		report = Lambda2Sql.preload(List.of(SqlPredicate.allOf(List.of(ageIs(0), SqlPredicate.anyOf(List.of(nameOrLastName("", ""), p -> p.isActive()))))), "person");
+		Assertions.assertEquals(1, report.getTranslatedCount());
+		Assertions.assertTrue(report.getFailures().isEmpty());
+		Assertions.assertEquals(6, Lambda2Sql.getCacheStatistics().getSize());
+
+		Lambda2Sql.clearCache();
+		report = Lambda2Sql.preload(PreloadedPredicates.class, "person");
+		Assertions.assertEquals(1, report.getTranslatedCount());
+		Assertions.assertTrue(report.getFailures().isEmpty());
+		Assertions.assertEquals(4, Lambda2Sql.getCacheStatistics().getSize());
+
+		misses = Lambda2Sql.getCacheStatistics().getMissCount();
+		assertPredicateEqual("`person`.`isActive` AND `person`.`age` >= 18", PreloadedPredicates.ACTIVE_ADULTS);
+		Assertions.assertEquals(misses, Lambda2Sql.getCacheStatistics().getMissCount());
+	}
+
+	@Test
+	void testSqlBatch() {
+		var predicates = new ArrayList<SqlPredicate<IPerson>>();
+		for (int i = 0; i < 600; i++) {
+			predicates.add(nameOrLastName("Steve" + i, "T"));
+		}
+
+		predicates.add(null);
+		predicates.add(p -> p.getAge() > 18);
+
+		var results = Lambda2Sql.toSqlBatch(predicates, "person");
+		Assertions.assertEquals(predicates.size(), results.size());
+		for (int i = 0; i < 600; i++) {
+			Assertions.assertEquals("`person`.`name` LIKE 'Steve" + i + "%' OR `person`.`lastName` = 'T'", results.get(i).getSql());
+		}
+
+		Assertions.assertFalse(results.get(600).isSuccessful());
+		Assertions.assertNotNull(results.get(600).getFailure());
+		Assertions.assertEquals("`person`.`age` > 18", results.get(601).getSql());
+	}
+
+	@Test
+	void testTemplateIndexWriter(@TempDir Path directory) throws IOException {
+		var writer = new TemplateIndexWriter();
+		Assertions.assertTrue(writer.add(nameOrLastName("", "")));
+		Assertions.assertFalse(writer.add(nameOrLastName("", "").and(p -> p.isActive())));
+		Assertions.assertEquals(8, writer.size());
+
+		writer.writeTo(directory);
+		Assertions.assertTrue(Files.isRegularFile(directory.resolve("META-INF/lambda2sql/com/github/collinalpert/lambda2sql/test/Lambda2SqlTest.templates")));
+	}
+
+	@Test
+	void testPreparedSql() {
+		var name = "Steve";
+		var date = LocalDate.of(1990, 10, 5);
+		var ids = Arrays.asList(1L, 2L);
+		String lastName = null;
+		Integer age = null;
+
+		assertPreparedEqual("`person`.`name` LIKE ? AND `person`.`date` > ?", Arrays.asList("Steve%", date), p -> p.getName().startsWith(name) && p.getDate().isAfter(date));
+		assertPreparedEqual("`person`.`name` = 'Donald' OR `person`.`name` = ?", Collections.singletonList("Steve"), p -> p.getName() == "Donald" || p.getName() == name);
+		assertPreparedEqual("`person`.`id` IN (?, ?)", Arrays.asList(1L, 2L), p -> ids.contains(p.getId()));
+		assertPreparedEqual("`person`.`lastName` IS NULL", Collections.emptyList(), p -> p.getLastName() == lastName);
+		assertPreparedEqual("`person`.`age` >= ?", Collections.singletonList(null), p -> p.getAge() >= age);
+
+		for (var i = 0; i < 2; i++) {
+			assertPreparedEqual("`person`.`name` LIKE ? OR `person`.`lastName` = ?", Arrays.asList("Steve%", "T"), nameOrLastName("Steve", "T"));
+			assertPreparedEqual("`person`.`name` LIKE ? OR `person`.`lastName` = ?", Arrays.asList("%", "D"), nameOrLastName("", "D"));
+		}
+	}
+
+	@Test
+	void testAppendToExistingBuffer() {
+		var name = "Steve";
+		SqlPredicate<IPerson> predicate = p -> p.getName() == name && p.getAge() > 18;
+
+		var sb = new StringBuilder("SELECT * FROM `person` WHERE ");
+		Assertions.assertSame(sb, Lambda2Sql.toSql(predicate, "person", true, sb));
+		Assertions.assertEquals("SELECT * FROM `person` WHERE `person`.`name` = 'Steve' AND `person`.`age` > 18", sb.toString());
+
+		var writer = new StringWriter().append("WHERE ");
+		Lambda2Sql.toSql(predicate, null, false, writer);
+		Assertions.assertEquals("WHERE name = 'Steve' AND age > 18", writer.toString());
+	}
+
+	@Test
+	void testLikeWithColumnPattern() {
+		assertPredicateEqual("`person`.`name` LIKE CONCAT(`person`.`lastName`, '%')", p -> p.getName().startsWith(p.getLastName()));
+		assertPredicateEqual("`person`.`name` NOT LIKE CONCAT('%', `person`.`lastName`, '%')", p -> !p.getName().contains(p.getLastName()));
+	}
+
+	@Test
+	void testRepeatedParameters() {
+		var age = 18;
+		var name = "Steve";
+		String lastName = null;
+		assertPredicateEqual("`person`.`age` > 18 AND `person`.`height` > 18 OR `person`.`id` = 18", p -> p.getAge() > age && p.getHeight() > age || p.getId() == age);
+		assertPredicateEqual("`person`.`lastName` IS NULL AND `person`.`name` = 'Steve' AND `person`.`age` = 18 AND `person`.`name` LIKE 'Steve%'",
+				p -> p.getLastName() == lastName && p.getName() == name && p.getAge() == age && p.getName().startsWith(name));
+	}
+
+	@Test
+	void testNamingStrategies() {
+		var name = "Steve";
+		SqlPredicate<IPerson> predicate = p -> p.getLastName() == name && p.isActive() || p.getBirthPlace() == "Berlin";
+
+		assertPredicateEqual("`person`.`lastName` = 'Steve' AND `person`.`isActive` OR `person`.`place_of_birth` = 'Berlin'", predicate);
+		Assertions.assertEquals("`person`.`lastName` = 'Steve' AND `person`.`active` OR `person`.`place_of_birth` = 'Berlin'",
+				Lambda2Sql.toSql(predicate, "person", SqlOptions.DEFAULT.withNamingStrategy(NamingStrategy.BEAN_PROPERTY)));
+		Assertions.assertEquals("person.last_name = 'Steve' AND person.active OR person.place_of_birth = 'Berlin'",
+				Lambda2Sql.toSql(predicate, "person", SqlOptions.DEFAULT.withBackticks(false).withNamingStrategy(NamingStrategy.SNAKE_CASE)));
+		Assertions.assertEquals("last_name = ? AND active OR place_of_birth = 'Berlin'",
+				Lambda2Sql.toPreparedSql(predicate, null, SqlOptions.DEFAULT.withNamingStrategy(NamingStrategy.SNAKE_CASE)).getSql());
+
+		// Strategies of the application are cached by an identity which does not reference them, so equal options still share their templates.
+		NamingStrategy upperCase = member -> NamingStrategy.DEFAULT.getColumnName(member).toUpperCase();
+		NamingStrategy lowerCase = member -> NamingStrategy.DEFAULT.getColumnName(member).toLowerCase();
+		var upperCaseSql = "`person`.`LASTNAME` = 'Steve' AND `person`.`ISACTIVE` OR `person`.`place_of_birth` = 'Berlin'";
+		Assertions.assertEquals(upperCaseSql, Lambda2Sql.toSql(predicate, "person", SqlOptions.DEFAULT.withNamingStrategy(upperCase)));
+		var before = Lambda2Sql.getCacheStatistics();
+		Assertions.assertEquals(upperCaseSql, Lambda2Sql.toSql(predicate, "person", SqlOptions.DEFAULT.withNamingStrategy(upperCase)));
+		Assertions.assertEquals(before.getHitCount() + 1, Lambda2Sql.getCacheStatistics().getHitCount());
+		Assertions.assertEquals("`person`.`lastname` = 'Steve' AND `person`.`isactive` OR `person`.`place_of_birth` = 'Berlin'",
+				Lambda2Sql.toSql(predicate, "person", SqlOptions.DEFAULT.withNamingStrategy(lowerCase)));
+	}
+
+	@Test
+	void testRegisteredMethod() throws NoSuchMethodException {
+		// The registry is global, so a method of this test is registered instead of a JDK method other tests might use.
+		Lambda2Sql.registerMethod(Lambda2SqlTest.class.getDeclaredMethod("equalsIgnoreCase", String.class, String.class), (visitor, instance, arguments, isNegated) -> {
+			visitor.getBuffer().append("LOWER(");
+			arguments.get(0).accept(visitor).append(isNegated ? ") != LOWER(" : ") = LOWER(");
+			return arguments.get(1).accept(visitor).append(')');
+		});
+
+		var name = "Steve";
+		assertPredicateEqual("LOWER(`person`.`name`) = LOWER('Steve')", p -> equalsIgnoreCase(p.getName(), name));
+		assertPredicateEqual("LOWER(`person`.`name`) != LOWER('Steve') AND `person`.`age` > 18", p -> !equalsIgnoreCase(p.getName(), "Steve") && p.getAge() > 18);
+	}
+
+	@Test
+	void testRegisteredMethodReplacesPrecompiledTemplates() throws Exception {
+		var method = IndexedPredicates.class.getDeclaredMethod("matches", String.class, String.class);
+		var output = Path.of(Lambda2SqlTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+		var index = output.resolve("META-INF/lambda2sql/com/github/collinalpert/lambda2sql/test/Lambda2SqlTest$IndexedPredicates.templates");
+		try {
+			// The templates of the class are precompiled with the first translator, like the Maven plugin would at build time.
+			Lambda2Sql.registerMethod(method, functionTranslator("OLD"));
+			var writer = new TemplateIndexWriter();
+			Assertions.assertTrue(writer.add(IndexedPredicates.named("Steve")));
+			writer.writeTo(output);
+			Assertions.assertTrue(Files.isRegularFile(index));
+
+			Lambda2Sql.registerMethod(method, functionTranslator("NEW"));
+			Assertions.assertEquals("NEW(`person`.`name`, 'Steve')", Lambda2Sql.toSql(IndexedPredicates.named("Steve"), "person"));
+			Assertions.assertEquals("NEW(`person`.`name`, 'Bill')", Lambda2Sql.toSql(IndexedPredicates.named("Bill"), "person"));
+		} finally {
+			Files.deleteIfExists(index);
+		}
+	}
+
+	private static SqlMethodTranslator functionTranslator(String function) {
+		return (visitor, instance, arguments, isNegated) -> {
+			visitor.getBuffer().append(function).append('(');
+			arguments.get(0).accept(visitor).append(", ");
+			return arguments.get(1).accept(visitor).append(')');
+		};
+	}
+
+	private static boolean equalsIgnoreCase(String value, String other) {
+		return value.equalsIgnoreCase(other);
+	}
+
+	private static SqlPredicate<IPerson> nameOrLastName(String name, String lastName) {
+		return person -> person.getName().startsWith(name) || person.getLastName() == lastName;
+	}
+
+	private static SqlPredicate<IPerson> spentMoreThan(int minimum) {
+		return person -> person.getOrders().stream().anyMatch(order -> order.getTotal() > minimum);
+	}
+
+	private static SqlPredicate<IPerson> adultWithBigOrder(int age) {
+		return person -> person.getAge() >= age && person.getOrders().stream().anyMatch(order -> order.getTotal() > 100);
+	}
+
+	private static SqlPredicate<IPerson> idIn(List<Long> ids) {
+		return person -> ids.contains(person.getId());
+	}
+
 	private void assertPredicateEqual(String expectedSql, SqlPredicate<IPerson> p) {
 		var sql = Lambda2Sql.toSql(p, "person");
 		Assertions.assertEquals(expectedSql, sql);
 	}
 
+	private void assertPreparedEqual(String expectedSql, List<Object> expectedValues, SqlPredicate<IPerson> p) {
+		var preparedSql = Lambda2Sql.toPreparedSql(p, "person");
+		Assertions.assertEquals(expectedSql, preparedSql.getSql());
+		Assertions.assertEquals(expectedValues, preparedSql.getParameters().stream().map(SqlParameter::getValue).collect(Collectors.toList()));
+	}
+
 	private void assertFunctionEqual(String expectedSql, SqlFunction<IPerson, ?> function) {
 		var sql = Lambda2Sql.toSql(function, "person");
 		Assertions.assertEquals(expectedSql, sql);
 	}
 
+	private static SqlPredicate<IPerson> inMonth(int year, int month) {
+		return person -> person.getDate().getYear() == year && person.getDate().getMonthValue() == month;
+	}
+
+	private SqlPredicate<IPerson> ageIs(int age) {
+		return person -> person.getAge() == age;
+	}
+
 	private SqlFunction<IPerson, ?> getFunction(IPerson p) {
 		if (p.getHeight() > 150) {
 			return IPerson::getHeight;
@@ -272,4 +1042,66 @@ class Lambda2SqlTest implements Serializable {
 
 		return IPerson::getAge;
 	}
+
+	/**
+	 * Defines a class itself instead of delegating to its parent and counts how often the class file is read.
+	 */
+	private static final class CountingClassLoader extends ClassLoader {
+
+		private final String className;
+		private final String resourceName;
+		private int reads;
+
+		CountingClassLoader(String className) {
+			super(Lambda2SqlTest.class.getClassLoader());
+			this.className = className;
+			this.resourceName = className.replace('.', '/') + ".class";
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (!name.equals(this.className)) {
+				return super.loadClass(name, resolve);
+			}
+
+			synchronized (getClassLoadingLock(name)) {
+				var type = findLoadedClass(name);
+				if (type == null) {
+					try (var in = getParent().getResourceAsStream(this.resourceName)) {
+						var bytes = in.readAllBytes();
+						type = defineClass(name, bytes, 0, bytes.length);
+					} catch (IOException e) {
+						throw new ClassNotFoundException(name, e);
+					}
+				}
+
+				return type;
+			}
+		}
+
+		@Override
+		public URL getResource(String name) {
+			if (name.equals(this.resourceName)) {
+				this.reads++;
+			}
+
+			return super.getResource(name);
+		}
+	}
+
+	private static final class IndexedPredicates {
+
+		private static SqlPredicate<IPerson> named(String name) {
+			return p -> matches(p.getName(), name);
+		}
+
+		private static boolean matches(String value, String other) {
+			return value.equals(other);
+		}
+	}
+
+	private static final class PreloadedPredicates {
+
+		private static final SqlPredicate<IPerson> ACTIVE_ADULTS = SqlPredicate.allOf(List.of(p -> p.isActive(), p -> p.getAge() >= 18));
+	}
 }
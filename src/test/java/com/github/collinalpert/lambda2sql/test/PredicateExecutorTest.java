@@ -0,0 +1,103 @@
+package com.github.collinalpert.lambda2sql.test;
+
+import com.github.collinalpert.lambda2sql.InListStrategy;
+import com.github.collinalpert.lambda2sql.SqlDialect;
+import com.github.collinalpert.lambda2sql.SqlOptions;
+import com.github.collinalpert.lambda2sql.functions.SqlPredicate;
+import com.github.collinalpert.lambda2sql.jdbc.PredicateExecutor;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Executes predicates with a {@link PredicateExecutor} against an embedded H2 database.
+ */
+class PredicateExecutorTest {
+
+	private static final SqlOptions options = SqlOptions.DEFAULT.withDialect(SqlDialect.H2);
+
+	private static final String SELECT = "SELECT \"id\" FROM \"person\"";
+
+	private static Connection connection;
+
+	@BeforeAll
+	static void createTable() throws SQLException {
+		connection = DriverManager.getConnection("jdbc:h2:mem:executor");
+		try (var statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE \"person\" (\"id\" BIGINT PRIMARY KEY, \"name\" VARCHAR(50), \"age\" INT, \"date\" DATE, \"dateTime\" TIMESTAMP)");
+			statement.execute("INSERT INTO \"person\" VALUES (1, 'Steve', 30, DATE '2020-02-15', TIMESTAMP '2020-02-15 10:00:00')");
+			statement.execute("INSERT INTO \"person\" VALUES (2, 'Donald', 17, DATE '2019-12-31', TIMESTAMP '2019-12-31 23:59:59')");
+			statement.execute("INSERT INTO \"person\" VALUES (3, 'Stella', 45, DATE '2020-03-01', TIMESTAMP '2020-03-01 00:00:00')");
+		}
+	}
+
+	@AfterAll
+	static void closeConnection() throws SQLException {
+		connection.close();
+	}
+
+	@Test
+	void testStatementReuse() throws SQLException {
+		try (var executor = new PredicateExecutor(connection, options)) {
+			Assertions.assertEquals(List.of(1L, 3L), select(executor, minimumAge(18)));
+			Assertions.assertEquals(List.of(3L), select(executor, minimumAge(40)));
+			Assertions.assertEquals(1, executor.getStatementCount());
+			Assertions.assertSame(executor.prepare(SELECT, minimumAge(1), "person"), executor.prepare(SELECT, minimumAge(2), "person"));
+
+			var name = "Steve";
+			Assertions.assertEquals(List.of(1L), select(executor, p -> p.getName() == name));
+			Assertions.assertEquals(2, executor.getStatementCount());
+		}
+	}
+
+	@Test
+	void testDateBinding() throws SQLException {
+		var date = LocalDate.of(2020, 1, 1);
+		var dateTime = LocalDateTime.of(2020, 2, 15, 10, 0);
+		try (var executor = new PredicateExecutor(connection, options)) {
+			Assertions.assertEquals(List.of(1L, 3L), select(executor, p -> p.getDate().isAfter(date)));
+			Assertions.assertEquals(List.of(1L), select(executor, p -> p.getDateTime() == dateTime));
+		}
+	}
+
+	@Test
+	void testMembershipBinding() throws SQLException {
+		var ids = Arrays.asList(1L, 3L);
+		var idsWithNull = Arrays.asList(2L, null);
+		try (var executor = new PredicateExecutor(connection, options.withInListStrategy(InListStrategy.ARRAY_PARAMETER))) {
+			Assertions.assertEquals(List.of(1L, 3L), select(executor, p -> ids.contains(p.getId())));
+		}
+
+		try (var executor = new PredicateExecutor(connection, options)) {
+			Assertions.assertEquals(List.of(2L), select(executor, p -> idsWithNull.contains(p.getId())));
+		}
+	}
+
+	@Test
+	void testUpdateAndEviction() throws SQLException {
+		try (var executor = new PredicateExecutor(connection, options, 1)) {
+			var age = 17;
+			Assertions.assertEquals(1, executor.<IPerson>update("UPDATE \"person\" SET \"name\" = 'Donald'", p -> p.getAge() == age, "person"));
+			Assertions.assertEquals(List.of(2L), select(executor, p -> p.getAge() < 18));
+			Assertions.assertEquals(1, executor.getStatementCount());
+		}
+
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new PredicateExecutor(connection, options, 0));
+	}
+
+	private static SqlPredicate<IPerson> minimumAge(int age) {
+		return p -> p.getAge() >= age;
+	}
+
+	private static List<Long> select(PredicateExecutor executor, SqlPredicate<IPerson> predicate) throws SQLException {
+		var ids = executor.select(SELECT, predicate, "person", resultSet -> resultSet.getLong(1));
+		ids.sort(null);
+		return ids;
+	}
+}